@@ -3,6 +3,7 @@ plugins {
 	id("org.springframework.boot") version "3.2.5"
 	id("io.spring.dependency-management") version "1.1.4"
 	id("io.freefair.lombok") version "8.6"
+	id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.example"
@@ -19,11 +20,18 @@ repositories {
 dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-data-jpa")
 	runtimeOnly("org.postgresql:postgresql")
+	implementation("org.flywaydb:flyway-core")
+	implementation("org.springframework.boot:spring-boot-starter-data-r2dbc")
+	runtimeOnly("org.postgresql:r2dbc-postgresql")
 	implementation("org.springframework.boot:spring-boot-starter-cache")
 	implementation("org.springframework.boot:spring-boot-starter-data-redis")
 	implementation("io.lettuce:lettuce-core")
+	implementation("com.github.ben-manes.caffeine:caffeine")
+	implementation("org.lz4:lz4-java:1.8.0")
 
 	implementation("org.springframework.boot:spring-boot-starter-web")
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 	implementation("org.mapstruct:mapstruct:1.5.5.Final")
 	annotationProcessor("org.mapstruct:mapstruct-processor:1.5.5.Final")
 	implementation("org.springframework.boot:spring-boot-starter-validation")
@@ -32,6 +40,7 @@ dependencies {
 
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+	testRuntimeOnly("com.h2database:h2")
 	testImplementation("net.javacrumbs.json-unit:json-unit:2.38.0")
 	testImplementation("org.junit.jupiter:junit-jupiter:5.10.2")
 }
@@ -39,3 +48,75 @@ dependencies {
 tasks.withType<Test> {
 	useJUnitPlatform()
 }
+
+sourceSets {
+	create("loadTest")
+}
+
+dependencies {
+	"loadTestImplementation"("org.hdrhistogram:HdrHistogram")
+}
+
+// С -Pstart-app тест сам запускает собранный jar приложения и останавливает его после измерения
+tasks.register<JavaExec>("loadTest") {
+	description = "Нагрузочный тест приложения: ./gradlew loadTest -Pcatalog-size=2000000 -Pconcurrency=2000 [-Pstart-app]"
+	group = "verification"
+	classpath = sourceSets["loadTest"].runtimeClasspath
+	mainClass.set("org.example.books.load.LoadTest")
+	listOf("url", "concurrency", "warmup-seconds", "duration-seconds", "catalog-size",
+		"categories", "zipf-exponent", "catalog-seed", "mix", "app-args").forEach { name ->
+		project.findProperty(name)?.let { systemProperty("books.$name", it) }
+	}
+	if (project.hasProperty("start-app")) {
+		val bootJar = tasks.named<org.springframework.boot.gradle.tasks.bundling.BootJar>("bootJar")
+		dependsOn(bootJar)
+		systemProperty("books.app-jar", bootJar.get().archiveFile.get().asFile.absolutePath)
+	}
+}
+
+val jmhResultsDir = layout.buildDirectory.dir("results/jmh")
+val gitCommit = providers.exec {
+	commandLine("git", "rev-parse", "--short", "HEAD")
+	isIgnoreExitValue = true
+}.standardOutput.asText.map { it.trim().ifEmpty { "local" } }
+
+// Результаты каждого запуска пишутся в build/results/jmh/<коммит>.json, чтобы сравнивать их задачей jmhCompare.
+// Часть бенчмарков выбирается регулярным выражением: ./gradlew jmh -PjmhIncludes=BookMapperBenchmark
+jmh {
+	resultFormat.set("JSON")
+	resultsFile.set(jmhResultsDir.zip(gitCommit) { dir, commit -> dir.file("$commit.json") })
+	project.findProperty("jmhIncludes")?.let { includes.set(listOf(it.toString())) }
+}
+
+tasks.register("jmhCompare") {
+	description = "Сравнение результатов JMH двух коммитов: ./gradlew jmhCompare -Pbaseline=<коммит> [-Pcandidate=<коммит>]"
+	group = "verification"
+	val resultsDir = jmhResultsDir.map { it.asFile }
+	val baseline = providers.gradleProperty("baseline")
+	val candidate = providers.gradleProperty("candidate").orElse(gitCommit)
+	doLast {
+		fun load(commit: String): Map<String, Pair<Double, String>> {
+			val file = resultsDir.get().resolve("$commit.json")
+			require(file.isFile) { "Нет результатов JMH для $commit: $file" }
+			@Suppress("UNCHECKED_CAST")
+			val results = groovy.json.JsonSlurper().parse(file) as List<Map<String, Any?>>
+			return results.associate { result ->
+				val params = (result["params"] as Map<*, *>?)?.entries?.sortedBy { it.key.toString() }
+					?.joinToString(",", "(", ")") { "${it.key}=${it.value}" } ?: ""
+				val metric = result["primaryMetric"] as Map<*, *>
+				"${result["benchmark"]}$params" to
+					((metric["score"] as Number).toDouble() to metric["scoreUnit"].toString())
+			}
+		}
+		val before = load(baseline.get())
+		val after = load(candidate.get())
+		println("%-100s %14s %14s %9s".format("Benchmark", baseline.get(), candidate.get(), "change"))
+		(before.keys + after.keys).sorted().forEach { name ->
+			val old = before[name]
+			val new = after[name]
+			val change = if (old != null && new != null) "%+8.1f%%".format((new.first - old.first) / old.first * 100) else "-"
+			println("%-100s %14s %14s %9s".format(name.removePrefix("org.example.books."),
+				old?.let { "%.2f".format(it.first) } ?: "-", new?.let { "%.2f %s".format(it.first, it.second) } ?: "-", change))
+		}
+	}
+}
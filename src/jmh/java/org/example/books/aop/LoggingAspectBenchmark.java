@@ -0,0 +1,106 @@
+package org.example.books.aop;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.example.books.config.properties.AppMethodMetricsProperties;
+import org.example.books.dao.projection.BookView;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость вызова метода с @Loggable: без аспекта, с прежним аспектом и с таймером Micrometer.
+ * Лог пишется в пустой поток с обычным шаблоном, то есть учитывается форматирование, но не ввод-вывод.
+ * Метод возвращает список из 100 книг, который прежний аспект форматирует на уровне DEBUG.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingAspectBenchmark {
+  @Param({"INFO", "DEBUG"})
+  private String level;
+
+  private Target plain;
+  private Target legacy;
+  private Target metrics;
+
+  @Setup
+  public void setUp() {
+    this.configureLogging(Level.toLevel(this.level));
+    List<BookView> books = new ArrayList<>();
+    for (int i = 1; i <= 100; i++) {
+      books.add(new BookView(i, "Приключения Тома Сойера, том " + i, "Марк Твен", "Детская литература"));
+    }
+    this.plain = new Target(books);
+    this.legacy = proxy(new Target(books), new LegacyLoggingAspect());
+    this.metrics = proxy(new Target(books), new LoggingAspect(
+        new PrometheusMeterRegistry(PrometheusConfig.DEFAULT), new AppMethodMetricsProperties()));
+  }
+
+  @Benchmark
+  public Object noAspect() {
+    return this.plain.find();
+  }
+
+  @Benchmark
+  public Object legacyAspect() {
+    return this.legacy.find();
+  }
+
+  @Benchmark
+  public Object metricsAspect() {
+    return this.metrics.find();
+  }
+
+  private static Target proxy(Target target, Object aspect) {
+    AspectJProxyFactory factory = new AspectJProxyFactory(target);
+    factory.setProxyTargetClass(true);
+    factory.addAspect(aspect);
+    return factory.getProxy();
+  }
+
+  private void configureLogging(Level level) {
+    LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+    PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+    encoder.setContext(context);
+    encoder.setPattern("%d %-5level [%thread] %logger{36} : %msg%n");
+    encoder.start();
+    OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+    appender.setContext(context);
+    appender.setEncoder(encoder);
+    appender.setOutputStream(OutputStream.nullOutputStream());
+    appender.start();
+    Logger logger = context.getLogger("org.example.books.aop");
+    logger.detachAndStopAllAppenders();
+    logger.setAdditive(false);
+    logger.addAppender(appender);
+    logger.setLevel(level);
+  }
+
+  public static class Target {
+    private final List<BookView> books;
+
+    public Target(List<BookView> books) {
+      this.books = books;
+    }
+
+    @Loggable
+    public List<BookView> find() {
+      return this.books;
+    }
+  }
+}
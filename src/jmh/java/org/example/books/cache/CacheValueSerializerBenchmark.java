@@ -0,0 +1,81 @@
+package org.example.books.cache;
+
+import org.example.books.dao.projection.BookView;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение сериализации значений кэша booksByCategory: стандартная сериализация Java
+ * против двоичного формата. Размер записи в байтах показывает отдельный замер entrySize (счётчики jdkBytes
+ * и binaryBytes): он выполняется один раз, поэтому счётчики равны размеру одной записи.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheValueSerializerBenchmark {
+  @Param({"1", "100", "10000"})
+  private int listSize;
+
+  private final RedisSerializer<Object> jdkSerializer = RedisSerializer.java();
+  private final RedisSerializer<Object> binarySerializer = new BookBinaryRedisSerializer(4096);
+
+  private List<BookView> books;
+  private byte[] jdkBytes;
+  private byte[] binaryBytes;
+
+  @Setup
+  public void setUp() {
+    this.books = new ArrayList<>(this.listSize);
+    for (int i = 1; i <= this.listSize; i++) {
+      this.books.add(new BookView(i, "Приключения Тома Сойера, том " + i, "Марк Твен", "Детская литература"));
+    }
+    this.jdkBytes = this.jdkSerializer.serialize(this.books);
+    this.binaryBytes = this.binarySerializer.serialize(this.books);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 0)
+  @Measurement(iterations = 1, batchSize = 1)
+  public void entrySize(EntrySize entrySize) {
+    entrySize.jdkBytes = this.jdkSerializer.serialize(this.books).length;
+    entrySize.binaryBytes = this.binarySerializer.serialize(this.books).length;
+  }
+
+  @Benchmark
+  public byte[] jdkEncode() {
+    return this.jdkSerializer.serialize(this.books);
+  }
+
+  @Benchmark
+  public Object jdkDecode() {
+    return this.jdkSerializer.deserialize(this.jdkBytes);
+  }
+
+  @Benchmark
+  public byte[] binaryEncode() {
+    return this.binarySerializer.serialize(this.books);
+  }
+
+  @Benchmark
+  public Object binaryDecode() {
+    return this.binarySerializer.deserialize(this.binaryBytes);
+  }
+
+  /**
+   * Размер записи в байтах в каждом формате
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class EntrySize {
+    public long jdkBytes;
+    public long binaryBytes;
+  }
+}
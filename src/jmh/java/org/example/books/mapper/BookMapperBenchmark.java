@@ -0,0 +1,46 @@
+package org.example.books.mapper;
+
+import org.example.books.dao.projection.BookView;
+import org.example.books.web.dto.BookListResponse;
+import org.example.books.web.dto.BookPageResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость построения ответов со списком и страницей книг из проекций,
+ * сгенерированным MapStruct маппером, для списков разного размера
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookMapperBenchmark {
+  @Param({"1", "100", "10000"})
+  private int listSize;
+
+  private final BookMapper bookMapper = new BookMapperImpl();
+  private List<BookView> books;
+
+  @Setup
+  public void setUp() {
+    this.books = new ArrayList<>(this.listSize);
+    for (int i = 1; i <= this.listSize; i++) {
+      this.books.add(new BookView(i, "Приключения Тома Сойера, том " + i, "Марк Твен", "Детская литература"));
+    }
+  }
+
+  @Benchmark
+  public BookListResponse bookListToBookListResponse() {
+    return this.bookMapper.bookListToBookListResponse(this.books);
+  }
+
+  @Benchmark
+  public BookPageResponse bookPageToBookPageResponse() {
+    return this.bookMapper.bookPageToBookPageResponse(this.books, this.listSize);
+  }
+}
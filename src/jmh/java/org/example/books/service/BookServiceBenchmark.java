@@ -0,0 +1,75 @@
+package org.example.books.service;
+
+import org.example.books.config.properties.AppDataSourceProperties;
+import org.example.books.dao.entity.Book;
+import org.example.books.dao.entity.Category;
+import org.example.books.dao.projection.BookView;
+import org.example.books.dao.repository.BookRepository;
+import org.example.books.datasource.ReadYourWritesWindow;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость чтения и записи в {@link BookServiceImpl} без базы, кэшей и аспектов:
+ * репозитории заменены репозиториями в памяти, события публикуются в пустоту.
+ * Показывает собственные затраты сервиса: проекции, события, получение категорий
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookServiceBenchmark {
+  @Param({"100", "10000"})
+  private int categorySize;
+
+  private BookService bookService;
+  private int updatedId;
+  private boolean flip;
+
+  @Setup
+  public void setUp() {
+    BookRepository bookRepository = InMemoryRepositories.bookRepository();
+    this.bookService = new BookServiceImpl(
+        bookRepository, new CategoryResolver(InMemoryRepositories.categoryRepository()), event -> { },
+        new ReadYourWritesWindow(new AppDataSourceProperties()));
+    for (int i = 1; i <= this.categorySize; i++) {
+      this.bookService.create(
+          new Book("Приключения Тома Сойера, том " + i, "Марк Твен", new Category("Детская литература")));
+    }
+    this.updatedId = this.bookService.create(
+        new Book("Принц и нищий", "Марк Твен", new Category("Исторический роман"))).getId();
+  }
+
+  @Benchmark
+  public Optional<BookView> findByTitleAndAuthor() {
+    return this.bookService.findByTitleAndAuthor("Приключения Тома Сойера, том 1", "Марк Твен");
+  }
+
+  @Benchmark
+  public List<BookView> findAllByCategoryName() {
+    return this.bookService.findAllByCategoryName("Детская литература");
+  }
+
+  /**
+   * Название меняется на каждом вызове, чтобы каждое изменение было настоящим
+   */
+  @Benchmark
+  public Book update() {
+    this.flip = !this.flip;
+    return this.bookService.update(
+        new Book(this.flip ? "Принц и нищий" : "Принц и нищий, издание 2", "Марк Твен",
+            new Category("Исторический роман")),
+        this.updatedId);
+  }
+
+  @Benchmark
+  public void createAndDelete() {
+    Book book = this.bookService.create(new Book("Новая книга", "Марк Твен", new Category("Исторический роман")));
+    this.bookService.delete(book.getId());
+  }
+}
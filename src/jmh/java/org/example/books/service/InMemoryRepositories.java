@@ -0,0 +1,99 @@
+package org.example.books.service;
+
+import org.example.books.dao.entity.Book;
+import org.example.books.dao.entity.Category;
+import org.example.books.dao.projection.BookView;
+import org.example.books.dao.repository.BookRepository;
+import org.example.books.dao.repository.CategoryRepository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Репозитории в памяти вместо JPA для {@link BookServiceBenchmark}: измеряется код сервиса, а не база.
+ * Поиск по названию и автору и по категории идёт по хеш-индексам, как по индексам в базе.
+ * Поддерживаются только методы, которые вызывает сервис, остальные бросают исключение
+ */
+final class InMemoryRepositories {
+  private InMemoryRepositories() {
+  }
+
+  static BookRepository bookRepository() {
+    return proxy(BookRepository.class, new BookStore());
+  }
+
+  static CategoryRepository categoryRepository() {
+    Map<String, Category> categories = new HashMap<>();
+    return proxy(CategoryRepository.class, (proxy, method, args) -> switch (method.getName()) {
+      case "insertIfAbsent" -> categories.putIfAbsent((String) args[0], new Category((String) args[0])) == null ? 1 : 0;
+      case "getReferenceById" -> categories.get((String) args[0]);
+      default -> objectMethod(proxy, method, args);
+    });
+  }
+
+  private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+  }
+
+  private static Object objectMethod(Object proxy, Method method, Object[] args) {
+    return switch (method.getName()) {
+      case "hashCode" -> System.identityHashCode(proxy);
+      case "equals" -> proxy == args[0];
+      case "toString" -> proxy.getClass().getInterfaces()[0].getSimpleName() + " in memory";
+      default -> throw new UnsupportedOperationException(method.getName());
+    };
+  }
+
+  private static final class BookStore implements InvocationHandler {
+    private final Map<Integer, Book> books = new HashMap<>();
+    private final Map<Integer, BookView> indexed = new HashMap<>();
+    private final Map<String, Integer> idsByTitleAndAuthor = new HashMap<>();
+    private final Map<String, Set<Integer>> idsByCategory = new HashMap<>();
+    private int nextId = 1;
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      return switch (method.getName()) {
+        case "findById" -> Optional.ofNullable(this.books.get((Integer) args[0]));
+        case "findByTitleAndAuthor" ->
+            Optional.ofNullable(this.idsByTitleAndAuthor.get(args[0] + "\u001F" + args[1])).map(this.indexed::get);
+        case "findAllByCategoryName" -> this.idsByCategory.getOrDefault((String) args[0], Set.of()).stream()
+            .map(this.indexed::get)
+            .toList();
+        case "save" -> this.save((Book) args[0]);
+        case "delete" -> {
+          this.unindex(((Book) args[0]).getId());
+          yield this.books.remove(((Book) args[0]).getId());
+        }
+        default -> objectMethod(proxy, method, args);
+      };
+    }
+
+    private Book save(Book book) {
+      if (book.getId() == 0) {
+        book.setId(this.nextId++);
+      }
+      this.unindex(book.getId());
+      BookView view = BookView.of(book);
+      this.books.put(book.getId(), book);
+      this.indexed.put(book.getId(), view);
+      this.idsByTitleAndAuthor.put(view.getTitle() + "\u001F" + view.getAuthor(), view.getId());
+      this.idsByCategory.computeIfAbsent(view.getCategoryName(), name -> new LinkedHashSet<>()).add(view.getId());
+      return book;
+    }
+
+    private void unindex(int id) {
+      BookView view = this.indexed.remove(id);
+      if (view != null) {
+        this.idsByTitleAndAuthor.remove(view.getTitle() + "\u001F" + view.getAuthor());
+        this.idsByCategory.get(view.getCategoryName()).remove(id);
+      }
+    }
+  }
+}
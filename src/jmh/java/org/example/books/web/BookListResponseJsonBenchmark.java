@@ -0,0 +1,53 @@
+package org.example.books.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.example.books.dao.projection.BookView;
+import org.example.books.web.dto.BookListResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость вывода {@link BookListResponse} в JSON тем же настроенным Jackson, что и в приложении:
+ * в массив байтов (как при буферизации ответа) и потоком в пустой выходной поток
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookListResponseJsonBenchmark {
+  @Param({"1", "100", "10000"})
+  private int listSize;
+
+  private ObjectWriter writer;
+  private BookListResponse response;
+
+  @Setup
+  public void setUp() {
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    this.writer = objectMapper.writerFor(BookListResponse.class);
+    List<BookView> books = new ArrayList<>(this.listSize);
+    for (int i = 1; i <= this.listSize; i++) {
+      books.add(new BookView(i, "Приключения Тома Сойера, том " + i, "Марк Твен", "Детская литература"));
+    }
+    this.response = new BookListResponse(books);
+  }
+
+  @Benchmark
+  public byte[] writeValueAsBytes() throws IOException {
+    return this.writer.writeValueAsBytes(this.response);
+  }
+
+  @Benchmark
+  public void writeToStream() throws IOException {
+    this.writer.writeValue(OutputStream.nullOutputStream(), this.response);
+  }
+}
@@ -0,0 +1,78 @@
+package org.example.books.load;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Приложение, запущенное тестом в отдельном процессе из собранного jar. Базой и Redis ему служат
+ * локальные экземпляры, например из db_and_cache/docker-compose.yml. Вывод приложения пишется в файл рядом с jar
+ */
+final class AppProcess implements AutoCloseable {
+  private static final Duration START_TIMEOUT = Duration.ofMinutes(3);
+
+  private final Process process;
+
+  private AppProcess(Process process) {
+    this.process = process;
+  }
+
+  static AppProcess start(File jar, URI baseUri, String appArgs, HttpClient client) throws Exception {
+    List<String> command = new ArrayList<>(List.of(
+        ProcessHandle.current().info().command().orElse("java"), "-jar", jar.getAbsolutePath(),
+        "--server.port=" + baseUri.getPort()));
+    if (!appArgs.isBlank()) {
+      command.addAll(List.of(appArgs.trim().split("\\s+")));
+    }
+    File log = new File(jar.getParentFile(), "load-test-app.log");
+    Process process = new ProcessBuilder(command)
+        .redirectErrorStream(true)
+        .redirectOutput(log)
+        .start();
+    System.out.printf("Приложение запущено (pid %d), вывод в %s%n", process.pid(), log);
+    AppProcess app = new AppProcess(process);
+    try {
+      app.awaitHealthy(baseUri, client);
+    } catch (Exception e) {
+      app.close();
+      throw e;
+    }
+    return app;
+  }
+
+  private void awaitHealthy(URI baseUri, HttpClient client) throws Exception {
+    HttpRequest health = HttpRequest.newBuilder(baseUri.resolve("/actuator/health"))
+        .timeout(Duration.ofSeconds(5))
+        .GET()
+        .build();
+    long deadline = System.nanoTime() + START_TIMEOUT.toNanos();
+    while (System.nanoTime() < deadline) {
+      if (!this.process.isAlive()) {
+        throw new IllegalStateException("Приложение завершилось при старте с кодом " + this.process.exitValue());
+      }
+      try {
+        if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+          return;
+        }
+      } catch (java.io.IOException e) {
+        // ещё не слушает порт
+      }
+      Thread.sleep(500);
+    }
+    throw new IllegalStateException("Приложение не стало готовым за " + START_TIMEOUT);
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    this.process.destroy();
+    if (!this.process.waitFor(30, TimeUnit.SECONDS)) {
+      this.process.destroyForcibly();
+    }
+  }
+}
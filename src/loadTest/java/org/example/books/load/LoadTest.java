@@ -0,0 +1,368 @@
+package org.example.books.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Воспроизводимый нагрузочный тест приложения с большим числом одновременных клиентов.
+ * Перед тестом в приложение пакетами загружается синтетический каталог (SyntheticCatalog), если его там ещё нет.
+ * Каждый клиент отправляет следующий запрос сразу после ответа на предыдущий (замкнутая модель),
+ * запросы асинхронные, поэтому тысячи клиентов обслуживаются несколькими потоками.
+ * Конечные точки выбираются по заданным долям (RequestMix), книги и категории - по их популярности,
+ * у каждого клиента свой генератор случайных чисел с зерном от номера клиента, поэтому последовательности
+ * запросов одинаковы от запуска к запуску.
+ * Печатает пропускную способность, задержки p50/p99/p999 по всем запросам и по каждой конечной точке
+ * и долю попаданий в кэши за время измерения (по метрике Actuator cache.gets).
+ * <p>
+ * Параметры (системные свойства): books.url, books.concurrency, books.warmup-seconds, books.duration-seconds,
+ * books.catalog-size - число книг каталога, books.categories, books.zipf-exponent, books.catalog-seed, books.mix,
+ * books.app-jar и books.app-args - запустить приложение из jar перед тестом и остановить после
+ */
+public final class LoadTest {
+  private static final int BULK_BATCH = 5000;
+  private static final int BULK_PARALLELISM = 4;
+  private static final int PAGE_SIZE = 50;
+  private static final int LOOKUP_KEYS = 20;
+  private static final int SEARCH_PREFIX = 12;
+  private static final int UPDATE_CANDIDATES = 1000;
+  private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+  private static final List<String> CACHES = List.of("bookByTitleAndAuthor", "booksByCategory");
+  private static final Pattern FOUND_ID = Pattern.compile("\"found\":(?:false|true,\"book\":\\{\"id\":(\\d+))");
+  private static final Pattern COUNT = Pattern.compile("\"statistic\":\"COUNT\",\"value\":([0-9.E+-]+)");
+
+  private final HttpClient client;
+  private final URI baseUri;
+  private final int concurrency;
+  private final long seed;
+  private final SyntheticCatalog catalog;
+  private final RequestMix mix;
+  private final Map<RequestMix.Endpoint, Histogram> latencies = new EnumMap<>(RequestMix.Endpoint.class);
+  private final Map<RequestMix.Endpoint, LongAdder> errors = new EnumMap<>(RequestMix.Endpoint.class);
+  private int[] updateIds = new int[0];
+  private int[] updateBooks = new int[0];
+  private volatile boolean recording;
+  private volatile long deadline;
+
+  private LoadTest(
+      HttpClient client, URI baseUri, int concurrency, long seed, SyntheticCatalog catalog, RequestMix mix) {
+    this.client = client;
+    this.baseUri = baseUri;
+    this.concurrency = concurrency;
+    this.seed = seed;
+    this.catalog = catalog;
+    this.mix = mix;
+    for (RequestMix.Endpoint endpoint : RequestMix.Endpoint.values()) {
+      this.latencies.put(endpoint, new ConcurrentHistogram(MAX_LATENCY_MICROS, 3));
+      this.errors.put(endpoint, new LongAdder());
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    URI baseUri = URI.create(System.getProperty("books.url", "http://localhost:8080"));
+    int concurrency = Integer.getInteger("books.concurrency", 1000);
+    int warmupSeconds = Integer.getInteger("books.warmup-seconds", 10);
+    int durationSeconds = Integer.getInteger("books.duration-seconds", 30);
+    int books = Integer.getInteger("books.catalog-size", 100_000);
+    int categories = Integer.getInteger("books.categories", 1000);
+    double exponent = Double.parseDouble(System.getProperty("books.zipf-exponent", "1.0"));
+    long catalogSeed = Long.getLong("books.catalog-seed", 42L);
+    RequestMix mix = new RequestMix(
+        System.getProperty("books.mix", "book:70,page:15,list:2,lookup:3,search:8,update:2"));
+    String appJar = System.getProperty("books.app-jar", "");
+    String appArgs = System.getProperty("books.app-args", "");
+
+    ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(10))
+        .executor(executor)
+        .build();
+    AppProcess app = appJar.isBlank() ? null : AppProcess.start(new File(appJar), baseUri, appArgs, client);
+    try {
+      SyntheticCatalog catalog = new SyntheticCatalog(books, categories, exponent, catalogSeed);
+      System.out.printf("Каталог: %d книг, %d категорий, показатель Ципфа %.2f, зерно %d; доли запросов: %s%n",
+          books, categories, exponent, catalogSeed, mix);
+      LoadTest loadTest = new LoadTest(client, baseUri, concurrency, catalogSeed, catalog, mix);
+      loadTest.seed();
+      if (mix.includes(RequestMix.Endpoint.UPDATE)) {
+        loadTest.resolveUpdateIds();
+      }
+      loadTest.run(warmupSeconds, false);
+      Map<String, long[]> cacheGetsBefore = loadTest.cacheGets();
+      loadTest.run(durationSeconds, true);
+      Map<String, long[]> cacheGetsAfter = loadTest.cacheGets();
+      loadTest.report(durationSeconds, cacheGetsBefore, cacheGetsAfter);
+    } finally {
+      if (app != null) {
+        app.close();
+      }
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Каталог загружается через /bulk пакетами по BULK_BATCH книг, несколько пакетов одновременно.
+   * Если последняя книга каталога уже есть, каталог считается загруженным
+   */
+  private void seed() throws Exception {
+    int last = this.catalog.size() - 1;
+    if (this.get(this.bookPath(last)).statusCode() == 200) {
+      System.out.println("Каталог уже загружен");
+      return;
+    }
+    long start = System.nanoTime();
+    Semaphore inFlight = new Semaphore(BULK_PARALLELISM);
+    List<CompletableFuture<HttpResponse<Void>>> batches = new ArrayList<>();
+    for (int from = 0; from < this.catalog.size(); from += BULK_BATCH) {
+      inFlight.acquire();
+      batches.add(this.client.sendAsync(
+              this.post("/api/v1/book/bulk", this.bulkBody(from, Math.min(from + BULK_BATCH, this.catalog.size()))),
+              HttpResponse.BodyHandlers.discarding())
+          .whenComplete((response, e) -> inFlight.release()));
+    }
+    CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new)).join();
+    System.out.printf("Каталог загружен за %d с%n", TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+  }
+
+  private String bulkBody(int from, int to) {
+    StringBuilder body = new StringBuilder("{\"operations\":[");
+    for (int book = from; book < to; book++) {
+      if (book > from) {
+        body.append(',');
+      }
+      body.append("{\"type\":\"CREATE\",").append(this.bookFields(book)).append('}');
+    }
+    return body.append("]}").toString();
+  }
+
+  /**
+   * Идентификаторы самых популярных книг для запросов на изменение: их находят одним запросом /lookup
+   */
+  private void resolveUpdateIds() throws Exception {
+    int count = Math.min(UPDATE_CANDIDATES, this.catalog.size());
+    int[] books = new int[count];
+    for (int rank = 0; rank < count; rank++) {
+      books[rank] = this.catalog.bookOfRank(rank);
+    }
+    HttpResponse<String> response = this.client.send(
+        this.post("/api/v1/book/lookup", this.lookupBody(books)), HttpResponse.BodyHandlers.ofString());
+    int[] ids = new int[count];
+    int found = 0;
+    Matcher matcher = FOUND_ID.matcher(response.body());
+    for (int i = 0; i < count && matcher.find(); i++) {
+      if (matcher.group(1) != null) {
+        ids[found] = Integer.parseInt(matcher.group(1));
+        books[found++] = books[i];
+      }
+    }
+    if (found < count) {
+      System.out.printf("Для изменения найдено %d книг из %d%n", found, count);
+    }
+    this.updateIds = Arrays.copyOf(ids, found);
+    this.updateBooks = Arrays.copyOf(books, found);
+  }
+
+  private void run(int seconds, boolean recording) throws InterruptedException {
+    this.recording = recording;
+    this.deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+    CountDownLatch finished = new CountDownLatch(this.concurrency);
+    for (int i = 0; i < this.concurrency; i++) {
+      SplittableRandom random = new SplittableRandom(this.seed * 31 + i + (recording ? this.concurrency : 0));
+      this.next(random, finished);
+    }
+    finished.await();
+  }
+
+  /**
+   * Ответ на запрос клиента отправляет его следующий запрос, поэтому генератор клиента
+   * используется последовательно, без гонок
+   */
+  private void next(SplittableRandom random, CountDownLatch finished) {
+    if (System.nanoTime() - this.deadline >= 0) {
+      finished.countDown();
+      return;
+    }
+    RequestMix.Endpoint endpoint = this.mix.next(random);
+    if (endpoint == RequestMix.Endpoint.UPDATE && this.updateIds.length == 0) {
+      endpoint = RequestMix.Endpoint.BOOK;
+    }
+    final RequestMix.Endpoint requested = endpoint;
+    HttpRequest request = this.request(requested, random);
+    long start = System.nanoTime();
+    this.client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+        .whenComplete((response, e) -> {
+          if (this.recording) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+            this.latencies.get(requested).recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+            if (e != null || response.statusCode() >= 400) {
+              this.errors.get(requested).increment();
+            }
+          }
+          this.next(random, finished);
+        });
+  }
+
+  private HttpRequest request(RequestMix.Endpoint endpoint, SplittableRandom random) {
+    return switch (endpoint) {
+      case BOOK -> this.getRequest(this.bookPath(this.catalog.popularBook(random)));
+      case PAGE -> this.getRequest("/api/v1/book/"
+          + encode(this.catalog.categoryName(this.catalog.popularCategory(random)))
+          + "?after=0&size=" + PAGE_SIZE);
+      case LIST -> this.getRequest("/api/v1/book/"
+          + encode(this.catalog.categoryName(this.catalog.popularCategory(random))));
+      case LOOKUP -> {
+        int[] books = new int[LOOKUP_KEYS];
+        for (int i = 0; i < LOOKUP_KEYS; i++) {
+          books[i] = this.catalog.popularBook(random);
+        }
+        yield this.post("/api/v1/book/lookup", this.lookupBody(books));
+      }
+      case SEARCH -> {
+        String title = this.catalog.title(this.catalog.popularBook(random));
+        yield this.getRequest("/api/v1/book?q=" + encode(title.substring(0, Math.min(SEARCH_PREFIX, title.length()))));
+      }
+      case UPDATE -> {
+        int index = random.nextInt(this.updateIds.length);
+        yield HttpRequest.newBuilder(this.baseUri.resolve("/api/v1/book/" + this.updateIds[index]))
+            .timeout(Duration.ofSeconds(60))
+            .header("Content-Type", "application/json")
+            .PUT(HttpRequest.BodyPublishers.ofString("{" + this.bookFields(this.updateBooks[index]) + "}"))
+            .build();
+      }
+    };
+  }
+
+  /**
+   * Счётчики попаданий и промахов каждого кэша по метрике cache.gets; если метрики нет - пустой результат
+   */
+  private Map<String, long[]> cacheGets() throws Exception {
+    Map<String, long[]> gets = new LinkedHashMap<>();
+    for (String cache : CACHES) {
+      Long hits = this.counter("cache.gets?tag=cache:" + cache + "&tag=result:hit");
+      Long misses = this.counter("cache.gets?tag=cache:" + cache + "&tag=result:miss");
+      if (hits != null && misses != null) {
+        gets.put(cache, new long[] {hits, misses});
+      }
+    }
+    return gets;
+  }
+
+  private Long counter(String metric) throws Exception {
+    HttpResponse<String> response = this.client.send(
+        this.getRequest("/actuator/metrics/" + metric), HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() != 200) {
+      return null;
+    }
+    Matcher matcher = COUNT.matcher(response.body());
+    return matcher.find() ? (long) Double.parseDouble(matcher.group(1)) : null;
+  }
+
+  private void report(int durationSeconds, Map<String, long[]> cacheGetsBefore, Map<String, long[]> cacheGetsAfter) {
+    Histogram total = new Histogram(MAX_LATENCY_MICROS, 3);
+    long totalErrors = 0;
+    for (RequestMix.Endpoint endpoint : RequestMix.Endpoint.values()) {
+      total.add(this.latencies.get(endpoint));
+      totalErrors += this.errors.get(endpoint).sum();
+    }
+    System.out.printf("Клиентов: %d, время измерения: %d с%n", this.concurrency, durationSeconds);
+    System.out.printf("%-8s %10s %8s %10s %9s %9s %9s %9s%n",
+        "", "запросов", "ошибок", "запр/с", "p50, мс", "p99, мс", "p999, мс", "max, мс");
+    this.printRow("всего", total, totalErrors, durationSeconds);
+    for (RequestMix.Endpoint endpoint : RequestMix.Endpoint.values()) {
+      Histogram histogram = this.latencies.get(endpoint);
+      if (histogram.getTotalCount() > 0) {
+        this.printRow(endpoint.name().toLowerCase(), histogram, this.errors.get(endpoint).sum(), durationSeconds);
+      }
+    }
+    for (String cache : CACHES) {
+      long[] before = cacheGetsBefore.get(cache);
+      long[] after = cacheGetsAfter.get(cache);
+      if (before == null || after == null) {
+        System.out.printf("Попадания в кэш %s: нет данных%n", cache);
+        continue;
+      }
+      long hits = after[0] - before[0];
+      long misses = after[1] - before[1];
+      System.out.printf("Попадания в кэш %s: %.1f%% (%d из %d)%n",
+          cache, hits + misses == 0 ? 0.0 : 100.0 * hits / (hits + misses), hits, hits + misses);
+    }
+  }
+
+  private void printRow(String name, Histogram histogram, long errors, int durationSeconds) {
+    System.out.printf("%-8s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+        name, histogram.getTotalCount(), errors, (double) histogram.getTotalCount() / durationSeconds,
+        millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+        millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+  }
+
+  private String lookupBody(int[] books) {
+    StringBuilder body = new StringBuilder("{\"items\":[");
+    for (int i = 0; i < books.length; i++) {
+      if (i > 0) {
+        body.append(',');
+      }
+      body.append("{\"title\":\"").append(this.catalog.title(books[i]))
+          .append("\",\"author\":\"").append(this.catalog.author(books[i])).append("\"}");
+    }
+    return body.append("]}").toString();
+  }
+
+  private String bookFields(int book) {
+    return "\"title\":\"" + this.catalog.title(book)
+        + "\",\"author\":\"" + this.catalog.author(book)
+        + "\",\"categoryName\":\"" + this.catalog.category(book) + "\"";
+  }
+
+  private String bookPath(int book) {
+    return "/api/v1/book/" + encode(this.catalog.title(book)) + "/" + encode(this.catalog.author(book));
+  }
+
+  private HttpResponse<Void> get(String path) throws Exception {
+    return this.client.send(this.getRequest(path), HttpResponse.BodyHandlers.discarding());
+  }
+
+  private HttpRequest getRequest(String path) {
+    return HttpRequest.newBuilder(this.baseUri.resolve(path)).timeout(Duration.ofSeconds(60)).GET().build();
+  }
+
+  private HttpRequest post(String path, String body) {
+    return HttpRequest.newBuilder(this.baseUri.resolve(path))
+        .timeout(Duration.ofSeconds(60))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(body))
+        .build();
+  }
+
+  private static double millis(long micros) {
+    return micros / 1000.0;
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+  }
+}
@@ -0,0 +1,65 @@
+package org.example.books.load;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Доли запросов к конечным точкам BookController, например "book:70,page:15,list:2,lookup:3,search:8,update:2"
+ */
+final class RequestMix {
+  enum Endpoint {
+    /** GET /api/v1/book/{title}/{author} */
+    BOOK,
+    /** GET /api/v1/book/{categoryName}?after=0 */
+    PAGE,
+    /** GET /api/v1/book/{categoryName} */
+    LIST,
+    /** POST /api/v1/book/lookup */
+    LOOKUP,
+    /** GET /api/v1/book?q= */
+    SEARCH,
+    /** PUT /api/v1/book/{id} */
+    UPDATE
+  }
+
+  private final Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+  private final int total;
+
+  RequestMix(String mix) {
+    int sum = 0;
+    for (String part : mix.split(",")) {
+      String[] nameAndWeight = part.trim().split(":");
+      if (nameAndWeight.length != 2) {
+        throw new IllegalArgumentException("Доля запросов должна иметь вид endpoint:вес, а не " + part);
+      }
+      int weight = Integer.parseInt(nameAndWeight[1].trim());
+      this.weights.put(Endpoint.valueOf(nameAndWeight[0].trim().toUpperCase()), weight);
+      sum += weight;
+    }
+    if (sum <= 0) {
+      throw new IllegalArgumentException("Сумма долей запросов должна быть положительной: " + mix);
+    }
+    this.total = sum;
+  }
+
+  Endpoint next(SplittableRandom random) {
+    int point = random.nextInt(this.total);
+    for (Map.Entry<Endpoint, Integer> weight : this.weights.entrySet()) {
+      point -= weight.getValue();
+      if (point < 0) {
+        return weight.getKey();
+      }
+    }
+    throw new IllegalStateException();
+  }
+
+  boolean includes(Endpoint endpoint) {
+    return this.weights.getOrDefault(endpoint, 0) > 0;
+  }
+
+  @Override
+  public String toString() {
+    return this.weights.toString();
+  }
+}
@@ -0,0 +1,130 @@
+package org.example.books.load;
+
+import java.util.SplittableRandom;
+
+/**
+ * Детерминированный синтетический каталог книг: при одних и тех же размере и зерне получаются одни и те же
+ * книги. Названия, авторы и категории - кириллица в пределах размеров из StringSizes, названия уникальны.
+ * Размеры категорий и популярность книг подчиняются закону Ципфа: немного категорий содержат большую часть книг,
+ * немного книг получают большую часть запросов. Популярные книги разбросаны по каталогу перестановкой,
+ * а не идут первыми
+ */
+final class SyntheticCatalog {
+  private static final String[] ADJECTIVES = {
+      "Тихий", "Последний", "Забытый", "Северный", "Долгий", "Старый", "Белый", "Тёмный", "Далёкий", "Золотой",
+      "Красный", "Серый", "Новый", "Первый", "Чужой", "Верный", "Ясный", "Горький", "Лунный", "Морской"};
+  private static final String[] NOUNS = {
+      "дом", "сад", "путь", "берег", "город", "лес", "остров", "ветер", "свет", "край",
+      "час", "голос", "след", "мост", "сон", "день", "год", "век", "мир", "огонь"};
+  private static final String[] GENITIVES = {
+      "ночи", "моря", "степи", "детства", "времени", "памяти", "войны", "зимы", "юга", "севера",
+      "надежды", "судьбы", "тайги", "реки", "дороги", "правды", "ветра", "неба", "весны", "осени"};
+  /** Женские имена на чётных местах, мужские - на нечётных: по ним выбирается форма фамилии */
+  private static final String[] FIRST_NAMES = {
+      "Анна", "Борис", "Вера", "Глеб", "Дарья", "Егор", "Жанна", "Зиновий", "Ирина", "Кирилл",
+      "Лидия", "Матвей", "Нина", "Олег", "Полина", "Роман", "Софья", "Тимофей", "Ульяна", "Фёдор"};
+  private static final String[] LAST_NAMES = {
+      "Андреев", "Белов", "Воронцов", "Гаврилов", "Данилов", "Ершов", "Жуков", "Зайцев", "Ильин", "Ковалёв",
+      "Лебедев", "Морозов", "Никитин", "Орлов", "Павлов", "Родионов", "Соколов", "Тихонов", "Уваров", "Фомин",
+      "Харитонов", "Цветков", "Чернов", "Шубин", "Щукин", "Юдин", "Яковлев", "Абрамов", "Быков", "Волков"};
+  private static final String[] GENRES = {
+      "Проза", "Поэзия", "Фантастика", "Детектив", "История", "Биография", "Сказки", "Драма", "Приключения",
+      "Мемуары", "Философия", "Наука", "Путешествия", "Классика", "Фэнтези", "Триллер"};
+  private static final int TITLE_COMBINATIONS = ADJECTIVES.length * NOUNS.length * GENITIVES.length;
+
+  private final int size;
+  private final int categories;
+  private final int[] categoryOf;
+  private final long stride;
+  private final ZipfDistribution bookPopularity;
+  private final ZipfDistribution categoryPopularity;
+
+  SyntheticCatalog(int size, int categories, double exponent, long seed) {
+    this.size = size;
+    this.categories = categories;
+    this.categoryOf = new int[size];
+    ZipfDistribution categorySizes = new ZipfDistribution(categories, exponent);
+    SplittableRandom random = new SplittableRandom(seed);
+    for (int book = 0; book < size; book++) {
+      this.categoryOf[book] = categorySizes.sample(random);
+    }
+    this.stride = strideFor(size, seed);
+    this.bookPopularity = new ZipfDistribution(size, exponent);
+    this.categoryPopularity = categorySizes;
+  }
+
+  int size() {
+    return this.size;
+  }
+
+  int categories() {
+    return this.categories;
+  }
+
+  String title(int book) {
+    int combination = book % TITLE_COMBINATIONS;
+    String title = ADJECTIVES[combination % ADJECTIVES.length] + " "
+        + NOUNS[combination / ADJECTIVES.length % NOUNS.length] + " "
+        + GENITIVES[combination / (ADJECTIVES.length * NOUNS.length)];
+    int volume = book / TITLE_COMBINATIONS;
+    return volume == 0 ? title : title + ", том " + (volume + 1);
+  }
+
+  String author(int book) {
+    int hash = (int) (mix(book) & Integer.MAX_VALUE);
+    int firstName = hash % FIRST_NAMES.length;
+    String lastName = LAST_NAMES[hash / FIRST_NAMES.length % LAST_NAMES.length];
+    return FIRST_NAMES[firstName] + " " + (firstName % 2 == 0 ? lastName + "а" : lastName);
+  }
+
+  String category(int book) {
+    return categoryName(this.categoryOf[book]);
+  }
+
+  /**
+   * Категория ранга k: ранги идут по убыванию размера категории
+   */
+  String categoryName(int rank) {
+    return GENRES[rank % GENRES.length] + " " + (rank / GENRES.length + 1);
+  }
+
+  /**
+   * Книга, выбранная с вероятностью по её популярности
+   */
+  int popularBook(SplittableRandom random) {
+    return this.bookOfRank(this.bookPopularity.sample(random));
+  }
+
+  /**
+   * Категория, выбранная с вероятностью по её популярности
+   */
+  int popularCategory(SplittableRandom random) {
+    return this.categoryPopularity.sample(random);
+  }
+
+  /**
+   * Книга ранга популярности rank: взаимно однозначная перестановка рангов в номера книг
+   */
+  int bookOfRank(int rank) {
+    return (int) (rank * this.stride % this.size);
+  }
+
+  private static long strideFor(int size, long seed) {
+    long stride = (mix(seed) & Integer.MAX_VALUE) % size + 1;
+    while (gcd(stride, size) != 1) {
+      stride++;
+    }
+    return stride;
+  }
+
+  private static long gcd(long a, long b) {
+    return b == 0 ? a : gcd(b, a % b);
+  }
+
+  private static long mix(long value) {
+    long z = value + 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
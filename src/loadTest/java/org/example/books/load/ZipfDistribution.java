@@ -0,0 +1,33 @@
+package org.example.books.load;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Распределение Ципфа на рангах 0..size-1: вероятность ранга k пропорциональна 1 / (k + 1)^exponent.
+ * Функция распределения считается один раз, выбор ранга - двоичный поиск по ней
+ */
+final class ZipfDistribution {
+  private final double[] cdf;
+
+  ZipfDistribution(int size, double exponent) {
+    this.cdf = new double[size];
+    double sum = 0;
+    for (int k = 0; k < size; k++) {
+      sum += 1 / Math.pow(k + 1, exponent);
+      this.cdf[k] = sum;
+    }
+    for (int k = 0; k < size; k++) {
+      this.cdf[k] /= sum;
+    }
+  }
+
+  int sample(SplittableRandom random) {
+    int index = Arrays.binarySearch(this.cdf, random.nextDouble());
+    return Math.min(index >= 0 ? index : -index - 1, this.cdf.length - 1);
+  }
+
+  int size() {
+    return this.cdf.length;
+  }
+}
@@ -3,46 +3,174 @@
  */
 package org.example.books.aop;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.annotation.*;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.example.books.config.properties.AppMethodMetricsProperties;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Замеряет каждый вызов таймером books.method с гистограммой задержек (теги class, method, exception).
+ * Таймер и подпись метода создаются один раз на метод. На обычном пути в лог ничего не пишется
+ * и строки не форматируются: вход и выход - только на уровне DEBUG, медленные вызовы и исключения -
+ * не чаще одного сообщения на метод за интервал, с числом пропущенных сообщений.
+ * Для методов, возвращающих Mono или Flux, замеряется выполнение подписки, а не сборка конвейера
+ */
 @Aspect
 @Component
 @Slf4j
 public class LoggingAspect {
-  @Before("@annotation(Loggable)")
-  public void logBefore(JoinPoint joinPoint) {
-    log.info("Вызываем метод: {}", joinPoint.getSignature().toShortString());
+  public static final String METRIC_NAME = "books.method";
+  private static final String NO_EXCEPTION = "none";
+
+  private final MeterRegistry meterRegistry;
+  private final long slowCallThresholdNanos;
+  private final long logIntervalNanos;
+  private final Map<Method, MethodMetrics> metricsByMethod = new ConcurrentHashMap<>();
+
+  public LoggingAspect(MeterRegistry meterRegistry, AppMethodMetricsProperties properties) {
+    this.meterRegistry = meterRegistry;
+    this.slowCallThresholdNanos = properties.getSlowCallThreshold().toNanos();
+    this.logIntervalNanos = properties.getLogInterval().toNanos();
   }
 
-  @After("@annotation(Loggable)")
-  public void logAfter(JoinPoint joinPoint) {
-    log.info("Завершен метод: {}", joinPoint.getSignature().toShortString());
+  @Around("@annotation(Loggable)")
+  public Object logAround(ProceedingJoinPoint proceedingJoinPoint) throws Throwable {
+    MethodMetrics metrics = this.metricsOf(proceedingJoinPoint);
+    if (log.isDebugEnabled()) {
+      log.debug("Вызываем метод: {}", metrics.signature);
+    }
+    long start = System.nanoTime();
+    Object result;
+    try {
+      result = proceedingJoinPoint.proceed();
+    } catch (Throwable e) {
+      this.onError(metrics, start, e);
+      throw e;
+    }
+    if (result instanceof Mono<?> mono) {
+      return this.timed(mono, metrics);
+    }
+    if (result instanceof Flux<?> flux) {
+      return this.timed(flux, metrics);
+    }
+    this.onSuccess(metrics, start);
+    return result;
   }
 
-  @AfterReturning(pointcut = "@annotation(Loggable)", returning = "result")
-  public void logAfterReturning(JoinPoint joinPoint, Object result) {
-    log.debug("Из метода {} вернулось значение: {}", joinPoint.getSignature().toShortString(), result);
+  /**
+   * Реактивный метод только собирает конвейер, поэтому замеряется время от подписки до завершения
+   */
+  private <T> Mono<T> timed(Mono<T> mono, MethodMetrics metrics) {
+    return Mono.defer(() -> {
+      long start = System.nanoTime();
+      return mono
+          .doOnSuccess(value -> this.onSuccess(metrics, start))
+          .doOnError(e -> this.onError(metrics, start, e));
+    });
   }
 
-  @AfterThrowing(pointcut = "@annotation(Loggable)", throwing = "exception")
-  public void logAfterThrowing(JoinPoint joinPoint, Exception exception) {
-    log.warn("Исключение в методе: {}", joinPoint.getSignature().toShortString(), exception);
+  private <T> Flux<T> timed(Flux<T> flux, MethodMetrics metrics) {
+    return Flux.defer(() -> {
+      long start = System.nanoTime();
+      return flux
+          .doOnComplete(() -> this.onSuccess(metrics, start))
+          .doOnError(e -> this.onError(metrics, start, e));
+    });
   }
 
-  @Around("@annotation(Loggable)")
-  public Object logAround(ProceedingJoinPoint proceedingJoinPoint) throws Throwable {
-    log.debug("Отсчёт времени начат, метод: {}", proceedingJoinPoint.getSignature().toShortString());
-    Long start = System.currentTimeMillis();
+  private void onSuccess(MethodMetrics metrics, long start) {
+    long duration = System.nanoTime() - start;
+    metrics.timer.record(duration, TimeUnit.NANOSECONDS);
+    if (duration >= this.slowCallThresholdNanos && metrics.tryLog(start + duration, this.logIntervalNanos)) {
+      log.info("Медленный вызов: {} мс, метод: {}, пропущено сообщений: {}",
+          TimeUnit.NANOSECONDS.toMillis(duration), metrics.signature, metrics.takeSuppressed());
+    }
+    if (log.isDebugEnabled()) {
+      log.debug("Завершен метод: {}, {} мкс", metrics.signature, TimeUnit.NANOSECONDS.toMicros(duration));
+    }
+  }
 
-    Object result = proceedingJoinPoint.proceed();
+  private void onError(MethodMetrics metrics, long start, Throwable e) {
+    long duration = System.nanoTime() - start;
+    metrics.exceptionTimer(e.getClass()).record(duration, TimeUnit.NANOSECONDS);
+    if (metrics.tryLog(start + duration, this.logIntervalNanos)) {
+      log.warn("Исключение в методе: {}, пропущено сообщений: {}", metrics.signature, metrics.takeSuppressed(), e);
+    }
+  }
 
-    Long duration = System.currentTimeMillis() - start;
-    log.debug("Отсчёт времени окончен: {} мс, метод: {}", duration, proceedingJoinPoint.getSignature().toShortString());
+  private MethodMetrics metricsOf(ProceedingJoinPoint proceedingJoinPoint) {
+    Method method = ((MethodSignature) proceedingJoinPoint.getSignature()).getMethod();
+    MethodMetrics metrics = this.metricsByMethod.get(method);
+    if (metrics == null) {
+      metrics = this.metricsByMethod.computeIfAbsent(
+          method, key -> new MethodMetrics(proceedingJoinPoint.getSignature().toShortString(), key));
+    }
+    return metrics;
+  }
 
-    return result;
+  /**
+   * Таймеры и ограничитель лога одного метода
+   */
+  private final class MethodMetrics {
+    private final String signature;
+    private final String className;
+    private final String methodName;
+    private final Timer timer;
+    private final Map<Class<?>, Timer> exceptionTimers = new ConcurrentHashMap<>();
+    private final AtomicLong nextLogAt = new AtomicLong(System.nanoTime());
+    private final AtomicLong suppressed = new AtomicLong();
+
+    MethodMetrics(String signature, Method method) {
+      this.signature = signature;
+      this.className = method.getDeclaringClass().getSimpleName();
+      this.methodName = method.getName();
+      this.timer = this.timer(NO_EXCEPTION);
+    }
+
+    Timer exceptionTimer(Class<?> exceptionClass) {
+      return this.exceptionTimers.computeIfAbsent(exceptionClass, key -> this.timer(key.getSimpleName()));
+    }
+
+    /**
+     * @return - можно ли писать в лог сейчас, иначе сообщение считается пропущенным
+     */
+    boolean tryLog(long now, long interval) {
+      long next = this.nextLogAt.get();
+      if (now - next >= 0 && this.nextLogAt.compareAndSet(next, now + interval)) {
+        return true;
+      }
+      this.suppressed.incrementAndGet();
+      return false;
+    }
+
+    long takeSuppressed() {
+      return this.suppressed.getAndSet(0);
+    }
+
+    private Timer timer(String exception) {
+      return Timer.builder(METRIC_NAME)
+          .description("Время выполнения методов с аннотацией @Loggable")
+          .tag("class", this.className)
+          .tag("method", this.methodName)
+          .tag("exception", exception)
+          .publishPercentileHistogram()
+          .minimumExpectedValue(Duration.ofMillis(1))
+          .maximumExpectedValue(Duration.ofSeconds(30))
+          .register(LoggingAspect.this.meterRegistry);
+    }
   }
 }
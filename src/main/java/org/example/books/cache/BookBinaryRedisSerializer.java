@@ -0,0 +1,155 @@
+package org.example.books.cache;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.example.books.dao.projection.BookView;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Двоичный сериализатор значений кэшей книг.
+ * <p>
+ * Формат: байт версии схемы, байт флагов, далее тело. Если установлен флаг сжатия,
+ * тело - это длина несжатых данных и блок LZ4. Несжатое тело начинается с байта типа
+ * значения: пустое значение, книга или список книг. Книга пишется как id, название,
+ * автор и название категории.
+ * <p>
+ * Записи другой версии схемы читаются как отсутствующие, то есть как промах кэша.
+ */
+public class BookBinaryRedisSerializer implements RedisSerializer<Object> {
+  static final byte VERSION = 2;
+
+  private static final byte FLAG_COMPRESSED = 1;
+
+  private static final byte TYPE_NULL = 0;
+  private static final byte TYPE_BOOK = 1;
+  private static final byte TYPE_BOOK_LIST = 2;
+
+  private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+  private final int compressionThreshold;
+  private final LZ4Compressor compressor = LZ4.fastCompressor();
+  private final LZ4FastDecompressor decompressor = LZ4.fastDecompressor();
+
+  /**
+   * @param compressionThreshold - размер тела в байтах, начиная с которого оно сжимается
+   */
+  public BookBinaryRedisSerializer(int compressionThreshold) {
+    this.compressionThreshold = compressionThreshold;
+  }
+
+  @Override
+  public byte[] serialize(Object value) throws SerializationException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(VERSION);
+      out.writeByte(0);
+      writeValue(out, value);
+    } catch (IOException e) {
+      throw new SerializationException("Cannot serialize cache value", e);
+    }
+    byte[] plain = bytes.toByteArray();
+    int bodyLength = plain.length - 2;
+    if (bodyLength < this.compressionThreshold) {
+      return plain;
+    }
+    return this.compress(plain, bodyLength);
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) throws SerializationException {
+    if (bytes == null || bytes.length == 0) {
+      return null;
+    }
+    if (bytes[0] != VERSION) {
+      return null;
+    }
+    byte[] body = (bytes[1] & FLAG_COMPRESSED) != 0
+        ? this.decompress(bytes)
+        : Arrays.copyOfRange(bytes, 2, bytes.length);
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body))) {
+      return readValue(in);
+    } catch (IOException e) {
+      throw new SerializationException("Cannot deserialize cache value", e);
+    }
+  }
+
+  private byte[] compress(byte[] plain, int bodyLength) {
+    int maxLength = this.compressor.maxCompressedLength(bodyLength);
+    byte[] compressed = new byte[6 + maxLength];
+    int compressedLength = this.compressor.compress(plain, 2, bodyLength, compressed, 6, maxLength);
+    compressed[0] = VERSION;
+    compressed[1] = FLAG_COMPRESSED;
+    compressed[2] = (byte) (bodyLength >>> 24);
+    compressed[3] = (byte) (bodyLength >>> 16);
+    compressed[4] = (byte) (bodyLength >>> 8);
+    compressed[5] = (byte) bodyLength;
+    return Arrays.copyOf(compressed, 6 + compressedLength);
+  }
+
+  private byte[] decompress(byte[] bytes) {
+    int bodyLength = ((bytes[2] & 0xFF) << 24) | ((bytes[3] & 0xFF) << 16)
+        | ((bytes[4] & 0xFF) << 8) | (bytes[5] & 0xFF);
+    byte[] body = new byte[bodyLength];
+    this.decompressor.decompress(bytes, 6, body, 0, bodyLength);
+    return body;
+  }
+
+  private static void writeValue(DataOutputStream out, Object value) throws IOException {
+    if (value == null || value instanceof NullValue) {
+      out.writeByte(TYPE_NULL);
+    } else if (value instanceof BookView book) {
+      out.writeByte(TYPE_BOOK);
+      writeBook(out, book);
+    } else if (value instanceof List<?> list) {
+      out.writeByte(TYPE_BOOK_LIST);
+      out.writeInt(list.size());
+      for (Object element : list) {
+        writeBook(out, (BookView) element);
+      }
+    } else {
+      throw new SerializationException("Unsupported cache value type: " + value.getClass().getName());
+    }
+  }
+
+  private static Object readValue(DataInputStream in) throws IOException {
+    byte type = in.readByte();
+    switch (type) {
+      case TYPE_NULL:
+        return NullValue.INSTANCE;
+      case TYPE_BOOK:
+        return readBook(in);
+      case TYPE_BOOK_LIST:
+        int size = in.readInt();
+        List<BookView> books = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          books.add(readBook(in));
+        }
+        return books;
+      default:
+        throw new SerializationException("Unknown cache value type: " + type);
+    }
+  }
+
+  private static void writeBook(DataOutputStream out, BookView book) throws IOException {
+    out.writeInt(book.getId());
+    out.writeUTF(book.getTitle());
+    out.writeUTF(book.getAuthor());
+    out.writeUTF(book.getCategoryName());
+  }
+
+  private static BookView readBook(DataInputStream in) throws IOException {
+    return new BookView(in.readInt(), in.readUTF(), in.readUTF(), in.readUTF());
+  }
+}
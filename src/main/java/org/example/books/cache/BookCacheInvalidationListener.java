@@ -0,0 +1,35 @@
+package org.example.books.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.example.books.config.properties.AppCacheProperties;
+import org.example.books.dao.projection.BookView;
+import org.example.books.service.event.BookChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Переводит изменения книг в ключи кэшей, которые нужно сбросить:
+ * старые и новые ключи берутся из события, без повторных запросов к базе
+ */
+@Component
+@RequiredArgsConstructor
+public class BookCacheInvalidationListener {
+  private final CacheInvalidator cacheInvalidator;
+
+  @EventListener
+  public void onBookChanged(BookChangedEvent event) {
+    this.evict(event.before());
+    this.evict(event.after());
+  }
+
+  private void evict(BookView book) {
+    if (book == null) {
+      return;
+    }
+    this.cacheInvalidator.evictAfterCommit(
+        AppCacheProperties.CacheNames.BOOKS_BY_CATEGORY, book.getCategoryName());
+    this.cacheInvalidator.bumpCategoryVersionAfterCommit(book.getCategoryName());
+    String bookKey = CacheKeys.titleAndAuthor(book.getTitle(), book.getAuthor());
+    this.cacheInvalidator.evictAfterCommit(AppCacheProperties.CacheNames.BOOK_BY_TITLE_AND_AUTHOR, bookKey);
+  }
+}
@@ -0,0 +1,136 @@
+package org.example.books.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.books.config.properties.AppCacheProperties;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Учёт самых запрашиваемых ключей кэшей. Обращения считаются в памяти и периодически
+ * добавляются в отсортированное множество Redis, общее для всех узлов. Перед добавлением
+ * накопленные веса уменьшаются по периоду полураспада, поэтому множество отражает недавнюю
+ * популярность, а его размер ограничен самыми популярными ключами
+ */
+@Slf4j
+@Component
+public class CacheAccessStats implements SchedulingConfigurer {
+  private static final String KEY_PREFIX = "books:access:";
+  /**
+   * Лимит разных ключей, накапливаемых в памяти между отправками в Redis
+   */
+  private static final int MAX_PENDING_KEYS = 10_000;
+  /**
+   * KEYS: множество ключей, время последнего уменьшения весов.
+   * ARGV: текущее время мс, период полураспада мс, размер множества, затем пары ключ - число обращений
+   */
+  private static final RedisScript<Long> FLUSH_SCRIPT = new DefaultRedisScript<>("""
+      local now = tonumber(ARGV[1])
+      local last = tonumber(redis.call('get', KEYS[2]) or ARGV[1])
+      local factor = 2 ^ (-(now - last) / tonumber(ARGV[2]))
+      if factor < 0.999 then
+        redis.call('zunionstore', KEYS[1], 1, KEYS[1], 'weights', factor)
+        redis.call('set', KEYS[2], ARGV[1])
+      elseif last == now then
+        redis.call('set', KEYS[2], ARGV[1])
+      end
+      for i = 4, #ARGV, 2 do
+        redis.call('zincrby', KEYS[1], ARGV[i + 1], ARGV[i])
+      end
+      local size = redis.call('zcard', KEYS[1])
+      local max = tonumber(ARGV[3])
+      if size > max then
+        redis.call('zremrangebyrank', KEYS[1], 0, size - max - 1)
+      end
+      return size
+      """, Long.class);
+
+  private final StringRedisTemplate redisTemplate;
+  private final AppCacheProperties.WarmUpProperties properties;
+  private final Map<String, Map<String, LongAdder>> pending = new ConcurrentHashMap<>();
+
+  public CacheAccessStats(StringRedisTemplate redisTemplate, AppCacheProperties appCacheProperties) {
+    this.redisTemplate = redisTemplate;
+    this.properties = appCacheProperties.getWarmUp();
+  }
+
+  /**
+   * Учесть обращение к ключу кэша
+   * @param cacheName - имя кэша
+   * @param key - ключ
+   */
+  public void record(String cacheName, String key) {
+    if (!this.properties.isEnabled()) {
+      return;
+    }
+    Map<String, LongAdder> counters = this.pending.computeIfAbsent(cacheName, name -> new ConcurrentHashMap<>());
+    LongAdder counter = counters.get(key);
+    if (counter == null) {
+      if (counters.size() >= MAX_PENDING_KEYS) {
+        return;
+      }
+      counter = counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+    counter.increment();
+  }
+
+  /**
+   * @param cacheName - имя кэша
+   * @param limit - сколько ключей вернуть
+   * @return - самые популярные ключи кэша по убыванию популярности
+   */
+  public List<String> topKeys(String cacheName, int limit) {
+    Set<String> keys = this.redisTemplate.opsForZSet().reverseRange(KEY_PREFIX + cacheName, 0, limit - 1L);
+    return keys != null ? List.copyOf(keys) : List.of();
+  }
+
+  @Override
+  public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+    if (this.properties.isEnabled()) {
+      taskRegistrar.addFixedDelayTask(this::flush, this.properties.getFlushInterval());
+    }
+  }
+
+  /**
+   * Отправить накопленные счётчики в Redis, по расписанию раз в flush-interval. Счётчики остаются
+   * в памяти и обнуляются при чтении, поэтому обращения во время отправки уходят со следующей.
+   * Удаляются только счётчики ключей без обращений за период, их остаток после удаления тоже отправляется
+   */
+  public void flush() {
+    this.pending.forEach((cacheName, counters) -> {
+      List<String> args = new ArrayList<>();
+      args.add(String.valueOf(System.currentTimeMillis()));
+      args.add(String.valueOf(this.properties.getHalfLife().toMillis()));
+      args.add(String.valueOf(this.properties.getTrackedKeys()));
+      counters.forEach((key, counter) -> {
+        long hits = counter.sumThenReset();
+        if (hits == 0 && counters.remove(key, counter)) {
+          hits = counter.sumThenReset();
+        }
+        if (hits > 0) {
+          args.add(key);
+          args.add(String.valueOf(hits));
+        }
+      });
+      if (args.size() == 3) {
+        return;
+      }
+      try {
+        this.redisTemplate.execute(FLUSH_SCRIPT,
+            List.of(KEY_PREFIX + cacheName, KEY_PREFIX + cacheName + ":decayed-at"), args.toArray());
+      } catch (RuntimeException e) {
+        log.warn("Не удалось сохранить статистику обращений к кэшу {}", cacheName, e);
+      }
+    });
+  }
+}
@@ -0,0 +1,75 @@
+package org.example.books.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.books.config.properties.AppCacheProperties;
+import org.example.books.datasource.ReadYourWritesWindow;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Принимает сообщения об инвалидации от других узлов и сбрасывает локальные кэши этого узла.
+ * Запись другого узла открывает и окна чтения её категорий и книг из основной базы: реплики могут
+ * её ещё не получить. Запись книги всегда увеличивает версию её категории, поэтому окна категорий
+ * открываются по сообщениям о версиях, а окна книг - по ключам кэша книг по названию и автору
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class CacheInvalidationListener implements MessageListener {
+  private final CacheManager cacheManager;
+  private final CacheInvalidationPublisher publisher;
+  private final ObjectMapper objectMapper;
+  private final ReadYourWritesWindow readYourWritesWindow;
+  private final ContentVersions contentVersions;
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    CacheInvalidationMessage invalidation;
+    try {
+      invalidation = this.objectMapper.readValue(message.getBody(), CacheInvalidationMessage.class);
+    } catch (IOException e) {
+      log.warn("Некорректное сообщение об инвалидации кэша", e);
+      return;
+    }
+    if (this.publisher.getNodeId().equals(invalidation.origin())) {
+      return;
+    }
+    if (ContentVersions.CATEGORY_VERSIONS.equals(invalidation.cacheName())) {
+      this.readYourWritesWindow.open(
+          invalidation.keys().stream().map(ReadYourWritesWindow::categoryKey).toList());
+      this.contentVersions.evictLocal(invalidation.keys());
+      return;
+    }
+    if (AppCacheProperties.CacheNames.BOOK_BY_TITLE_AND_AUTHOR.equals(invalidation.cacheName())
+        && !invalidation.clear()) {
+      this.readYourWritesWindow.open(this.bookKeys(invalidation.keys()));
+    }
+    Cache cache = this.cacheManager.getCache(invalidation.cacheName());
+    if (!(cache instanceof TwoLevelCache twoLevelCache)) {
+      return;
+    }
+    if (invalidation.clear()) {
+      twoLevelCache.clearLocal();
+    } else {
+      invalidation.keys().forEach(twoLevelCache::evictLocal);
+    }
+  }
+
+  private List<String> bookKeys(List<String> cacheKeys) {
+    List<String> keys = new ArrayList<>(cacheKeys.size());
+    for (String cacheKey : cacheKeys) {
+      String[] titleAndAuthor = CacheKeys.titleAndAuthorOf(cacheKey);
+      if (titleAndAuthor != null) {
+        keys.add(ReadYourWritesWindow.bookKey(titleAndAuthor[0], titleAndAuthor[1]));
+      }
+    }
+    return keys;
+  }
+}
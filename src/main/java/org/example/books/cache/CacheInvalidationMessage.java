@@ -0,0 +1,13 @@
+package org.example.books.cache;
+
+import java.util.List;
+
+/**
+ * Сообщение об инвалидации локальных кэшей, рассылаемое через Redis pub/sub
+ * @param origin - идентификатор узла-отправителя
+ * @param cacheName - имя кэша
+ * @param keys - сбрасываемые ключи
+ * @param clear - признак полной очистки кэша
+ */
+public record CacheInvalidationMessage(String origin, String cacheName, List<String> keys, boolean clear) {
+}
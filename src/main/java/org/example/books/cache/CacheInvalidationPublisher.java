@@ -0,0 +1,59 @@
+package org.example.books.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Рассылает остальным узлам приложения сообщения об инвалидации их локальных кэшей
+ */
+@RequiredArgsConstructor
+public class CacheInvalidationPublisher {
+  @Getter
+  private final String nodeId = UUID.randomUUID().toString();
+  private final StringRedisTemplate redisTemplate;
+  private final ObjectMapper objectMapper;
+  @Getter
+  private final String topic;
+
+  public void publishEvict(String cacheName, Object key) {
+    this.publish(this.evictMessage(cacheName, List.of(key)));
+  }
+
+  public void publishClear(String cacheName) {
+    this.publish(new CacheInvalidationMessage(this.nodeId, cacheName, List.of(), true));
+  }
+
+  /**
+   * Сообщение о сбросе нескольких ключей, для отправки вместе с другими командами в конвейере
+   * @param cacheName - имя кэша
+   * @param keys - сбрасываемые ключи
+   * @return - тело сообщения для канала {@link #getTopic()}
+   */
+  public String evictPayload(String cacheName, Collection<?> keys) {
+    return this.toJson(this.evictMessage(cacheName, keys));
+  }
+
+  private CacheInvalidationMessage evictMessage(String cacheName, Collection<?> keys) {
+    return new CacheInvalidationMessage(
+        this.nodeId, cacheName, keys.stream().map(Object::toString).toList(), false);
+  }
+
+  private void publish(CacheInvalidationMessage message) {
+    this.redisTemplate.convertAndSend(this.topic, this.toJson(message));
+  }
+
+  private String toJson(CacheInvalidationMessage message) {
+    try {
+      return this.objectMapper.writeValueAsString(message);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot serialize cache invalidation message", e);
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package org.example.books.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.example.books.util.AfterCommitBatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Собирает ключи кэшей и версии категорий, затронутые текущей транзакцией, и после фиксации
+ * транзакции сбрасывает ключи одной пачкой на каждый кэш, а версии увеличивает одним конвейером.
+ * Вне транзакции всё это выполняется сразу.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidator {
+  private final CacheManager cacheManager;
+  private final ContentVersions contentVersions;
+  private final AfterCommitBatcher<PendingEvictions> pendingEvictions =
+      new AfterCommitBatcher<>(PendingEvictions::new, this::evictPending);
+
+  public void evictAfterCommit(String cacheName, Object key) {
+    this.pendingEvictions.add(pending -> pending.add(cacheName, key));
+  }
+
+  public void bumpCategoryVersionAfterCommit(String categoryName) {
+    this.pendingEvictions.add(pending -> pending.categoryNames.add(categoryName));
+  }
+
+  private void evictPending(PendingEvictions pending) {
+    try {
+      this.evictAll(pending.keysByCache);
+      this.contentVersions.bumpCategories(pending.categoryNames);
+    } catch (RuntimeException e) {
+      log.error("Не удалось сбросить кэши после фиксации транзакции: {}", pending.keysByCache, e);
+    }
+  }
+
+  private void evictAll(Map<String, Set<Object>> keysByCache) {
+    keysByCache.forEach((cacheName, keys) -> {
+      Cache cache = this.cacheManager.getCache(cacheName);
+      if (cache instanceof TwoLevelCache twoLevelCache) {
+        twoLevelCache.evictAll(keys);
+      } else if (cache != null) {
+        keys.forEach(cache::evict);
+      }
+    });
+  }
+
+  /**
+   * Ключи, ожидающие сброса до конца транзакции
+   */
+  private static class PendingEvictions {
+    private final Map<String, Set<Object>> keysByCache = new HashMap<>();
+    private final Set<String> categoryNames = new LinkedHashSet<>();
+
+    void add(String cacheName, Object key) {
+      this.keysByCache.computeIfAbsent(cacheName, name -> new LinkedHashSet<>()).add(key);
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package org.example.books.cache;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Построение ключей кэшей книг, общее для чтения и для инвалидации
+ */
+@UtilityClass
+public class CacheKeys {
+  /**
+   * Разделитель частей составного ключа, в названиях и именах он не встречается
+   */
+  private static final char SEPARATOR = '\u001F';
+
+  /**
+   * Ключ кэша книги по названию и автору. Разделитель нужен, чтобы пары
+   * "ab" + "c" и "a" + "bc" не давали одинаковый ключ
+   */
+  public static String titleAndAuthor(String title, String author) {
+    return title + SEPARATOR + author;
+  }
+
+  /**
+   * Название и автор из ключа {@link #titleAndAuthor}
+   * @return - массив из названия и автора или null, если ключ построен не так
+   */
+  public static String[] titleAndAuthorOf(String key) {
+    int separatorIndex = key.indexOf(SEPARATOR);
+    if (separatorIndex < 0) {
+      return null;
+    }
+    return new String[] {key.substring(0, separatorIndex), key.substring(separatorIndex + 1)};
+  }
+
+  /**
+   * Ключ кэша страницы книг категории. Версия категории из {@link ContentVersions}
+   * делает ключи страниц недействительными сразу после изменения категории
+   */
+  public static String categoryPage(String categoryName, long version, int afterId, int size) {
+    return categoryName + SEPARATOR + version + SEPARATOR + afterId + SEPARATOR + size;
+  }
+}
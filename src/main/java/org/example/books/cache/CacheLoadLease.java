@@ -0,0 +1,50 @@
+package org.example.books.cache;
+
+import lombok.Getter;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Кратковременное право узла загрузить отсутствующее значение кэша (SET NX PX в Redis).
+ * Право истекает само, если узел упал, не дождавшись конца загрузки
+ */
+public class CacheLoadLease {
+  private static final String KEY_PREFIX = "lease:";
+  /**
+   * Снимает право, только если оно всё ещё принадлежит этому узлу, а не перешло к другому после истечения
+   */
+  private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+      "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+      Long.class);
+
+  private final StringRedisTemplate redisTemplate;
+  private final String owner;
+  @Getter
+  private final Duration ttl;
+
+  /**
+   * @param owner - идентификатор узла, владеющего правом
+   * @param ttl - время, через которое право истекает
+   */
+  public CacheLoadLease(StringRedisTemplate redisTemplate, String owner, Duration ttl) {
+    this.redisTemplate = redisTemplate;
+    this.owner = owner;
+    this.ttl = ttl;
+  }
+
+  /**
+   * @param key - ключ значения в Redis
+   * @return - получено ли право загрузки
+   */
+  public boolean tryAcquire(String key) {
+    return Boolean.TRUE.equals(this.redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + key, this.owner, this.ttl));
+  }
+
+  public void release(String key) {
+    this.redisTemplate.execute(RELEASE_SCRIPT, List.of(KEY_PREFIX + key), this.owner);
+  }
+}
@@ -0,0 +1,184 @@
+package org.example.books.cache;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Статистика двухуровневого кэша. Попадания по уровням, промахи, записи, сбросы и загрузки считаются всегда,
+ * а размеры значений и горячие ключи - по выборке обращений: размер значения, прочитанного через кэш Redis,
+ * известен только после повторной сериализации, поэтому замеряется не для каждого обращения
+ */
+public class CacheStatistics {
+  private final LongAdder localHits = new LongAdder();
+  private final LongAdder remoteHits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder puts = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder localEvictions = new LongAdder();
+  private final LongAdder loads = new LongAdder();
+  private final LongAdder loadFailures = new LongAdder();
+  private final LongAdder loadNanos = new LongAdder();
+  private final LongAdder sampledValues = new LongAdder();
+  private final LongAdder sampledValueBytes = new LongAdder();
+  private final AtomicLong maxValueBytes = new AtomicLong();
+  private final double sampleRate;
+  private final ToLongFunction<Object> valueSizer;
+  private final HotKeys hotKeys;
+
+  /**
+   * @param sampleRate - доля обращений, по которым замеряются размеры значений и горячие ключи, 0 - не замерять
+   * @param trackedKeys - сколько горячих ключей хранить
+   * @param valueSizer - размер значения в Redis в байтах
+   */
+  public CacheStatistics(double sampleRate, int trackedKeys, ToLongFunction<Object> valueSizer) {
+    this.sampleRate = sampleRate;
+    this.valueSizer = valueSizer;
+    this.hotKeys = new HotKeys(trackedKeys);
+  }
+
+  /**
+   * Статистика без выборки размеров и горячих ключей
+   */
+  public static CacheStatistics unsampled() {
+    return new CacheStatistics(0, 0, value -> 0);
+  }
+
+  void localHit(Object key) {
+    this.localHits.increment();
+    if (this.sampled()) {
+      this.hotKeys.record(key, 0);
+    }
+  }
+
+  void remoteHit(Object key, Object value) {
+    this.remoteHits.increment();
+    if (this.sampled()) {
+      this.recordSample(key, this.valueSizer.applyAsLong(value));
+    }
+  }
+
+  /**
+   * Попадание в Redis, когда размер значения уже известен: замер не требует сериализации
+   */
+  void remoteHitOfSize(Object key, long valueBytes) {
+    this.remoteHits.increment();
+    if (this.sampled()) {
+      this.recordSample(key, valueBytes);
+    }
+  }
+
+  void miss() {
+    this.misses.increment();
+  }
+
+  void put(Object key, Object value) {
+    this.puts.increment();
+    if (this.sampled()) {
+      this.recordSample(key, this.valueSizer.applyAsLong(value));
+    }
+  }
+
+  /**
+   * Запись в Redis, когда размер значения уже известен
+   */
+  void putOfSize(Object key, long valueBytes) {
+    this.puts.increment();
+    if (this.sampled()) {
+      this.recordSample(key, valueBytes);
+    }
+  }
+
+  void evictions(int count) {
+    this.evictions.add(count);
+  }
+
+  /**
+   * Значение вытеснено из локального кэша по размеру или времени жизни
+   */
+  void localEviction() {
+    this.localEvictions.increment();
+  }
+
+  void load(long nanos, boolean failed) {
+    this.loads.increment();
+    this.loadNanos.add(nanos);
+    if (failed) {
+      this.loadFailures.increment();
+    }
+  }
+
+  public long getLocalHits() {
+    return this.localHits.sum();
+  }
+
+  public long getRemoteHits() {
+    return this.remoteHits.sum();
+  }
+
+  public long getMisses() {
+    return this.misses.sum();
+  }
+
+  public long getPuts() {
+    return this.puts.sum();
+  }
+
+  public long getEvictions() {
+    return this.evictions.sum();
+  }
+
+  public long getLocalEvictions() {
+    return this.localEvictions.sum();
+  }
+
+  public long getLoads() {
+    return this.loads.sum();
+  }
+
+  public long getLoadFailures() {
+    return this.loadFailures.sum();
+  }
+
+  public long getLoadNanos() {
+    return this.loadNanos.sum();
+  }
+
+  /**
+   * @return - средний размер значения в Redis по выборке, 0 - замеров не было
+   */
+  public double getMeanValueBytes() {
+    long count = this.sampledValues.sum();
+    return count == 0 ? 0 : (double) this.sampledValueBytes.sum() / count;
+  }
+
+  public long getMaxValueBytes() {
+    return this.maxValueBytes.get();
+  }
+
+  /**
+   * @param limit - сколько ключей вернуть в каждом списке
+   * @return - горячие ключи с оценкой всех обращений по выборке
+   */
+  public HotKeysReport hotKeys(int limit) {
+    return this.hotKeys.report(limit, this.sampleRate > 0 ? 1 / this.sampleRate : 0);
+  }
+
+  public void resetHotKeys() {
+    this.hotKeys.reset();
+  }
+
+  private boolean sampled() {
+    return this.sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < this.sampleRate;
+  }
+
+  private void recordSample(Object key, long valueBytes) {
+    if (valueBytes > 0) {
+      this.sampledValues.increment();
+      this.sampledValueBytes.add(valueBytes);
+      this.maxValueBytes.accumulateAndGet(valueBytes, Math::max);
+    }
+    this.hotKeys.record(key, valueBytes);
+  }
+}
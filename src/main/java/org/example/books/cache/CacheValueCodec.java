@@ -0,0 +1,31 @@
+package org.example.books.cache;
+
+import org.example.books.config.properties.AppCacheProperties;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Формат, в котором значения кэша хранятся в Redis
+ */
+public enum CacheValueCodec {
+  /**
+   * Стандартная сериализация Java, годится для любых значений
+   */
+  JDK {
+    @Override
+    public RedisSerializer<Object> serializer(AppCacheProperties.CacheProperties cacheProperties) {
+      return RedisSerializer.java();
+    }
+  },
+  /**
+   * Компактный версионированный двоичный формат для книг и списков книг,
+   * большие значения сжимаются LZ4
+   */
+  BINARY {
+    @Override
+    public RedisSerializer<Object> serializer(AppCacheProperties.CacheProperties cacheProperties) {
+      return new BookBinaryRedisSerializer(cacheProperties.getCompressionThreshold());
+    }
+  };
+
+  public abstract RedisSerializer<Object> serializer(AppCacheProperties.CacheProperties cacheProperties);
+}
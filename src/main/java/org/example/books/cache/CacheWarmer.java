@@ -0,0 +1,89 @@
+package org.example.books.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.books.config.properties.AppCacheProperties;
+import org.example.books.service.BookService;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Прогрев кэшей при старте самыми популярными ключами из {@link CacheAccessStats}.
+ * Выполняется до того, как приложение сообщает о готовности принимать запросы,
+ * ключи загружаются параллельно через кэширующий сервис и не дольше заданного времени
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheWarmer implements ApplicationRunner {
+  private final BookService bookService;
+  private final CacheAccessStats accessStats;
+  private final AppCacheProperties appCacheProperties;
+
+  @Override
+  public void run(ApplicationArguments args) throws InterruptedException {
+    AppCacheProperties.WarmUpProperties properties = this.appCacheProperties.getWarmUp();
+    if (!properties.isEnabled()) {
+      return;
+    }
+    List<Callable<Object>> loads;
+    try {
+      loads = this.loads(properties.getWarmKeys());
+    } catch (RuntimeException e) {
+      log.warn("Прогрев кэшей пропущен: не удалось прочитать популярные ключи", e);
+      return;
+    }
+    if (loads.isEmpty()) {
+      return;
+    }
+    long start = System.nanoTime();
+    ExecutorService executor = Executors.newFixedThreadPool(properties.getParallelism());
+    try {
+      List<Future<Object>> results =
+          executor.invokeAll(loads, properties.getTimeBudget().toMillis(), TimeUnit.MILLISECONDS);
+      int loaded = 0;
+      int failed = 0;
+      for (Future<Object> result : results) {
+        if (result.isCancelled()) {
+          continue;
+        }
+        try {
+          result.get();
+          loaded++;
+        } catch (ExecutionException e) {
+          failed++;
+        }
+      }
+      log.info("Прогрев кэшей: загружено {} из {} ключей за {} мс, ошибок: {}", loaded, loads.size(),
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), failed);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Сначала категории: их промахи дороже всего
+   */
+  private List<Callable<Object>> loads(int limit) {
+    List<Callable<Object>> loads = new ArrayList<>();
+    this.accessStats.topKeys(AppCacheProperties.CacheNames.BOOKS_BY_CATEGORY, limit)
+        .forEach(categoryName -> loads.add(() -> this.bookService.findAllByCategoryName(categoryName)));
+    this.accessStats.topKeys(AppCacheProperties.CacheNames.BOOK_BY_TITLE_AND_AUTHOR, limit).forEach(key -> {
+      String[] titleAndAuthor = CacheKeys.titleAndAuthorOf(key);
+      if (titleAndAuthor != null) {
+        loads.add(() -> this.bookService.findByTitleAndAuthor(titleAndAuthor[0], titleAndAuthor[1]));
+      }
+    });
+    return loads;
+  }
+}
@@ -0,0 +1,45 @@
+package org.example.books.cache;
+
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.util.Map;
+
+/**
+ * Менеджер кэшей Redis, которые пишут отрицательные записи форматом значений кэша.
+ * Стандартный {@link RedisCache} пишет их сериализацией Java независимо от формата, и такую запись
+ * не прочитали бы API v2 ({@link ReactiveBookCache}) и пакетное чтение {@link TwoLevelCache#getAll},
+ * читающие значения сериализатором кэша напрямую
+ */
+public class CodecRedisCacheManager extends RedisCacheManager {
+  public CodecRedisCacheManager(
+      RedisCacheWriter cacheWriter,
+      RedisCacheConfiguration defaultCacheConfiguration,
+      Map<String, RedisCacheConfiguration> initialCacheConfigurations) {
+    super(cacheWriter, defaultCacheConfiguration, initialCacheConfigurations);
+  }
+
+  @Override
+  protected RedisCache createRedisCache(String name, RedisCacheConfiguration cacheConfiguration) {
+    return new CodecRedisCache(name, this.getCacheWriter(),
+        cacheConfiguration != null ? cacheConfiguration : this.getDefaultCacheConfiguration());
+  }
+
+  private static class CodecRedisCache extends RedisCache {
+    CodecRedisCache(String name, RedisCacheWriter cacheWriter, RedisCacheConfiguration cacheConfiguration) {
+      super(name, cacheWriter, cacheConfiguration);
+    }
+
+    /**
+     * {@link NullValue} пишется сериализатором кэша, как и остальные значения
+     */
+    @Override
+    protected byte[] serializeCacheValue(Object value) {
+      return ByteUtils.getBytes(this.getCacheConfiguration().getValueSerializationPair().write(value));
+    }
+  }
+}
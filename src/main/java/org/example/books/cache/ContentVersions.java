@@ -0,0 +1,93 @@
+package org.example.books.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.books.config.properties.AppCacheProperties;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Счётчики версий содержимого категорий, общие для всех узлов (хэш в Redis).
+ * Версия входит в ключи кэша страниц категории: после изменения категории версия растёт,
+ * и все её страницы разом перестают находиться в кэше, а старые записи истекают по TTL.
+ * Версии создаются только записью, чтение отсутствующей версии ничего не записывает.
+ * Узел держит прочитанные версии в локальном кэше, как значения L1: увеличение версии рассылается
+ * остальным узлам сообщением об инвалидации, поэтому чтение страницы из L1 не обращается к Redis
+ */
+@Component
+public class ContentVersions {
+  /**
+   * Имя в сообщениях об инвалидации, по которому узлы сбрасывают локальные версии категорий
+   */
+  public static final String CATEGORY_VERSIONS = "categoryVersions";
+  private static final String CATEGORY_VERSIONS_KEY = "books:versions:category";
+  /**
+   * Версия категории, в которую ещё ни разу не писали
+   */
+  private static final long INITIAL_VERSION = 0;
+
+  private final StringRedisTemplate redisTemplate;
+  private final CacheInvalidationPublisher invalidationPublisher;
+  private final Cache<String, Long> localVersions;
+
+  public ContentVersions(
+      StringRedisTemplate redisTemplate,
+      CacheInvalidationPublisher invalidationPublisher,
+      AppCacheProperties appCacheProperties) {
+    this.redisTemplate = redisTemplate;
+    this.invalidationPublisher = invalidationPublisher;
+    AppCacheProperties.LocalCacheProperties properties = appCacheProperties.getCategoryVersions();
+    this.localVersions = Caffeine.newBuilder()
+        .maximumSize(properties.isEnabled() ? properties.getMaxEntries() : 0)
+        .expireAfterWrite(properties.getExpiry())
+        .build();
+  }
+
+  /**
+   * Текущая версия категории: из локального кэша, при промахе - из Redis
+   * @param categoryName - название категории
+   * @return - версия содержимого категории, {@link #INITIAL_VERSION} - в категорию ещё не писали
+   */
+  public long categoryVersion(String categoryName) {
+    return this.localVersions.get(categoryName, name -> {
+      Object version = this.redisTemplate.opsForHash().get(CATEGORY_VERSIONS_KEY, name);
+      return version != null ? Long.parseLong(version.toString()) : INITIAL_VERSION;
+    });
+  }
+
+  /**
+   * Увеличить версии категорий и разослать остальным узлам сообщение о сбросе их локальных версий
+   * одним конвейером. Отсутствующая версия (например, после очистки Redis) начинается с текущего времени,
+   * чтобы не повторить какую-либо из прежних версий
+   * @param categoryNames - названия изменённых категорий
+   */
+  public void bumpCategories(Collection<String> categoryNames) {
+    if (categoryNames.isEmpty()) {
+      return;
+    }
+    long initial = System.currentTimeMillis();
+    String message = this.invalidationPublisher.evictPayload(CATEGORY_VERSIONS, categoryNames);
+    this.redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+      StringRedisConnection stringConnection = (StringRedisConnection) connection;
+      for (String categoryName : categoryNames) {
+        stringConnection.hSetNX(CATEGORY_VERSIONS_KEY, categoryName, String.valueOf(initial));
+        stringConnection.hIncrBy(CATEGORY_VERSIONS_KEY, categoryName, 1);
+      }
+      stringConnection.publish(this.invalidationPublisher.getTopic(), message);
+      return null;
+    });
+    this.localVersions.invalidateAll(categoryNames);
+  }
+
+  /**
+   * Сбросить локальные версии категорий, по сообщению от другого узла
+   * @param categoryNames - названия категорий
+   */
+  public void evictLocal(Collection<String> categoryNames) {
+    this.localVersions.invalidateAll(categoryNames);
+  }
+}
@@ -0,0 +1,106 @@
+package org.example.books.cache;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Самые горячие ключи одного кэша по выборке обращений. Для ключа считаются обращения из выборки,
+ * байты, переданные через Redis, и последний замеренный размер значения. Число ключей ограничено:
+ * при переполнении остаются только самые частые. Как в алгоритме Space-Saving, новый ключ начинает
+ * со счётчика самого частого из вытесненных, поэтому ключ, ставший горячим после долгой работы,
+ * не вытесняется при каждом переполнении, а догоняет давние горячие ключи. Число обращений ключа -
+ * оценка сверху, завышенная не больше чем на унаследованный счётчик
+ */
+class HotKeys {
+  private final int capacity;
+  private final ConcurrentMap<Object, Counters> counters = new ConcurrentHashMap<>();
+  /**
+   * Обращения самого частого из ключей, вытесненных последним переполнением
+   */
+  private volatile long evictedAccesses;
+
+  /**
+   * @param capacity - сколько ключей хранится после вытеснения редких
+   */
+  HotKeys(int capacity) {
+    this.capacity = capacity;
+  }
+
+  /**
+   * @param key - ключ
+   * @param remoteBytes - сколько байт значения прошло через Redis при обращении, 0 - не прошло или неизвестно
+   */
+  void record(Object key, long remoteBytes) {
+    Counters keyCounters = this.counters.computeIfAbsent(key, k -> new Counters(this.evictedAccesses));
+    keyCounters.accesses.increment();
+    if (remoteBytes > 0) {
+      keyCounters.remoteBytes.add(remoteBytes);
+      keyCounters.valueBytes.set(remoteBytes);
+    }
+    if (this.counters.size() > 2 * this.capacity) {
+      this.trim();
+    }
+  }
+
+  /**
+   * @param limit - сколько ключей вернуть
+   * @param scale - во сколько раз умножить счётчики выборки, чтобы оценить все обращения
+   * @return - ключи по убыванию числа обращений и по убыванию байт, переданных через Redis
+   */
+  HotKeysReport report(int limit, double scale) {
+    List<HotKeysReport.HotKey> keys = this.counters.entrySet().stream()
+        .map(entry -> new HotKeysReport.HotKey(
+            String.valueOf(entry.getKey()),
+            Math.round(entry.getValue().accesses.sum() * scale),
+            entry.getValue().valueBytes.get(),
+            Math.round(entry.getValue().remoteBytes.sum() * scale)))
+        .toList();
+    return new HotKeysReport(
+        top(keys, Comparator.comparingLong(HotKeysReport.HotKey::accesses), limit),
+        top(keys, Comparator.comparingLong(HotKeysReport.HotKey::remoteBytes), limit));
+  }
+
+  void reset() {
+    this.counters.clear();
+    this.evictedAccesses = 0;
+  }
+
+  private synchronized void trim() {
+    if (this.counters.size() <= 2 * this.capacity) {
+      return;
+    }
+    List<Map.Entry<Object, Long>> evicted = this.counters.entrySet().stream()
+        .map(entry -> Map.entry(entry.getKey(), entry.getValue().accesses.sum()))
+        .sorted(Map.Entry.<Object, Long>comparingByValue().reversed())
+        .skip(this.capacity)
+        .toList();
+    evicted.forEach(entry -> this.counters.remove(entry.getKey()));
+    this.evictedAccesses = evicted.get(0).getValue();
+  }
+
+  private static List<HotKeysReport.HotKey> top(
+      List<HotKeysReport.HotKey> keys, Comparator<HotKeysReport.HotKey> comparator, int limit) {
+    return keys.stream()
+        .sorted(comparator.reversed().thenComparing(HotKeysReport.HotKey::key))
+        .limit(limit)
+        .toList();
+  }
+
+  private static class Counters {
+    private final LongAdder accesses = new LongAdder();
+    private final LongAdder remoteBytes = new LongAdder();
+    private final AtomicLong valueBytes = new AtomicLong();
+
+    /**
+     * @param inheritedAccesses - обращения, унаследованные от вытесненного ключа
+     */
+    Counters(long inheritedAccesses) {
+      this.accesses.add(inheritedAccesses);
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package org.example.books.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.example.books.config.properties.AppCacheProperties;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Конечная точка Actuator с самыми горячими ключами двухуровневых кэшей этого узла:
+ * GET /actuator/hotkeys[/{cache}]?limit=N - по числу обращений и по байтам, переданным через Redis,
+ * DELETE /actuator/hotkeys - начать подсчёт заново
+ */
+@Component
+@Endpoint(id = "hotkeys")
+@RequiredArgsConstructor
+public class HotKeysEndpoint {
+  private final CacheManager cacheManager;
+  private final AppCacheProperties appCacheProperties;
+
+  @ReadOperation
+  public Map<String, HotKeysReport> hotKeys(@Nullable Integer limit) {
+    Map<String, HotKeysReport> reports = new LinkedHashMap<>();
+    this.cacheManager.getCacheNames().forEach(cacheName -> {
+      HotKeysReport report = this.hotKeys(cacheName, limit);
+      if (report != null) {
+        reports.put(cacheName, report);
+      }
+    });
+    return reports;
+  }
+
+  @ReadOperation
+  public HotKeysReport hotKeys(@Selector String cache, @Nullable Integer limit) {
+    CacheStatistics statistics = this.statisticsOf(cache);
+    if (statistics == null) {
+      return null;
+    }
+    return statistics.hotKeys(limit != null && limit > 0
+        ? limit
+        : this.appCacheProperties.getMetrics().getReportedHotKeys());
+  }
+
+  @DeleteOperation
+  public void reset() {
+    this.cacheManager.getCacheNames().forEach(cacheName -> {
+      CacheStatistics statistics = this.statisticsOf(cacheName);
+      if (statistics != null) {
+        statistics.resetHotKeys();
+      }
+    });
+  }
+
+  private CacheStatistics statisticsOf(String cacheName) {
+    Cache cache = this.cacheManager.getCache(cacheName);
+    return cache instanceof TwoLevelCache twoLevelCache ? twoLevelCache.getStatistics() : null;
+  }
+}
@@ -0,0 +1,19 @@
+package org.example.books.cache;
+
+import java.util.List;
+
+/**
+ * Самые горячие ключи кэша по оценке из выборки обращений
+ * @param byAccesses - по убыванию числа обращений
+ * @param byRemoteBytes - по убыванию байт, переданных через Redis
+ */
+public record HotKeysReport(List<HotKey> byAccesses, List<HotKey> byRemoteBytes) {
+  /**
+   * @param key - ключ кэша
+   * @param accesses - оценка числа обращений
+   * @param valueBytes - размер значения в Redis при последнем замере
+   * @param remoteBytes - оценка байт, переданных через Redis при чтении и записи
+   */
+  public record HotKey(String key, long accesses, long valueBytes, long remoteBytes) {
+  }
+}
@@ -0,0 +1,28 @@
+package org.example.books.cache;
+
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Время жизни записи кэша со случайным отклонением: записи, заполненные в одно время,
+ * истекают вразброс, а не все сразу
+ * @param ttl - среднее время жизни, ноль - без ограничения
+ * @param jitter - наибольшее отклонение в долях от ttl, например 0.1 - плюс-минус 10%
+ */
+public record JitteredTtl(Duration ttl, double jitter) implements RedisCacheWriter.TtlFunction {
+  @Override
+  public Duration getTimeToLive(Object key, Object value) {
+    return this.next();
+  }
+
+  public Duration next() {
+    if (this.ttl.isZero() || this.ttl.isNegative() || this.jitter <= 0) {
+      return this.ttl;
+    }
+    long millis = this.ttl.toMillis();
+    long spread = (long) (millis * Math.min(this.jitter, 1.0));
+    return Duration.ofMillis(Math.max(1, millis - spread + ThreadLocalRandom.current().nextLong(2 * spread + 1)));
+  }
+}
@@ -0,0 +1,130 @@
+package org.example.books.cache;
+
+import org.example.books.config.properties.AppCacheProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Неблокирующий доступ к тем же кэшам, что и у {@link TwoLevelCacheManager}: те же ключи Redis,
+ * формат значений и время жизни, тот же локальный кэш первого уровня и те же сообщения
+ * об инвалидации остальным узлам. Поэтому API v1 и v2 видят записи друг друга
+ */
+public class ReactiveBookCache {
+  private final CacheManager cacheManager;
+  private final ReactiveStringRedisTemplate stringRedisTemplate;
+  private final CacheInvalidationPublisher invalidationPublisher;
+  private final ReactiveRedisTemplate<String, byte[]> redisTemplate;
+  private final Map<String, RedisSerializer<Object>> serializers = new HashMap<>();
+  private final Map<String, JitteredTtl> ttls = new HashMap<>();
+
+  public ReactiveBookCache(
+      CacheManager cacheManager,
+      AppCacheProperties appCacheProperties,
+      ReactiveRedisConnectionFactory connectionFactory,
+      ReactiveStringRedisTemplate stringRedisTemplate,
+      CacheInvalidationPublisher invalidationPublisher) {
+    this.cacheManager = cacheManager;
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.invalidationPublisher = invalidationPublisher;
+    this.redisTemplate = new ReactiveRedisTemplate<>(connectionFactory, RedisSerializationContext
+        .<String, byte[]>newSerializationContext(RedisSerializer.string())
+        .value(RedisSerializer.byteArray())
+        .build());
+    appCacheProperties.getCacheNames().forEach(cacheName -> {
+      AppCacheProperties.CacheProperties cacheProperties = appCacheProperties.getCaches().get(cacheName);
+      this.serializers.put(cacheName, cacheProperties.getCodec().serializer(cacheProperties));
+      this.ttls.put(cacheName, new JitteredTtl(cacheProperties.getExpiry(), cacheProperties.getTtlJitter()));
+    });
+  }
+
+  public Mono<Object> get(String cacheName, String key) {
+    Cache cache = this.cacheOf(cacheName);
+    if (cache instanceof TwoLevelCache twoLevelCache) {
+      Cache.ValueWrapper localValue = twoLevelCache.getLocal(key);
+      if (localValue != null) {
+        return Mono.justOrEmpty(localValue.get());
+      }
+    }
+    RedisSerializer<Object> serializer = this.serializerOf(cacheName);
+    // запись другой версии схемы сериализатор читает как null, это промах
+    Mono<Object> remoteValue = this.redisTemplate.opsForValue().get(keyPrefixOf(cache) + key)
+        .mapNotNull(serializer::deserialize);
+    if (cache instanceof TwoLevelCache twoLevelCache) {
+      CacheStatistics statistics = twoLevelCache.getStatistics();
+      remoteValue = remoteValue
+          .doOnNext(value -> statistics.remoteHit(key, value))
+          .switchIfEmpty(Mono.fromRunnable(statistics::miss));
+    }
+    return remoteValue
+        .filter(value -> !(value instanceof NullValue))
+        .doOnNext(value -> {
+          if (cache instanceof TwoLevelCache twoLevelCache) {
+            twoLevelCache.putLocal(key, value);
+          }
+        });
+  }
+
+  /**
+   * Записать значение в Redis с временем жизни кэша и в локальный кэш,
+   * остальным узлам отправляется сообщение о сбросе ключа в их локальных кэшах
+   */
+  public Mono<Void> put(String cacheName, String key, Object value) {
+    Cache cache = this.cacheOf(cacheName);
+    Duration expiry = this.ttls.get(cacheName).next();
+    String redisKey = keyPrefixOf(cache) + key;
+    byte[] rawValue = this.serializerOf(cacheName).serialize(value != null ? value : NullValue.INSTANCE);
+    Mono<Boolean> set = expiry.isZero() || expiry.isNegative()
+        ? this.redisTemplate.opsForValue().set(redisKey, rawValue)
+        : this.redisTemplate.opsForValue().set(redisKey, rawValue, expiry);
+    return set
+        .then(this.stringRedisTemplate.convertAndSend(
+            this.invalidationPublisher.getTopic(),
+            this.invalidationPublisher.evictPayload(cacheName, List.of(key))))
+        .doOnSuccess(receivers -> {
+          if (cache instanceof TwoLevelCache twoLevelCache) {
+            twoLevelCache.getStatistics().put(key, value);
+            twoLevelCache.putLocal(key, value);
+          }
+        })
+        .then();
+  }
+
+  private Cache cacheOf(String cacheName) {
+    Cache cache = this.cacheManager.getCache(cacheName);
+    if (cache == null) {
+      throw new IllegalArgumentException("Unknown cache: " + cacheName);
+    }
+    return cache;
+  }
+
+  private RedisSerializer<Object> serializerOf(String cacheName) {
+    RedisSerializer<Object> serializer = this.serializers.get(cacheName);
+    if (serializer == null) {
+      throw new IllegalArgumentException("Unknown cache: " + cacheName);
+    }
+    return serializer;
+  }
+
+  private static String keyPrefixOf(Cache cache) {
+    if (cache instanceof TwoLevelCache twoLevelCache) {
+      return twoLevelCache.getRemoteKeyPrefix();
+    }
+    if (cache instanceof RedisCache redisCache) {
+      return redisCache.getCacheConfiguration().getKeyPrefixFor(cache.getName());
+    }
+    return cache.getName() + "::";
+  }
+}
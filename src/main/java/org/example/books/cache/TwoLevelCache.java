@@ -0,0 +1,508 @@
+package org.example.books.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Двухуровневый кэш: локальный кэш в памяти процесса (L1) перед общим кэшем в Redis (L2).
+ * Любое изменение значения рассылается остальным узлам, чтобы они сбросили свой L1.
+ * Ключи кэшей приложения - строки, поэтому их можно передавать между узлами как есть.
+ * Промахи загружаются однократно: на узле один загрузчик на ключ, остальные потоки ждут его результат,
+ * а между узлами значение загружает тот, кто взял {@link CacheLoadLease}, остальные ждут его в Redis.
+ * Значение, которому в Redis осталось жить меньше окна обновления, ещё отдаётся, но в фоне загружается заново:
+ * к жёсткому истечению часто читаемые ключи уже обновлены и запросы не ждут базу.
+ */
+@Slf4j
+public class TwoLevelCache implements Cache {
+  private static final long MIN_LOAD_WAIT_MILLIS = 10;
+  private static final long MAX_LOAD_WAIT_MILLIS = 200;
+  /**
+   * Наибольшее число ключей в одной команде MGET, чтобы не занимать Redis надолго одной командой
+   */
+  private static final int MULTI_KEY_CHUNK = 1000;
+
+  private final String name;
+  private final com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache;
+  private final Cache remoteCache;
+  private final String remoteKeyPrefix;
+  private final StringRedisTemplate redisTemplate;
+  private final CacheInvalidationPublisher invalidationPublisher;
+  private final CacheLoadLease loadLease;
+  private final long refreshWindowMillis;
+  private final Executor refreshExecutor;
+  private final CacheStatistics statistics;
+  private final ConcurrentMap<Object, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+  private final Set<Object> refreshes = ConcurrentHashMap.newKeySet();
+
+  /**
+   * @param remoteKeyPrefix - префикс, с которым кэш Redis хранит ключи этого кэша
+   * @param loadLease - право загрузки промахов и обновлений между узлами
+   * @param refreshWindow - сколько времени до истечения в Redis значение считается устаревшим
+   *                      и обновляется в фоне, ноль - не обновлять
+   * @param refreshExecutor - исполнитель фоновых обновлений
+   * @param statistics - статистика обращений к кэшу
+   */
+  public TwoLevelCache(
+      String name,
+      com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache,
+      Cache remoteCache,
+      String remoteKeyPrefix,
+      StringRedisTemplate redisTemplate,
+      CacheInvalidationPublisher invalidationPublisher,
+      CacheLoadLease loadLease,
+      Duration refreshWindow,
+      Executor refreshExecutor,
+      CacheStatistics statistics) {
+    this.name = name;
+    this.localCache = localCache;
+    this.remoteCache = remoteCache;
+    this.remoteKeyPrefix = remoteKeyPrefix;
+    this.redisTemplate = redisTemplate;
+    this.invalidationPublisher = invalidationPublisher;
+    this.loadLease = loadLease;
+    this.refreshWindowMillis = refreshWindow.toMillis();
+    this.refreshExecutor = refreshExecutor;
+    this.statistics = statistics;
+  }
+
+  @Override
+  public String getName() {
+    return this.name;
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return this.remoteCache.getNativeCache();
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    Object localValue = this.localCache.getIfPresent(key);
+    if (localValue != null) {
+      this.statistics.localHit(key);
+      return toValueWrapper(localValue);
+    }
+    ValueWrapper remoteValue = this.remoteCache.get(key);
+    if (remoteValue != null) {
+      this.statistics.remoteHit(key, remoteValue.get());
+      this.localCache.put(key, toStoreValue(remoteValue.get()));
+    } else {
+      this.statistics.miss();
+    }
+    return remoteValue;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Class<T> type) {
+    ValueWrapper wrapper = this.get(key);
+    if (wrapper == null) {
+      return null;
+    }
+    Object value = wrapper.get();
+    if (value != null && type != null && !type.isInstance(value)) {
+      throw new IllegalStateException(
+          "Cached value is not of required type [" + type.getName() + "]: " + value);
+    }
+    return (T) value;
+  }
+
+  /**
+   * Значение из кэша, а при промахе - загруженное один раз на узел: первый поток загружает,
+   * остальные с тем же ключом ждут его результат или его исключение и тоже считаются промахами
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    Object localValue = this.localCache.getIfPresent(key);
+    if (localValue != null) {
+      this.statistics.localHit(key);
+      return (T) fromStoreValue(localValue);
+    }
+    CompletableFuture<Object> load = new CompletableFuture<>();
+    CompletableFuture<Object> runningLoad = this.loads.putIfAbsent(key, load);
+    if (runningLoad != null) {
+      this.statistics.miss();
+      return (T) fromStoreValue(await(runningLoad));
+    }
+    try {
+      Object value = toStoreValue(this.loadShared(key, valueLoader));
+      // фоновое обновление могло успеть положить более новое значение
+      this.localCache.asMap().putIfAbsent(key, value);
+      load.complete(value);
+      return (T) fromStoreValue(value);
+    } catch (RuntimeException e) {
+      load.completeExceptionally(e);
+      throw e;
+    } finally {
+      this.loads.remove(key, load);
+    }
+  }
+
+  /**
+   * Загрузить значение, которого нет в Redis, не более чем одним узлом: узел без права загрузки
+   * ждёт, пока значение появится в Redis, а если не дождался за время права - загружает его сам
+   */
+  private Object loadShared(Object key, Callable<?> valueLoader) {
+    String remoteKey = this.remoteKeyPrefix + key;
+    ValueWrapper remoteValue = this.remoteCache.get(key);
+    if (remoteValue != null) {
+      this.statistics.remoteHit(key, remoteValue.get());
+      this.refreshIfStale(key, remoteKey, valueLoader);
+      return remoteValue.get();
+    }
+    this.statistics.miss();
+    long deadline = System.nanoTime() + this.loadLease.getTtl().toNanos();
+    long pauseMillis = MIN_LOAD_WAIT_MILLIS;
+    while (!this.loadLease.tryAcquire(remoteKey)) {
+      if (System.nanoTime() - deadline >= 0) {
+        return this.loadAndPut(key, valueLoader);
+      }
+      try {
+        Thread.sleep(pauseMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ValueRetrievalException(key, valueLoader, e);
+      }
+      pauseMillis = Math.min(pauseMillis * 2, MAX_LOAD_WAIT_MILLIS);
+      remoteValue = this.remoteCache.get(key);
+      if (remoteValue != null) {
+        return remoteValue.get();
+      }
+    }
+    try {
+      remoteValue = this.remoteCache.get(key);
+      return remoteValue != null ? remoteValue.get() : this.loadAndPut(key, valueLoader);
+    } finally {
+      this.loadLease.release(remoteKey);
+    }
+  }
+
+  /**
+   * Запланировать фоновое обновление, если значению в Redis осталось жить меньше окна обновления.
+   * На узле ключ обновляется одной задачей, между узлами - тем, кто взял право загрузки
+   */
+  private void refreshIfStale(Object key, String remoteKey, Callable<?> valueLoader) {
+    if (this.refreshWindowMillis <= 0 || !this.refreshes.add(key)) {
+      return;
+    }
+    boolean scheduled = false;
+    try {
+      Long ttlMillis = this.redisTemplate.getExpire(remoteKey, TimeUnit.MILLISECONDS);
+      if (ttlMillis != null && ttlMillis >= 0 && ttlMillis < this.refreshWindowMillis) {
+        this.refreshExecutor.execute(() -> this.refresh(key, remoteKey, valueLoader));
+        scheduled = true;
+      }
+    } catch (RuntimeException e) {
+      log.warn("Не удалось запланировать обновление кэша {}, ключ: {}", this.name, key, e);
+    } finally {
+      if (!scheduled) {
+        this.refreshes.remove(key);
+      }
+    }
+  }
+
+  private void refresh(Object key, String remoteKey, Callable<?> valueLoader) {
+    try {
+      if (!this.loadLease.tryAcquire(remoteKey)) {
+        return;
+      }
+      try {
+        this.localCache.put(key, toStoreValue(this.loadAndPut(key, valueLoader)));
+      } finally {
+        this.loadLease.release(remoteKey);
+      }
+    } catch (RuntimeException e) {
+      log.warn("Не удалось обновить значение кэша {}, ключ: {}", this.name, key, e);
+    } finally {
+      this.refreshes.remove(key);
+    }
+  }
+
+  private Object loadAndPut(Object key, Callable<?> valueLoader) {
+    Object value;
+    long start = System.nanoTime();
+    try {
+      value = valueLoader.call();
+    } catch (Exception e) {
+      this.statistics.load(System.nanoTime() - start, true);
+      throw new ValueRetrievalException(key, valueLoader, e);
+    }
+    this.statistics.load(System.nanoTime() - start, false);
+    this.remoteCache.put(key, value);
+    this.statistics.put(key, value);
+    return value;
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    this.remoteCache.put(key, value);
+    this.statistics.put(key, value);
+    this.localCache.put(key, toStoreValue(value));
+    this.invalidationPublisher.publishEvict(this.name, key);
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    ValueWrapper existing = this.remoteCache.putIfAbsent(key, value);
+    Object actualValue = existing != null ? existing.get() : value;
+    this.localCache.put(key, toStoreValue(actualValue));
+    if (existing == null) {
+      this.statistics.put(key, value);
+      this.invalidationPublisher.publishEvict(this.name, key);
+    }
+    return existing;
+  }
+
+  @Override
+  public void evict(Object key) {
+    this.remoteCache.evict(key);
+    this.statistics.evictions(1);
+    this.localCache.invalidate(key);
+    this.invalidationPublisher.publishEvict(this.name, key);
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    boolean evicted = this.remoteCache.evictIfPresent(key);
+    this.statistics.evictions(evicted ? 1 : 0);
+    this.localCache.invalidate(key);
+    this.invalidationPublisher.publishEvict(this.name, key);
+    return evicted;
+  }
+
+  /**
+   * Сбросить несколько ключей сразу: одна команда DEL и одно сообщение остальным узлам,
+   * отправленные в Redis одним конвейером
+   * @param keys - сбрасываемые ключи
+   */
+  public void evictAll(Collection<?> keys) {
+    if (keys.isEmpty()) {
+      return;
+    }
+    byte[][] rawKeys = keys.stream()
+        .map(this::rawKey)
+        .toArray(byte[][]::new);
+    byte[] rawTopic = this.invalidationPublisher.getTopic().getBytes(StandardCharsets.UTF_8);
+    byte[] rawMessage = this.invalidationPublisher.evictPayload(this.name, keys).getBytes(StandardCharsets.UTF_8);
+
+    this.redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+      connection.keyCommands().del(rawKeys);
+      connection.publish(rawTopic, rawMessage);
+      return null;
+    });
+    this.localCache.invalidateAll(keys);
+    this.statistics.evictions(keys.size());
+  }
+
+  /**
+   * Прочитать несколько ключей сразу: найденные в локальном кэше - из него, остальные - командами MGET
+   * по {@link #MULTI_KEY_CHUNK} ключей, отправленными в Redis одним конвейером
+   * @param keys - ключи
+   * @return - найденные значения по ключам, отрицательные записи - со значением null,
+   * отсутствующих ключей в результате нет
+   */
+  public Map<Object, Object> getAll(Collection<?> keys) {
+    Map<Object, Object> values = new HashMap<>();
+    List<Object> remoteKeys = new ArrayList<>();
+    for (Object key : keys) {
+      Object localValue = this.localCache.getIfPresent(key);
+      if (localValue != null) {
+        this.statistics.localHit(key);
+        values.put(key, fromStoreValue(localValue));
+      } else {
+        remoteKeys.add(key);
+      }
+    }
+    if (remoteKeys.isEmpty()) {
+      return values;
+    }
+    if (!(this.remoteCache instanceof RedisCache redisCache)) {
+      remoteKeys.forEach(key -> {
+        ValueWrapper remoteValue = this.get(key);
+        if (remoteValue != null) {
+          values.put(key, remoteValue.get());
+        }
+      });
+      return values;
+    }
+    RedisSerializationContext.SerializationPair<Object> valueSerialization =
+        redisCache.getCacheConfiguration().getValueSerializationPair();
+    List<Object> replies = this.redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+      for (int from = 0; from < remoteKeys.size(); from += MULTI_KEY_CHUNK) {
+        connection.stringCommands().mGet(remoteKeys.subList(from, Math.min(from + MULTI_KEY_CHUNK, remoteKeys.size()))
+            .stream()
+            .map(this::rawKey)
+            .toArray(byte[][]::new));
+      }
+      return null;
+    }, null);
+    Iterator<Object> remoteKeyIterator = remoteKeys.iterator();
+    for (Object reply : replies) {
+      for (Object rawValue : (List<?>) reply) {
+        Object key = remoteKeyIterator.next();
+        // запись другой версии схемы сериализатор читает как null: это промах, а не отрицательная запись
+        Object storeValue = rawValue != null ? valueSerialization.read(ByteBuffer.wrap((byte[]) rawValue)) : null;
+        if (storeValue == null) {
+          this.statistics.miss();
+          continue;
+        }
+        this.statistics.remoteHitOfSize(key, ((byte[]) rawValue).length);
+        Object value = fromStoreValue(storeValue);
+        values.put(key, value);
+        this.localCache.put(key, toStoreValue(value));
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Записать несколько значений сразу: команды SET со временем жизни кэша и одно сообщение
+   * остальным узлам отправляются в Redis одним конвейером
+   * @param values - значения по ключам, null - отрицательная запись
+   */
+  public void putAll(Map<?, ?> values) {
+    if (values.isEmpty()) {
+      return;
+    }
+    if (!(this.remoteCache instanceof RedisCache redisCache)) {
+      values.forEach(this::put);
+      return;
+    }
+    RedisCacheConfiguration configuration = redisCache.getCacheConfiguration();
+    byte[] rawTopic = this.invalidationPublisher.getTopic().getBytes(StandardCharsets.UTF_8);
+    byte[] rawMessage =
+        this.invalidationPublisher.evictPayload(this.name, values.keySet()).getBytes(StandardCharsets.UTF_8);
+    this.redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+      values.forEach((key, value) -> {
+        Duration ttl = configuration.getTtlFunction().getTimeToLive(key, value);
+        byte[] rawValue = ByteUtils.getBytes(configuration.getValueSerializationPair().write(toStoreValue(value)));
+        this.statistics.putOfSize(key, rawValue.length);
+        connection.stringCommands().set(
+            this.rawKey(key),
+            rawValue,
+            ttl != null && !ttl.isZero() && !ttl.isNegative() ? Expiration.from(ttl) : Expiration.persistent(),
+            RedisStringCommands.SetOption.upsert());
+      });
+      connection.publish(rawTopic, rawMessage);
+      return null;
+    });
+    values.forEach((key, value) -> this.localCache.put(key, toStoreValue(value)));
+  }
+
+  @Override
+  public void clear() {
+    this.remoteCache.clear();
+    this.localCache.invalidateAll();
+    this.invalidationPublisher.publishClear(this.name);
+  }
+
+  @Override
+  public boolean invalidate() {
+    boolean invalidated = this.remoteCache.invalidate();
+    this.localCache.invalidateAll();
+    this.invalidationPublisher.publishClear(this.name);
+    return invalidated;
+  }
+
+  /**
+   * Значение только из локального кэша, для реактивного доступа, который сам читает Redis
+   * @param key - ключ
+   * @return - значение или null, если его нет в локальном кэше
+   */
+  public ValueWrapper getLocal(Object key) {
+    Object localValue = this.localCache.getIfPresent(key);
+    if (localValue == null) {
+      return null;
+    }
+    this.statistics.localHit(key);
+    return toValueWrapper(localValue);
+  }
+
+  /**
+   * Положить значение только в локальный кэш, после того как оно прочитано из Redis или записано в него
+   * @param key - ключ
+   * @param value - значение
+   */
+  public void putLocal(Object key, Object value) {
+    this.localCache.put(key, toStoreValue(value));
+  }
+
+  public String getRemoteKeyPrefix() {
+    return this.remoteKeyPrefix;
+  }
+
+  public CacheStatistics getStatistics() {
+    return this.statistics;
+  }
+
+  /**
+   * Сбросить значение только в локальном кэше, по сообщению от другого узла
+   * @param key - ключ
+   */
+  public void evictLocal(Object key) {
+    this.localCache.invalidate(key);
+  }
+
+  /**
+   * Очистить только локальный кэш, по сообщению от другого узла
+   */
+  public void clearLocal() {
+    this.localCache.invalidateAll();
+  }
+
+  private byte[] rawKey(Object key) {
+    return (this.remoteKeyPrefix + key).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static Object await(CompletableFuture<Object> load) {
+    try {
+      return load.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private static Object toStoreValue(Object value) {
+    return value != null ? value : NullValue.INSTANCE;
+  }
+
+  private static Object fromStoreValue(Object storeValue) {
+    return storeValue == NullValue.INSTANCE ? null : storeValue;
+  }
+
+  private static ValueWrapper toValueWrapper(Object storeValue) {
+    return new SimpleValueWrapper(fromStoreValue(storeValue));
+  }
+}
@@ -0,0 +1,100 @@
+package org.example.books.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.books.config.properties.AppCacheProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Менеджер кэшей, ставящий перед каждым кэшем Redis локальный кэш первого уровня,
+ * если он включен в настройках кэша
+ */
+public class TwoLevelCacheManager implements CacheManager {
+  private final CacheManager remoteCacheManager;
+  private final AppCacheProperties appCacheProperties;
+  private final StringRedisTemplate redisTemplate;
+  private final CacheInvalidationPublisher invalidationPublisher;
+  private final Executor refreshExecutor;
+  private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+  public TwoLevelCacheManager(
+      CacheManager remoteCacheManager,
+      AppCacheProperties appCacheProperties,
+      StringRedisTemplate redisTemplate,
+      CacheInvalidationPublisher invalidationPublisher,
+      Executor refreshExecutor) {
+    this.remoteCacheManager = remoteCacheManager;
+    this.appCacheProperties = appCacheProperties;
+    this.redisTemplate = redisTemplate;
+    this.invalidationPublisher = invalidationPublisher;
+    this.refreshExecutor = refreshExecutor;
+  }
+
+  @Override
+  public Cache getCache(String name) {
+    Cache cache = this.caches.get(name);
+    if (cache != null) {
+      return cache;
+    }
+    Cache remoteCache = this.remoteCacheManager.getCache(name);
+    if (remoteCache == null) {
+      return null;
+    }
+    return this.caches.computeIfAbsent(name, cacheName -> this.decorate(cacheName, remoteCache));
+  }
+
+  @Override
+  public Collection<String> getCacheNames() {
+    return this.remoteCacheManager.getCacheNames();
+  }
+
+  private Cache decorate(String name, Cache remoteCache) {
+    AppCacheProperties.CacheProperties cacheProperties = this.appCacheProperties.getCaches().get(name);
+    if (cacheProperties == null || !cacheProperties.getLocal().isEnabled()) {
+      return remoteCache;
+    }
+    AppCacheProperties.LocalCacheProperties localProperties = cacheProperties.getLocal();
+    CacheStatistics statistics = this.statistics(remoteCache);
+    com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache = Caffeine.newBuilder()
+        .maximumWeight(localProperties.getMaxEntries())
+        .weigher((Object key, Object value) -> value instanceof Collection<?> collection
+            ? Math.max(1, collection.size())
+            : 1)
+        .expireAfterWrite(localProperties.getExpiry())
+        .evictionListener((key, value, cause) -> statistics.localEviction())
+        .build();
+    String remoteKeyPrefix = remoteCache instanceof RedisCache redisCache
+        ? redisCache.getCacheConfiguration().getKeyPrefixFor(name)
+        : name + "::";
+    CacheLoadLease loadLease = new CacheLoadLease(
+        this.redisTemplate, this.invalidationPublisher.getNodeId(), cacheProperties.getLoadLease());
+    return new TwoLevelCache(
+        name, localCache, remoteCache, remoteKeyPrefix, this.redisTemplate, this.invalidationPublisher, loadLease,
+        cacheProperties.getRefreshWindow(), this.refreshExecutor, statistics);
+  }
+
+  /**
+   * Размер значения замеряется тем же сериализатором, которым кэш Redis его записывает
+   */
+  private CacheStatistics statistics(Cache remoteCache) {
+    AppCacheProperties.MetricsProperties metricsProperties = this.appCacheProperties.getMetrics();
+    if (!(remoteCache instanceof RedisCache redisCache)) {
+      return new CacheStatistics(metricsProperties.getSampleRate(), metricsProperties.getTrackedHotKeys(), value -> 0);
+    }
+    RedisSerializationContext.SerializationPair<Object> valueSerialization =
+        redisCache.getCacheConfiguration().getValueSerializationPair();
+    return new CacheStatistics(
+        metricsProperties.getSampleRate(),
+        metricsProperties.getTrackedHotKeys(),
+        value -> valueSerialization.write(value != null ? value : NullValue.INSTANCE).remaining());
+  }
+}
@@ -0,0 +1,15 @@
+package org.example.books.cache;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+
+/**
+ * Регистрирует метрики двухуровневых кэшей вместе с метриками остальных кэшей приложения
+ */
+public class TwoLevelCacheMeterBinderProvider implements CacheMeterBinderProvider<TwoLevelCache> {
+  @Override
+  public MeterBinder getMeterBinder(TwoLevelCache cache, Iterable<Tag> tags) {
+    return new TwoLevelCacheMetrics(cache, tags);
+  }
+}
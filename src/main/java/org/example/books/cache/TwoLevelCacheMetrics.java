@@ -0,0 +1,101 @@
+package org.example.books.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Метрики двухуровневого кэша. Общие метрики кэшей (cache.gets, cache.puts, cache.evictions) считают
+ * попаданием значение из любого уровня, остальные показывают уровни по отдельности, загрузки промахов
+ * и размеры значений в Redis по выборке
+ */
+public class TwoLevelCacheMetrics extends CacheMeterBinder<TwoLevelCache> {
+  private final CacheStatistics statistics;
+
+  public TwoLevelCacheMetrics(TwoLevelCache cache, Iterable<Tag> tags) {
+    super(cache, cache.getName(), tags);
+    this.statistics = cache.getStatistics();
+  }
+
+  /**
+   * Размер кэша в Redis узлу неизвестен
+   */
+  @Override
+  protected Long size() {
+    return null;
+  }
+
+  @Override
+  protected long hitCount() {
+    return this.statistics.getLocalHits() + this.statistics.getRemoteHits();
+  }
+
+  @Override
+  protected Long missCount() {
+    return this.statistics.getMisses();
+  }
+
+  @Override
+  protected Long evictionCount() {
+    return this.statistics.getEvictions();
+  }
+
+  @Override
+  protected long putCount() {
+    return this.statistics.getPuts();
+  }
+
+  @Override
+  protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+    this.counter(registry, "cache.level.hits", "local", CacheStatistics::getLocalHits,
+        "The number of hits served by the local cache");
+    this.counter(registry, "cache.level.hits", "remote", CacheStatistics::getRemoteHits,
+        "The number of hits served by Redis");
+    FunctionCounter.builder("cache.local.evictions", this.statistics, CacheStatistics::getLocalEvictions)
+        .tags(this.getTagsWithCacheName())
+        .description("The number of entries evicted from the local cache by size or expiry")
+        .register(registry);
+    FunctionCounter.builder("cache.load", this.statistics,
+            statistics -> statistics.getLoads() - statistics.getLoadFailures())
+        .tags(this.getTagsWithCacheName())
+        .tag("result", "success")
+        .description("The number of times cache misses were loaded successfully")
+        .register(registry);
+    FunctionCounter.builder("cache.load", this.statistics, CacheStatistics::getLoadFailures)
+        .tags(this.getTagsWithCacheName())
+        .tag("result", "failure")
+        .description("The number of times cache miss loads failed")
+        .register(registry);
+    FunctionTimer.builder("cache.load.duration", this.statistics,
+            CacheStatistics::getLoads, CacheStatistics::getLoadNanos, TimeUnit.NANOSECONDS)
+        .tags(this.getTagsWithCacheName())
+        .description("The time spent loading cache misses")
+        .register(registry);
+    Gauge.builder("cache.value.size.mean", this.statistics, CacheStatistics::getMeanValueBytes)
+        .tags(this.getTagsWithCacheName())
+        .baseUnit(BaseUnits.BYTES)
+        .description("The mean size of sampled values in Redis")
+        .register(registry);
+    Gauge.builder("cache.value.size.max", this.statistics, CacheStatistics::getMaxValueBytes)
+        .tags(this.getTagsWithCacheName())
+        .baseUnit(BaseUnits.BYTES)
+        .description("The largest sampled value in Redis")
+        .register(registry);
+  }
+
+  private void counter(
+      MeterRegistry registry, String name, String level, ToDoubleFunction<CacheStatistics> count, String description) {
+    FunctionCounter.builder(name, this.statistics, count)
+        .tags(Tags.concat(this.getTagsWithCacheName(), "level", level))
+        .description(description)
+        .register(registry);
+  }
+}
@@ -1,42 +1,127 @@
 package org.example.books.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.books.cache.CacheInvalidationListener;
+import org.example.books.cache.CacheInvalidationPublisher;
+import org.example.books.cache.CodecRedisCacheManager;
+import org.example.books.cache.ContentVersions;
+import org.example.books.cache.JitteredTtl;
+import org.example.books.cache.ReactiveBookCache;
+import org.example.books.cache.TwoLevelCacheManager;
+import org.example.books.cache.TwoLevelCacheMeterBinderProvider;
 import org.example.books.config.properties.AppCacheProperties;
+import org.example.books.datasource.ReadYourWritesWindow;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 @Configuration
 @EnableCaching
 @EnableConfigurationProperties(AppCacheProperties.class)
 public class CacheConfiguration {
   @Bean
-  public CacheManager redisCacheManager(
+  public CacheInvalidationPublisher cacheInvalidationPublisher(
+      AppCacheProperties appCacheProperties, StringRedisTemplate stringRedisTemplate, ObjectMapper objectMapper) {
+    return new CacheInvalidationPublisher(
+        stringRedisTemplate, objectMapper, appCacheProperties.getInvalidationTopic());
+  }
+
+  /**
+   * Кэши Redis с локальным кэшем первого уровня перед каждым из них.
+   * Устаревающие значения обновляются в фоне общим исполнителем приложения
+   */
+  @Bean
+  public CacheManager cacheManager(
+      AppCacheProperties appCacheProperties,
+      LettuceConnectionFactory lettuceConnectionFactory,
+      StringRedisTemplate stringRedisTemplate,
+      CacheInvalidationPublisher cacheInvalidationPublisher,
+      @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor taskExecutor) {
+    RedisCacheManager redisCacheManager = this.redisCacheManager(appCacheProperties, lettuceConnectionFactory);
+    redisCacheManager.afterPropertiesSet();
+    return new TwoLevelCacheManager(
+        redisCacheManager, appCacheProperties, stringRedisTemplate, cacheInvalidationPublisher, taskExecutor);
+  }
+
+  /**
+   * Метрики двухуровневых кэшей регистрируются Spring Boot вместе с метриками остальных кэшей
+   */
+  @Bean
+  public TwoLevelCacheMeterBinderProvider twoLevelCacheMeterBinderProvider() {
+    return new TwoLevelCacheMeterBinderProvider();
+  }
+
+  @Bean
+  public ReactiveBookCache reactiveBookCache(
+      CacheManager cacheManager,
+      AppCacheProperties appCacheProperties,
+      LettuceConnectionFactory lettuceConnectionFactory,
+      ReactiveStringRedisTemplate reactiveStringRedisTemplate,
+      CacheInvalidationPublisher cacheInvalidationPublisher) {
+    return new ReactiveBookCache(cacheManager, appCacheProperties, lettuceConnectionFactory,
+        reactiveStringRedisTemplate, cacheInvalidationPublisher);
+  }
+
+  /**
+   * Сообщения обрабатываются общим исполнителем приложения (в режиме виртуальных потоков - виртуальными),
+   * а не новым потоком на каждое сообщение
+   */
+  @Bean
+  public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+      AppCacheProperties appCacheProperties,
+      LettuceConnectionFactory lettuceConnectionFactory,
+      CacheManager cacheManager,
+      CacheInvalidationPublisher cacheInvalidationPublisher,
+      ObjectMapper objectMapper,
+      ReadYourWritesWindow readYourWritesWindow,
+      ContentVersions contentVersions,
+      @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor taskExecutor) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(lettuceConnectionFactory);
+    container.setTaskExecutor(taskExecutor);
+    container.addMessageListener(
+        new CacheInvalidationListener(
+            cacheManager, cacheInvalidationPublisher, objectMapper, readYourWritesWindow, contentVersions),
+        new ChannelTopic(appCacheProperties.getInvalidationTopic()));
+    return container;
+  }
+
+  private RedisCacheManager redisCacheManager(
       AppCacheProperties appCacheProperties, LettuceConnectionFactory lettuceConnectionFactory) {
 
     RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig();
     Map<String, RedisCacheConfiguration> redisCacheConfigurationMap = new HashMap<>();
 
     appCacheProperties.getCacheNames().forEach(cacheName -> {
+      AppCacheProperties.CacheProperties cacheProperties = appCacheProperties.getCaches().get(cacheName);
       var configuration = RedisCacheConfiguration
           .defaultCacheConfig()
-          .entryTtl(appCacheProperties
-              .getCaches()
-              .get(cacheName)
-              .getExpiry());
+          .entryTtl(new JitteredTtl(cacheProperties.getExpiry(), cacheProperties.getTtlJitter()))
+          .serializeValuesWith(RedisSerializationContext.SerializationPair
+              .fromSerializer(cacheProperties.getCodec().serializer(cacheProperties)));
       redisCacheConfigurationMap.put(cacheName, configuration);
     });
 
-    return RedisCacheManager.builder(lettuceConnectionFactory)
-        .cacheDefaults(defaultConfig)
-        .withInitialCacheConfigurations(redisCacheConfigurationMap)
-        .build();
+    RedisCacheWriter cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(lettuceConnectionFactory)
+        .withStatisticsCollector(CacheStatisticsCollector.create());
+    return new CodecRedisCacheManager(cacheWriter, defaultConfig, redisCacheConfigurationMap);
   }
 }
@@ -0,0 +1,111 @@
+package org.example.books.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.books.config.properties.AppDataSourceProperties;
+import org.example.books.datasource.ReadYourWritesWindow;
+import org.example.books.datasource.ReplicaRoutingDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Два доступа к одной базе: JDBC (JPA, Flyway) для API v1 и R2DBC для реактивного API v2.
+ * Когда есть фабрика соединений R2DBC, Spring Boot не создаёт DataSource и менеджер транзакций JPA,
+ * поэтому они объявлены здесь. Менеджер JPA - основной: его используют все методы с @Transactional,
+ * реактивные методы работают через TransactionalOperator
+ */
+@Configuration
+@EnableConfigurationProperties({DataSourceProperties.class, AppDataSourceProperties.class})
+public class DataSourceConfiguration {
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+    return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  @Bean
+  @Primary
+  public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+    return new JpaTransactionManager(entityManagerFactory);
+  }
+
+  /**
+   * Чтение из реплик, когда они заданы в app.datasource.replicas. Основной источник соединений откладывает
+   * выбор базы до первого запроса: читающие транзакции (@Transactional(readOnly = true) и методы поиска
+   * репозиториев) получают соединение реплики, остальные - основной базы. API v2 (R2DBC) читает из основной базы
+   */
+  @Configuration
+  @ConditionalOnProperty("app.datasource.replicas[0].url")
+  static class ReplicaRoutingConfiguration {
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+        HikariDataSource dataSource,
+        AppDataSourceProperties appDataSourceProperties,
+        ReadYourWritesWindow readYourWritesWindow,
+        MeterRegistry meterRegistry) {
+      List<DataSource> replicas = new ArrayList<>();
+      List<AppDataSourceProperties.ReplicaProperties> replicaProperties = appDataSourceProperties.getReplicas();
+      for (int i = 0; i < replicaProperties.size(); i++) {
+        replicas.add(this.replicaPool(dataSource, replicaProperties.get(i), i, meterRegistry));
+      }
+      ReplicaRoutingDataSource replicaRoutingDataSource = new ReplicaRoutingDataSource(
+          dataSource, replicas, readYourWritesWindow,
+          appDataSourceProperties.getHealthCheckInterval(), appDataSourceProperties.getHealthCheckTimeout());
+      Gauge.builder("books.datasource.replicas.healthy", replicaRoutingDataSource,
+              ReplicaRoutingDataSource::getHealthyReplicas)
+          .description("Доступные реплики базы")
+          .register(meterRegistry);
+      return replicaRoutingDataSource;
+    }
+
+    @Bean
+    @Primary
+    public LazyConnectionDataSourceProxy routingDataSource(
+        HikariDataSource dataSource, ReplicaRoutingDataSource replicaRoutingDataSource) {
+      LazyConnectionDataSourceProxy routingDataSource = new LazyConnectionDataSourceProxy(dataSource);
+      routingDataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+      return routingDataSource;
+    }
+
+    /**
+     * Пул реплики с настройками основного пула, кроме адреса, учётных данных и размера.
+     * Пул создаётся при первом обращении, поэтому недоступная при старте реплика не мешает запуску
+     */
+    private HikariDataSource replicaPool(
+        HikariDataSource primary,
+        AppDataSourceProperties.ReplicaProperties properties,
+        int index,
+        MeterRegistry meterRegistry) {
+      HikariDataSource replica = new HikariDataSource();
+      primary.copyStateTo(replica);
+      replica.setPoolName("books-replica-" + index);
+      replica.setJdbcUrl(properties.getUrl());
+      if (properties.getUsername() != null) {
+        replica.setUsername(properties.getUsername());
+      }
+      if (properties.getPassword() != null) {
+        replica.setPassword(properties.getPassword());
+      }
+      replica.setMaximumPoolSize(properties.getMaximumPoolSize());
+      replica.setMinimumIdle(properties.getMinimumIdle());
+      replica.setReadOnly(true);
+      replica.setConnectionInitSql(null);
+      replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+      return replica;
+    }
+  }
+}
@@ -1,10 +1,26 @@
 package org.example.books.config;
 
+import org.example.books.config.properties.AppBulkProperties;
+import org.example.books.config.properties.AppCategoryStatsProperties;
+import org.example.books.config.properties.AppMethodMetricsProperties;
+import org.example.books.config.properties.AppPaginationProperties;
+import org.example.books.config.properties.AppSchemaProperties;
+import org.example.books.config.properties.AppWriteBehindProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
+@EnableScheduling
 @PropertySource("classpath:application.yaml")
 //@PropertySource("file:application.yaml")
+@EnableConfigurationProperties({
+    AppPaginationProperties.class,
+    AppBulkProperties.class,
+    AppSchemaProperties.class,
+    AppMethodMetricsProperties.class,
+    AppWriteBehindProperties.class,
+    AppCategoryStatsProperties.class})
 public class DefaultConfig {
 }
@@ -4,6 +4,7 @@ import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -14,8 +15,12 @@ public class RedisConfig {
   public LettuceConnectionFactory lettuceConnectionFactory(RedisProperties redisProperties) {
     RedisStandaloneConfiguration configuration =
         new RedisStandaloneConfiguration(redisProperties.getHost(),redisProperties.getPort());
+    LettuceClientConfiguration.LettuceClientConfigurationBuilder clientConfiguration = LettuceClientConfiguration.builder();
+    if (redisProperties.getTimeout() != null) {
+      clientConfiguration.commandTimeout(redisProperties.getTimeout());
+    }
 
-    return new LettuceConnectionFactory(configuration);
+    return new LettuceConnectionFactory(configuration, clientConfiguration.build());
   }
 
   @Bean
@@ -0,0 +1,47 @@
+package org.example.books.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.books.config.properties.AppSchemaProperties;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Проверяет при старте, что в текущей схеме есть все нужные индексы и они валидны.
+ * Выполняется после миграций и до запуска веб-сервера: без индексов приложение не стартует
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SchemaIndexVerifier implements InitializingBean {
+  private static final String VALID_INDEXES_QUERY = """
+      select c.relname
+      from pg_index i
+      join pg_class c on c.oid = i.indexrelid
+      join pg_namespace n on n.oid = c.relnamespace
+      where n.nspname = current_schema() and i.indisvalid""";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final AppSchemaProperties schemaProperties;
+
+  @Override
+  public void afterPropertiesSet() {
+    if (!this.schemaProperties.isVerifyIndexes()) {
+      return;
+    }
+    Set<String> validIndexes = new HashSet<>(this.jdbcTemplate.queryForList(VALID_INDEXES_QUERY, String.class));
+    List<String> missingIndexes = this.schemaProperties.getRequiredIndexes().stream()
+        .filter(index -> !validIndexes.contains(index))
+        .toList();
+    if (!missingIndexes.isEmpty()) {
+      throw new IllegalStateException(
+          "В схеме базы нет индексов или они невалидны: " + missingIndexes + ". Проверьте миграции Flyway");
+    }
+    log.info("Индексы схемы на месте: {}", this.schemaProperties.getRequiredIndexes());
+  }
+}
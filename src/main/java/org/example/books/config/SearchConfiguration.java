@@ -0,0 +1,41 @@
+package org.example.books.config;
+
+import org.example.books.config.properties.AppSearchProperties;
+import org.example.books.service.search.BookSearchIndex;
+import org.example.books.service.search.BookSearchIndexUpdater;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.concurrent.Executor;
+
+@Configuration
+@EnableConfigurationProperties(AppSearchProperties.class)
+public class SearchConfiguration {
+  @Bean
+  public BookSearchIndex bookSearchIndex(AppSearchProperties searchProperties) {
+    return new BookSearchIndex(
+        searchProperties.getMinSimilarity(), searchProperties.getFuzzyMinLength(), searchProperties.getMaxCandidates());
+  }
+
+  /**
+   * Изменения книг, сделанные другими узлами, применяются к индексу этого узла общим исполнителем приложения
+   */
+  @Bean
+  public RedisMessageListenerContainer searchIndexListenerContainer(
+      AppSearchProperties searchProperties,
+      LettuceConnectionFactory lettuceConnectionFactory,
+      BookSearchIndexUpdater bookSearchIndexUpdater,
+      @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor taskExecutor) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(lettuceConnectionFactory);
+    container.setTaskExecutor(taskExecutor);
+    container.addMessageListener(bookSearchIndexUpdater, new ChannelTopic(searchProperties.getChangesTopic()));
+    return container;
+  }
+}
@@ -0,0 +1,35 @@
+package org.example.books.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Проверяет при старте, что включённые виртуальные потоки (профиль virtual) действительно работают.
+ * На Java ниже 21 свойство spring.threads.virtual.enabled не действует, а остальные настройки профиля
+ * (тысячи соединений Tomcat на 200 потоков платформы, короткое ожидание соединения с базой)
+ * только ухудшают работу, поэтому приложение не стартует
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VirtualThreadsVerifier implements InitializingBean {
+  private static final String VIRTUAL_THREADS_ENABLED = "spring.threads.virtual.enabled";
+
+  private final Environment environment;
+
+  @Override
+  public void afterPropertiesSet() {
+    if (!this.environment.getProperty(VIRTUAL_THREADS_ENABLED, Boolean.class, false)) {
+      return;
+    }
+    if (!Threading.VIRTUAL.isActive(this.environment)) {
+      throw new IllegalStateException("Для виртуальных потоков (" + VIRTUAL_THREADS_ENABLED + ") нужна Java 21 " +
+          "и новее, запущена Java " + Runtime.version().feature() + ". Запустите приложение без профиля virtual");
+    }
+    log.info("Запросы и асинхронные задачи выполняются в виртуальных потоках");
+  }
+}
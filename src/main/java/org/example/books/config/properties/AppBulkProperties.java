@@ -0,0 +1,16 @@
+package org.example.books.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки пакетной записи книг
+ */
+@Data
+@ConfigurationProperties(prefix = "app.bulk")
+public class AppBulkProperties {
+  /**
+   * Число операций в одной транзакции: пачка фиксируется или откатывается целиком
+   */
+  private int chunkSize = 500;
+}
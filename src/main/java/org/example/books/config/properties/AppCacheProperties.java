@@ -1,6 +1,7 @@
 package org.example.books.config.properties;
 
 import lombok.Data;
+import org.example.books.cache.CacheValueCodec;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 import java.time.Duration;
@@ -14,10 +15,118 @@ import java.util.Map;
 public class AppCacheProperties {
   private final List<String> cacheNames = new ArrayList<>();
   private final Map<String, CacheProperties> caches = new HashMap<>();
+  /**
+   * Канал Redis pub/sub, по которому узлы приложения рассылают друг другу
+   * сообщения об инвалидации локальных (L1) кэшей
+   */
+  private String invalidationTopic = "books:cache:invalidation";
+  private WarmUpProperties warmUp = new WarmUpProperties();
+  private MetricsProperties metrics = new MetricsProperties();
+  /**
+   * Локальная копия версий категорий из ключей страниц: её сбрасывают сообщения об инвалидации,
+   * а expiry ограничивает устаревание, если сообщение потеряно
+   */
+  private LocalCacheProperties categoryVersions = new LocalCacheProperties();
 
   @Data
   public static class CacheProperties {
+    /**
+     * Жёсткое время жизни записи в Redis, после него значение загружается из базы при чтении
+     */
     private Duration expiry = Duration.ZERO;
+    /**
+     * Мягкое время жизни: после него значение ещё отдаётся, но при чтении обновляется в фоне.
+     * Ноль - без фонового обновления. Окно expiry - softExpiry должно быть больше local.expiry,
+     * иначе узел может ни разу не прочитать Redis в этом окне
+     */
+    private Duration softExpiry = Duration.ZERO;
+    private CacheValueCodec codec = CacheValueCodec.JDK;
+    /**
+     * Размер значения в байтах, начиная с которого оно сжимается (для кодека BINARY)
+     */
+    private int compressionThreshold = 4096;
+    /**
+     * Наибольшее случайное отклонение времени жизни записи в Redis в долях от expiry,
+     * чтобы записи, заполненные одновременно, не истекали одновременно
+     */
+    private double ttlJitter = 0.1;
+    /**
+     * На сколько узел берёт право загрузить отсутствующее значение: остальные узлы
+     * это время ждут, пока значение появится в Redis, и только потом загружают его сами
+     */
+    private Duration loadLease = Duration.ofSeconds(5);
+    private LocalCacheProperties local = new LocalCacheProperties();
+
+    /**
+     * @return - сколько времени до жёсткого истечения значение обновляется в фоне, ноль - не обновляется
+     */
+    public Duration getRefreshWindow() {
+      if (this.softExpiry.isZero() || this.softExpiry.isNegative() || this.softExpiry.compareTo(this.expiry) >= 0) {
+        return Duration.ZERO;
+      }
+      return this.expiry.minus(this.softExpiry);
+    }
+  }
+
+  /**
+   * Настройки локального (в памяти процесса) кэша первого уровня перед Redis
+   */
+  @Data
+  public static class LocalCacheProperties {
+    private boolean enabled = true;
+    /**
+     * Максимальное число элементов в локальном кэше, список книг считается по числу книг в нём
+     */
+    private long maxEntries = 10_000;
+    private Duration expiry = Duration.ofMinutes(1);
+  }
+
+  /**
+   * Настройки учёта популярных ключей и прогрева кэшей ими при старте
+   */
+  @Data
+  public static class WarmUpProperties {
+    private boolean enabled = true;
+    /**
+     * Сколько самых популярных ключей каждого кэша хранится в Redis
+     */
+    private int trackedKeys = 1000;
+    /**
+     * Сколько самых популярных ключей каждого кэша загружается при старте
+     */
+    private int warmKeys = 200;
+    /**
+     * Период полураспада счётчика обращений: старые обращения весят меньше новых
+     */
+    private Duration halfLife = Duration.ofHours(1);
+    /**
+     * Как часто накопленные счётчики отправляются в Redis
+     */
+    private Duration flushInterval = Duration.ofSeconds(30);
+    /**
+     * Сколько времени старт приложения может ждать прогрева, незагруженные ключи пропускаются
+     */
+    private Duration timeBudget = Duration.ofSeconds(20);
+    private int parallelism = 8;
+  }
+
+  /**
+   * Настройки статистики кэшей: размеры значений и горячие ключи замеряются по выборке обращений
+   */
+  @Data
+  public static class MetricsProperties {
+    /**
+     * Доля обращений в выборке, 0 - размеры значений и горячие ключи не замеряются
+     */
+    private double sampleRate = 0.01;
+    /**
+     * Сколько горячих ключей каждого кэша хранится в памяти узла
+     */
+    private int trackedHotKeys = 1000;
+    /**
+     * Сколько горячих ключей возвращает конечная точка Actuator по умолчанию
+     */
+    private int reportedHotKeys = 20;
   }
 
   public interface CacheNames {
@@ -0,0 +1,22 @@
+package org.example.books.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки счётчиков книг и авторов по категориям в Redis
+ */
+@Data
+@ConfigurationProperties(prefix = "app.category-stats")
+public class AppCategoryStatsProperties {
+  /**
+   * Как часто счётчики сверяются с базой; сверку выполняет один узел за период
+   */
+  private Duration reconcileInterval = Duration.ofMinutes(10);
+  /**
+   * Сколько авторов категории записывается в Redis одной командой при сверке
+   */
+  private int reconcileBatchSize = 1000;
+}
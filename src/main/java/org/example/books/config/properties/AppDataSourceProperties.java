@@ -0,0 +1,42 @@
+package org.example.books.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Реплики базы для чтения. Без реплик все запросы идут в основную базу из spring.datasource
+ */
+@Data
+@ConfigurationProperties(prefix = "app.datasource")
+public class AppDataSourceProperties {
+  private final List<ReplicaProperties> replicas = new ArrayList<>();
+  /**
+   * Сколько после записи категории или книги её чтения идут в основную базу, а не в реплики:
+   * дольше ожидаемого отставания реплик
+   */
+  private Duration readYourWritesWindow = Duration.ofSeconds(2);
+  /**
+   * Как часто проверяется доступность реплик
+   */
+  private Duration healthCheckInterval = Duration.ofSeconds(5);
+  /**
+   * Сколько ждать ответа реплики при проверке
+   */
+  private Duration healthCheckTimeout = Duration.ofSeconds(1);
+
+  /**
+   * Реплика с отдельным пулом соединений, не заданные имя пользователя и пароль берутся из spring.datasource
+   */
+  @Data
+  public static class ReplicaProperties {
+    private String url;
+    private String username;
+    private String password;
+    private int maximumPoolSize = 10;
+    private int minimumIdle = 2;
+  }
+}
@@ -0,0 +1,23 @@
+package org.example.books.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки замера методов с аннотацией @Loggable
+ */
+@Data
+@ConfigurationProperties(prefix = "app.method-metrics")
+public class AppMethodMetricsProperties {
+  /**
+   * Вызов дольше этого времени попадает в лог как медленный
+   */
+  private Duration slowCallThreshold = Duration.ofSeconds(1);
+  /**
+   * Не чаще одного сообщения о медленном вызове или исключении на метод за этот интервал,
+   * пропущенные сообщения подсчитываются
+   */
+  private Duration logInterval = Duration.ofSeconds(10);
+}
@@ -0,0 +1,20 @@
+package org.example.books.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки постраничной выдачи книг категории
+ */
+@Data
+@ConfigurationProperties(prefix = "app.pagination")
+public class AppPaginationProperties {
+  /**
+   * Размер страницы, если клиент его не задал
+   */
+  private int defaultSize = 50;
+  /**
+   * Наибольший размер страницы, больший запрошенный размер урезается до него
+   */
+  private int maxSize = 500;
+}
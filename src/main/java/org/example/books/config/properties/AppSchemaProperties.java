@@ -0,0 +1,20 @@
+package org.example.books.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки проверки схемы базы при старте приложения
+ */
+@Data
+@ConfigurationProperties(prefix = "app.schema")
+public class AppSchemaProperties {
+  private boolean verifyIndexes = true;
+  /**
+   * Индексы, без которых запросы приложения читают таблицу целиком
+   */
+  private List<String> requiredIndexes = new ArrayList<>();
+}
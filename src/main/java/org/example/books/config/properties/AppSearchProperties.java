@@ -0,0 +1,38 @@
+package org.example.books.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки поиска книг по названию и автору
+ */
+@Data
+@ConfigurationProperties(prefix = "app.search")
+public class AppSearchProperties {
+  /**
+   * Число найденных книг, если клиент его не задал
+   */
+  private int defaultLimit = 10;
+  /**
+   * Наибольшее число найденных книг, большее запрошенное число урезается до него
+   */
+  private int maxLimit = 50;
+  /**
+   * Наименьшая доля триграмм строки поиска, которые должны найтись в названии и авторе книги
+   */
+  private double minSimilarity = 0.3;
+  /**
+   * Наименьшая длина строки поиска, с которой ищется с опечатками: по короткой строке почти любая книга
+   * совпадает хотя бы одной триграммой, поэтому она ищется только по началу слов
+   */
+  private int fuzzyMinLength = 4;
+  /**
+   * Наибольшее число книг, проверяемых одним поиском: из кандидатов остаются совпавшие с наибольшим
+   * числом триграмм строки поиска
+   */
+  private int maxCandidates = 10_000;
+  /**
+   * Канал Redis pub/sub, по которому узлы сообщают друг другу id изменённых книг для обновления их индексов
+   */
+  private String changesTopic = "books:search:changes";
+}
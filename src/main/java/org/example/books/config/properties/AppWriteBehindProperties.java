@@ -0,0 +1,39 @@
+package org.example.books.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки отложенной записи новых книг: запросы на создание копятся в очереди
+ * и записываются в базу пачками
+ */
+@Data
+@ConfigurationProperties(prefix = "app.write-behind")
+public class AppWriteBehindProperties {
+  private boolean enabled = false;
+  /**
+   * Сколько книг может ждать записи, при заполненной очереди новые запросы отклоняются.
+   * Каждая книга очереди занимает ждущий запрос: с потоками платформы очередь заполняется
+   * не больше чем до server.tomcat.threads.max книг, с виртуальными потоками - до самой ёмкости
+   */
+  private int queueCapacity = 10_000;
+  /**
+   * Наибольшее число книг в одной пачке (одной транзакции)
+   */
+  private int maxBatchSize = 500;
+  /**
+   * Сколько пачка ждёт новых книг после первой, прежде чем записаться неполной
+   */
+  private Duration flushInterval = Duration.ofMillis(10);
+  /**
+   * Сколько запрос ждёт записи своей книги. Книга, не взятая в пачку за это время, не записывается,
+   * а уже взятая может быть записана и после того, как запрос перестал ждать
+   */
+  private Duration writeTimeout = Duration.ofSeconds(5);
+  /**
+   * Через сколько клиенту повторить отклонённый запрос (заголовок Retry-After)
+   */
+  private Duration retryAfter = Duration.ofSeconds(1);
+}
@@ -13,8 +13,15 @@ import java.io.Serializable;
 @AllArgsConstructor
 @Entity(name = "books")
 public class Book implements Serializable {
+  public static final int ID_ALLOCATION_SIZE = 50;
+
+  /**
+   * Идентификаторы выдаются из последовательности блоками по 50, без обращения к базе на каждую вставку,
+   * что позволяет Hibernate отправлять вставки пакетами JDBC
+   */
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+  @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = ID_ALLOCATION_SIZE)
   private int id;
   @Column(name = "book_title")
   private String title;
@@ -0,0 +1,18 @@
+package org.example.books.dao.projection;
+
+/**
+ * Строка книги из нативного запроса: столбцы читаются по псевдонимам, совпадающим с именами свойств
+ */
+public interface BookRow {
+  int getId();
+
+  String getTitle();
+
+  String getAuthor();
+
+  String getCategoryName();
+
+  default BookView toView() {
+    return new BookView(this.getId(), this.getTitle(), this.getAuthor(), this.getCategoryName());
+  }
+}
@@ -0,0 +1,23 @@
+package org.example.books.dao.projection;
+
+import lombok.Value;
+import org.example.books.dao.entity.Book;
+
+import java.io.Serializable;
+
+/**
+ * Неизменяемая плоская проекция книги для чтения и кэширования:
+ * без ссылок на сущности, поэтому её размер предсказуем,
+ * а контроллер может отдавать её клиенту как есть
+ */
+@Value
+public class BookView implements Serializable {
+  int id;
+  String title;
+  String author;
+  String categoryName;
+
+  public static BookView of(Book book) {
+    return new BookView(book.getId(), book.getTitle(), book.getAuthor(), book.getCategory().getName());
+  }
+}
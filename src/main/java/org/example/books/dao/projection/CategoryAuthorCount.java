@@ -0,0 +1,7 @@
+package org.example.books.dao.projection;
+
+/**
+ * Число книг автора в категории, для сверки счётчиков категорий с базой
+ */
+public record CategoryAuthorCount(String categoryName, String author, long books) {
+}
@@ -1,21 +1,98 @@
 package org.example.books.dao.repository;
 
 import org.example.books.dao.entity.Book;
+import org.example.books.dao.projection.BookRow;
+import org.example.books.dao.projection.BookView;
+import org.example.books.dao.projection.CategoryAuthorCount;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
- * Интерфейс репозитория сущностей "книга"
+ * Интерфейс репозитория сущностей "книга". Методы поиска вне транзакции выполняются в читающей транзакции,
+ * поэтому при заданных репликах читают из них; методы записи JpaRepository остаются пишущими
  */
+@Transactional(readOnly = true)
 public interface BookRepository extends JpaRepository<Book, Integer> {
   /**
-   * Автогенерируемый метод поиска списка книг по наименованию категории
+   * Поиск списка книг по наименованию категории, сразу в виде плоских проекций
    * @param categoryName - непустая строка наименования категории, валидируется контроллером
    * @return - список книг, соответствующих заданной категории
    */
-  List<Book> findAllByCategoryName(String categoryName);
+  @Query("select new org.example.books.dao.projection.BookView(b.id, b.title, b.author, b.category.name) " +
+      "from books b where b.category.name = :categoryName")
+  List<BookView> findAllByCategoryName(@Param("categoryName") String categoryName);
 
-  Optional<Book> findByTitleAndAuthor(String title, String author);
+  /**
+   * Потоковое чтение всех книг категории: строки читаются курсором порциями по размеру выборки JDBC,
+   * а не загружаются в память целиком. Поток нужно читать внутри транзакции и закрыть
+   * @param categoryName - наименование категории
+   * @return - поток книг категории по возрастанию id
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query("select new org.example.books.dao.projection.BookView(b.id, b.title, b.author, b.category.name) " +
+      "from books b where b.category.name = :categoryName order by b.id")
+  Stream<BookView> streamAllByCategoryName(@Param("categoryName") String categoryName);
+
+  /**
+   * Потоковое чтение всех книг, для загрузки индекса поиска. Поток нужно читать внутри транзакции и закрыть
+   * @return - поток всех книг
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query("select new org.example.books.dao.projection.BookView(b.id, b.title, b.author, b.category.name) " +
+      "from books b")
+  Stream<BookView> streamAll();
+
+  @Query("select new org.example.books.dao.projection.BookView(b.id, b.title, b.author, b.category.name) " +
+      "from books b where b.id in :ids")
+  List<BookView> findAllViewsByIdIn(@Param("ids") Collection<Integer> ids);
+
+  /**
+   * Страница книг категории по курсору (keyset): книги с id больше заданного, по возрастанию id.
+   * В отличие от смещения, стоимость запроса не растёт с номером страницы
+   * @param categoryName - наименование категории
+   * @param afterId - id последней книги предыдущей страницы, 0 для первой страницы
+   * @param pageable - задаёт только размер страницы, смещение всегда нулевое
+   * @return - книги страницы
+   */
+  @Query("select new org.example.books.dao.projection.BookView(b.id, b.title, b.author, b.category.name) " +
+      "from books b where b.category.name = :categoryName and b.id > :afterId order by b.id")
+  List<BookView> findPageByCategoryName(
+      @Param("categoryName") String categoryName, @Param("afterId") int afterId, Pageable pageable);
+
+  @Query("select new org.example.books.dao.projection.BookView(b.id, b.title, b.author, b.category.name) " +
+      "from books b where b.title = :title and b.author = :author")
+  Optional<BookView> findByTitleAndAuthor(@Param("title") String title, @Param("author") String author);
+
+  /**
+   * Книги по точным парам названия и автора одним запросом: массивы разворачиваются в пары,
+   * и каждая пара ищется по индексу названия и автора, без перебора всех сочетаний названий и авторов
+   * @param titles - названия книг
+   * @param authors - авторы книг, по одному на каждое название
+   * @return - найденные книги
+   */
+  @Query(value = "select b.id as id, b.book_title as title, b.author as author, b.category_name as categoryName " +
+      "from books b join unnest(cast(:titles as varchar[]), cast(:authors as varchar[])) as p(t, a) " +
+      "on b.book_title = p.t and b.author = p.a", nativeQuery = true)
+  List<BookRow> findAllByTitleAndAuthorPairs(@Param("titles") String[] titles, @Param("authors") String[] authors);
+
+  /**
+   * Потоковое чтение числа книг каждого автора в каждой категории, по порядку категорий,
+   * для сверки счётчиков категорий. Поток нужно читать внутри транзакции и закрыть
+   * @return - поток пар категория - автор с числом книг
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query("select new org.example.books.dao.projection.CategoryAuthorCount(b.category.name, b.author, count(b)) " +
+      "from books b group by b.category.name, b.author order by b.category.name")
+  Stream<CategoryAuthorCount> streamCategoryAuthorCounts();
 }
@@ -2,6 +2,21 @@ package org.example.books.dao.repository;
 
 import org.example.books.dao.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface CategoryRepository extends JpaRepository<Category, String> {
+  /**
+   * Создать категорию, если её ещё нет, одним атомарным запросом:
+   * одновременные вставки одной категории не приводят к ошибке уникальности
+   * @param categoryName - наименование категории
+   * @return - 1, если категория создана, 0, если она уже была
+   */
+  @Transactional
+  @Modifying
+  @Query(value = "insert into categories (category_name) values (:categoryName) on conflict do nothing",
+      nativeQuery = true)
+  int insertIfAbsent(@Param("categoryName") String categoryName);
 }
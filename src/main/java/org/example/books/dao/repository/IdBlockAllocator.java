@@ -0,0 +1,44 @@
+package org.example.books.dao.repository;
+
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+/**
+ * Выдача идентификаторов из блоков последовательности без обращения к базе на каждый id, как это делает
+ * Hibernate для сущности: значение последовательности - верхняя граница блока заданного размера.
+ * Если блок закончился у нескольких подписчиков сразу, каждый берёт свой блок, и остаток прежнего теряется
+ */
+class IdBlockAllocator {
+  private final Supplier<Mono<Long>> nextHigh;
+  private final int blockSize;
+  private long next = 1;
+  private long last = 0;
+
+  /**
+   * @param nextHigh - следующее значение последовательности
+   * @param blockSize - размер блока, шаг последовательности
+   */
+  IdBlockAllocator(Supplier<Mono<Long>> nextHigh, int blockSize) {
+    this.nextHigh = nextHigh;
+    this.blockSize = blockSize;
+  }
+
+  Mono<Integer> nextId() {
+    return Mono.defer(() -> {
+      Integer id = this.take();
+      return id != null ? Mono.just(id) : this.nextHigh.get().map(this::startBlock);
+    });
+  }
+
+  private synchronized Integer take() {
+    return this.next <= this.last ? Math.toIntExact(this.next++) : null;
+  }
+
+  private synchronized int startBlock(long high) {
+    long first = high - this.blockSize + 1;
+    this.next = first + 1;
+    this.last = high;
+    return Math.toIntExact(first);
+  }
+}
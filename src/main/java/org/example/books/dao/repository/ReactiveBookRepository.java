@@ -0,0 +1,109 @@
+package org.example.books.dao.repository;
+
+import io.r2dbc.spi.Readable;
+import org.example.books.dao.entity.Book;
+import org.example.books.dao.projection.BookView;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Неблокирующий доступ к книгам через R2DBC для API v2, запросы к тем же таблицам, что и у JPA
+ */
+@Repository
+public class ReactiveBookRepository {
+  private static final String SELECT_VIEW = "select id, book_title, author, category_name from books ";
+  /**
+   * Строк за одно обращение к базе при потоковом чтении: следующая порция запрашивается
+   * только по спросу подписчика
+   */
+  private static final int FETCH_SIZE = 500;
+
+  private final DatabaseClient databaseClient;
+  private final IdBlockAllocator idAllocator;
+
+  public ReactiveBookRepository(DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+    this.idAllocator = new IdBlockAllocator(
+        () -> databaseClient.sql("select nextval('books_seq') as high")
+            .map(row -> row.get("high", Long.class))
+            .one(),
+        Book.ID_ALLOCATION_SIZE);
+  }
+
+  public Flux<BookView> findAllByCategoryName(String categoryName) {
+    return this.databaseClient.sql(SELECT_VIEW + "where category_name = :categoryName order by id")
+        .filter(statement -> statement.fetchSize(FETCH_SIZE))
+        .bind("categoryName", categoryName)
+        .map(ReactiveBookRepository::toView)
+        .all();
+  }
+
+  public Mono<BookView> findByTitleAndAuthor(String title, String author) {
+    return this.databaseClient.sql(SELECT_VIEW + "where book_title = :title and author = :author")
+        .bind("title", title)
+        .bind("author", author)
+        .map(ReactiveBookRepository::toView)
+        .one();
+  }
+
+  public Mono<BookView> findById(int id) {
+    return this.databaseClient.sql(SELECT_VIEW + "where id = :id")
+        .bind("id", id)
+        .map(ReactiveBookRepository::toView)
+        .one();
+  }
+
+  public Mono<Void> insertCategoryIfAbsent(String categoryName) {
+    return this.databaseClient.sql("insert into categories (category_name) values (:categoryName) on conflict do nothing")
+        .bind("categoryName", categoryName)
+        .then();
+  }
+
+  /**
+   * Последовательность books_seq выдаёт блоки идентификаторов для Hibernate: значение nextval - верхняя
+   * граница блока из {@link Book#ID_ALLOCATION_SIZE} id. Вставки берут id из своего блока по одному,
+   * поэтому не пересекаются с идентификаторами, выданными JPA, и обращаются к последовательности раз на блок
+   */
+  public Mono<Integer> insert(String title, String author, String categoryName) {
+    return this.idAllocator.nextId()
+        .flatMap(id -> this.databaseClient.sql("insert into books (id, book_title, author, category_name) " +
+                "values (:id, :title, :author, :categoryName)")
+            .bind("id", id)
+            .bind("title", title)
+            .bind("author", author)
+            .bind("categoryName", categoryName)
+            .then()
+            .thenReturn(id));
+  }
+
+  public Mono<Long> update(int id, String title, String author, String categoryName) {
+    return this.databaseClient.sql(
+            "update books set book_title = :title, author = :author, category_name = :categoryName where id = :id")
+        .bind("id", id)
+        .bind("title", title)
+        .bind("author", author)
+        .bind("categoryName", categoryName)
+        .fetch()
+        .rowsUpdated();
+  }
+
+  /**
+   * @return - удалённая книга или пустой результат, если её не было
+   */
+  public Mono<BookView> deleteById(int id) {
+    return this.databaseClient.sql("delete from books where id = :id returning id, book_title, author, category_name")
+        .bind("id", id)
+        .map(ReactiveBookRepository::toView)
+        .one();
+  }
+
+  private static BookView toView(Readable row) {
+    return new BookView(
+        row.get("id", Integer.class),
+        row.get("book_title", String.class),
+        row.get("author", String.class),
+        row.get("category_name", String.class));
+  }
+}
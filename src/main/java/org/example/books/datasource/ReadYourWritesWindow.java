@@ -0,0 +1,124 @@
+package org.example.books.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.books.cache.CacheKeys;
+import org.example.books.config.properties.AppDataSourceProperties;
+import org.example.books.dao.projection.BookView;
+import org.example.books.service.event.BookChangedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Окна после записи, в которых чтения идут в основную базу: реплика может ещё не получить запись,
+ * и промах кэша, загруженный из неё, закэшировал бы старые данные под новой версией ключа.
+ * Окно открывается на ключ записанной категории или книги - своими записями и записями других узлов
+ * (по сообщениям об инвалидации кэшей) - и закрывается через read-your-writes-window после последней
+ * записи этого ключа. Чтение объявляет ключи, которые загружает, и идёт в основную базу, только
+ * если открыто окно одного из них: постоянные записи одних категорий не уводят с реплик чтения других
+ */
+@Component
+public class ReadYourWritesWindow {
+  private static final String CATEGORY_PREFIX = "category:";
+  private static final String BOOK_PREFIX = "book:";
+  /**
+   * Ключи чтения, которое всегда идёт в основную базу
+   */
+  private static final Collection<String> PRIMARY = List.of("*");
+
+  private final Cache<String, Boolean> openKeys;
+  private final ThreadLocal<Collection<String>> readKeys = new ThreadLocal<>();
+
+  public ReadYourWritesWindow(AppDataSourceProperties properties) {
+    this.openKeys = Caffeine.newBuilder()
+        .expireAfterWrite(properties.getReadYourWritesWindow())
+        .build();
+  }
+
+  public static String categoryKey(String categoryName) {
+    return CATEGORY_PREFIX + categoryName;
+  }
+
+  public static String bookKey(String title, String author) {
+    return BOOK_PREFIX + CacheKeys.titleAndAuthor(title, author);
+  }
+
+  /**
+   * Открыть окна ключей после записи или продлить их
+   * @param keys - ключи {@link #categoryKey} и {@link #bookKey}
+   */
+  public void open(Collection<String> keys) {
+    keys.forEach(key -> this.openKeys.put(key, Boolean.TRUE));
+  }
+
+  /**
+   * Выполнить чтение данных ключей: в основной базе, если окно одного из них открыто, иначе в реплике
+   * @param keys - ключи {@link #categoryKey} и {@link #bookKey}, которые загружает чтение
+   * @param read - чтение
+   */
+  public <T> T read(Collection<String> keys, Supplier<T> read) {
+    Collection<String> previous = this.readKeys.get();
+    this.readKeys.set(keys);
+    try {
+      return read.get();
+    } finally {
+      if (previous != null) {
+        this.readKeys.set(previous);
+      } else {
+        this.readKeys.remove();
+      }
+    }
+  }
+
+  /**
+   * Выполнить чтение только что записанных данных, например, изменений другого узла, в основной базе
+   */
+  public <T> T readWritten(Supplier<T> read) {
+    return this.read(PRIMARY, read);
+  }
+
+  /**
+   * @return - идёт ли текущее чтение в основную базу: его ключи записаны недавно
+   */
+  public boolean isOpen() {
+    Collection<String> keys = this.readKeys.get();
+    if (keys == null) {
+      return false;
+    }
+    if (keys == PRIMARY) {
+      return true;
+    }
+    for (String key : keys) {
+      if (this.openKeys.getIfPresent(key) != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Окна открываются после фиксации раньше сброса кэшей и смены версий ключей
+   */
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBookChanged(BookChangedEvent event) {
+    List<String> keys = new ArrayList<>(4);
+    addKeys(keys, event.before());
+    addKeys(keys, event.after());
+    this.open(keys);
+  }
+
+  private static void addKeys(List<String> keys, BookView book) {
+    if (book != null) {
+      keys.add(categoryKey(book.getCategoryName()));
+      keys.add(bookKey(book.getTitle(), book.getAuthor()));
+    }
+  }
+}
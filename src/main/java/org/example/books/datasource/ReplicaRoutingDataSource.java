@@ -0,0 +1,138 @@
+package org.example.books.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Источник соединений для читающих транзакций: реплики по кругу, пропуская недоступные.
+ * Пока открыто окно {@link ReadYourWritesWindow} ключей текущего чтения или недоступны все реплики,
+ * соединения берутся из основной базы. Доступность реплик проверяется по расписанию, первый раз - в фоне
+ * при создании: недоступная реплика не задерживает запуск на время ожидания её ответа
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements SchedulingConfigurer, AutoCloseable {
+  static final String PRIMARY = "primary";
+  private static final String REPLICA_PREFIX = "replica-";
+
+  private final List<DataSource> replicas;
+  private final ReadYourWritesWindow readYourWritesWindow;
+  private final Duration healthCheckInterval;
+  private final int healthCheckTimeoutSeconds;
+  private final AtomicIntegerArray healthy;
+  private final AtomicInteger next = new AtomicInteger();
+
+  /**
+   * @param primary - основная база
+   * @param replicas - реплики
+   * @param readYourWritesWindow - окно чтения из основной базы после записи
+   * @param healthCheckInterval - период проверки реплик
+   * @param healthCheckTimeout - время ожидания ответа реплики при проверке, не меньше секунды
+   */
+  public ReplicaRoutingDataSource(
+      DataSource primary,
+      List<DataSource> replicas,
+      ReadYourWritesWindow readYourWritesWindow,
+      Duration healthCheckInterval,
+      Duration healthCheckTimeout) {
+    this.replicas = List.copyOf(replicas);
+    this.readYourWritesWindow = readYourWritesWindow;
+    this.healthCheckInterval = healthCheckInterval;
+    this.healthCheckTimeoutSeconds = (int) Math.max(1, healthCheckTimeout.toSeconds());
+    this.healthy = new AtomicIntegerArray(replicas.size());
+    Map<Object, Object> targets = new HashMap<>();
+    targets.put(PRIMARY, primary);
+    for (int i = 0; i < this.replicas.size(); i++) {
+      targets.put(REPLICA_PREFIX + i, this.replicas.get(i));
+    }
+    this.setTargetDataSources(targets);
+    this.setDefaultTargetDataSource(primary);
+  }
+
+  /**
+   * Первая проверка реплик идёт в фоне, до её окончания чтения идут в основную базу
+   */
+  @Override
+  public void afterPropertiesSet() {
+    super.afterPropertiesSet();
+    Thread healthCheck = new Thread(this::checkHealth, "replica-health-check");
+    healthCheck.setDaemon(true);
+    healthCheck.start();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (this.readYourWritesWindow.isOpen()) {
+      return PRIMARY;
+    }
+    int count = this.replicas.size();
+    int start = Math.floorMod(this.next.getAndIncrement(), count);
+    for (int i = 0; i < count; i++) {
+      int replica = (start + i) % count;
+      if (this.healthy.get(replica) == 1) {
+        return REPLICA_PREFIX + replica;
+      }
+    }
+    return PRIMARY;
+  }
+
+  @Override
+  public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+    taskRegistrar.addFixedDelayTask(this::checkHealth, this.healthCheckInterval);
+  }
+
+  /**
+   * Проверить доступность реплик, по расписанию раз в health-check-interval
+   */
+  public void checkHealth() {
+    for (int i = 0; i < this.replicas.size(); i++) {
+      boolean available = this.isAvailable(this.replicas.get(i));
+      int previous = this.healthy.getAndSet(i, available ? 1 : 0);
+      if (available && previous == 0) {
+        log.info("Реплика {} доступна, чтения направляются в неё", REPLICA_PREFIX + i);
+      } else if (!available && previous == 1) {
+        log.warn("Реплика {} недоступна, чтения направляются в другие реплики или основную базу", REPLICA_PREFIX + i);
+      }
+    }
+  }
+
+  /**
+   * @return - число доступных реплик
+   */
+  public int getHealthyReplicas() {
+    int count = 0;
+    for (int i = 0; i < this.healthy.length(); i++) {
+      count += this.healthy.get(i);
+    }
+    return count;
+  }
+
+  @Override
+  public void close() throws Exception {
+    for (DataSource replica : this.replicas) {
+      if (replica instanceof AutoCloseable closeable) {
+        closeable.close();
+      }
+    }
+  }
+
+  private boolean isAvailable(DataSource replica) {
+    try (Connection connection = replica.getConnection()) {
+      return connection.isValid(this.healthCheckTimeoutSeconds);
+    } catch (SQLException | RuntimeException e) {
+      log.debug("Проверка реплики не удалась", e);
+      return false;
+    }
+  }
+}
@@ -2,13 +2,27 @@ package org.example.books.mapper;
 
 import org.example.books.dao.entity.Book;
 import org.example.books.dao.entity.Category;
+import org.example.books.dao.projection.BookView;
+import org.example.books.service.bulk.BookOperation;
+import org.example.books.service.bulk.BookOperationResult;
+import org.example.books.service.lookup.BookLookupKey;
+import org.example.books.service.search.BookSearchHit;
+import org.example.books.web.dto.BookBulkOperationRequest;
+import org.example.books.web.dto.BookBulkRequest;
+import org.example.books.web.dto.BookBulkResponse;
 import org.example.books.web.dto.BookListResponse;
+import org.example.books.web.dto.BookLookupRequest;
+import org.example.books.web.dto.BookLookupResponse;
+import org.example.books.web.dto.BookLookupResult;
+import org.example.books.web.dto.BookPageResponse;
 import org.example.books.web.dto.BookResponse;
+import org.example.books.web.dto.BookSearchResponse;
 import org.example.books.web.dto.BookUpsertRequest;
 import org.mapstruct.Mapper;
 import org.mapstruct.ReportingPolicy;
 
 import java.util.List;
+import java.util.Map;
 
 @Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
 public interface BookMapper {
@@ -20,6 +34,45 @@ public interface BookMapper {
     );
   }
 
+  default BookOperation requestToBookOperation(BookBulkOperationRequest request) {
+    Book book = request.getType() == BookOperation.Type.DELETE ? null : new Book(
+        request.getTitle(),
+        request.getAuthor(),
+        new Category(request.getCategoryName())
+    );
+    return new BookOperation(request.getType(), request.getId(), book);
+  }
+
+  default List<BookOperation> requestToBookOperations(BookBulkRequest request) {
+    return request.getOperations().stream().map(this::requestToBookOperation).toList();
+  }
+
+  default BookBulkResponse resultsToBookBulkResponse(List<BookOperationResult> results) {
+    return new BookBulkResponse(results);
+  }
+
+  default List<BookLookupKey> requestToBookLookupKeys(BookLookupRequest request) {
+    return request.getItems().stream()
+        .map(item -> new BookLookupKey(item.getTitle(), item.getAuthor()))
+        .toList();
+  }
+
+  /**
+   * Итог по каждому ключу запроса, в его порядке и с повторами
+   */
+  default BookLookupResponse booksToBookLookupResponse(List<BookLookupKey> keys, Map<BookLookupKey, BookView> books) {
+    return new BookLookupResponse(keys.stream()
+        .map(key -> {
+          BookView book = books.get(key);
+          return new BookLookupResult(key.title(), key.author(), book != null, book);
+        })
+        .toList());
+  }
+
+  default BookSearchResponse hitsToBookSearchResponse(List<BookSearchHit> hits) {
+    return new BookSearchResponse(hits);
+  }
+
   default BookResponse bookToBookResponse(Book book) {
     return new BookResponse(
         book.getId(),
@@ -29,9 +82,22 @@ public interface BookMapper {
     );
   }
 
-  List<BookResponse> bookListToBookResponseList(List<Book> books);
+  default BookResponse bookViewToBookResponse(BookView book) {
+    return new BookResponse(book.getId(), book.getTitle(), book.getAuthor(), book.getCategoryName());
+  }
+
+  /**
+   * Проекции уже имеют вид ответа, поэтому список отдаётся без копирования
+   */
+  default BookListResponse bookListToBookListResponse(List<BookView> books) {
+    return new BookListResponse(books);
+  }
 
-  default BookListResponse bookListToBookListResponse(List<Book> books) {
-    return new BookListResponse(this.bookListToBookResponseList(books));
+  /**
+   * Неполная страница - последняя, для неё курсор следующей страницы не задаётся
+   */
+  default BookPageResponse bookPageToBookPageResponse(List<BookView> books, int size) {
+    Integer nextAfter = books.size() < size ? null : books.get(books.size() - 1).getId();
+    return new BookPageResponse(books, nextAfter);
   }
 }
@@ -0,0 +1,10 @@
+package org.example.books.service;
+
+import org.example.books.service.bulk.BookOperation;
+import org.example.books.service.bulk.BookOperationResult;
+
+import java.util.List;
+
+public interface BookBulkService {
+  List<BookOperationResult> execute(List<BookOperation> operations);
+}
@@ -0,0 +1,148 @@
+package org.example.books.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.books.aop.Loggable;
+import org.example.books.config.properties.AppBulkProperties;
+import org.example.books.dao.entity.Book;
+import org.example.books.dao.entity.Category;
+import org.example.books.dao.projection.BookView;
+import org.example.books.dao.repository.BookRepository;
+import org.example.books.service.bulk.BookOperation;
+import org.example.books.service.bulk.BookOperationResult;
+import org.example.books.service.event.BookChangedEvent;
+import org.example.books.util.Constraints;
+import org.example.books.util.ErrorMsg;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Пакетная запись книг. Операции выполняются пачками, каждая пачка - в своей транзакции:
+ * книги пачки читаются одним запросом, каждая категория получается один раз, а вставки, изменения и удаления
+ * Hibernate отправляет пакетами JDBC при фиксации. Кэши сбрасываются один раз на пачку,
+ * по одному разу на каждую затронутую категорию
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookBulkServiceImpl implements BookBulkService {
+  private final BookRepository bookRepository;
+  private final CategoryResolver categoryResolver;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TransactionTemplate transactionTemplate;
+  private final AppBulkProperties bulkProperties;
+
+  /**
+   * Выполнить операции пачками. Ошибка пачки откатывает только её операции,
+   * остальные пачки выполняются
+   * @param operations - операции в порядке выполнения
+   * @return - итоги операций в том же порядке
+   */
+  @Override
+  @Loggable
+  public List<BookOperationResult> execute(List<BookOperation> operations) {
+    List<BookOperationResult> results = new ArrayList<>(operations.size());
+    int chunkSize = this.bulkProperties.getChunkSize();
+    for (int from = 0; from < operations.size(); from += chunkSize) {
+      List<BookOperation> chunk = operations.subList(from, Math.min(from + chunkSize, operations.size()));
+      results.addAll(this.executeChunk(chunk));
+    }
+    return results;
+  }
+
+  private List<BookOperationResult> executeChunk(List<BookOperation> chunk) {
+    try {
+      return this.transactionTemplate.execute(status -> this.applyChunk(chunk));
+    } catch (RuntimeException e) {
+      log.error("Пачка из {} операций отменена", chunk.size(), e);
+      String message = failureMessage(e);
+      return chunk.stream()
+          .map(operation -> new BookOperationResult(BookOperationResult.Status.FAILED, operation.id(), message))
+          .toList();
+    }
+  }
+
+  /**
+   * Причина отмены пачки для клиента: известные ошибки - сообщением из ErrorMsg,
+   * подробности остальных остаются только в журнале
+   */
+  private static String failureMessage(RuntimeException e) {
+    return Constraints.isViolated(e, Constraints.BOOK_TITLE_AUTHOR_UNIQUE)
+        ? ErrorMsg.BOOK_ALREADY_EXISTS
+        : ErrorMsg.BULK_CHUNK_FAILED;
+  }
+
+  private List<BookOperationResult> applyChunk(List<BookOperation> chunk) {
+    Map<String, Category> categories = this.resolveCategories(chunk);
+    Map<Integer, Book> books = this.findBooks(chunk);
+    List<BookOperationResult> results = new ArrayList<>(chunk.size());
+    for (BookOperation operation : chunk) {
+      results.add(switch (operation.type()) {
+        case CREATE -> this.create(operation.book(), categories);
+        case UPDATE -> this.update(books.get(operation.id()), operation, categories);
+        case DELETE -> this.delete(books.remove(operation.id()), operation);
+      });
+    }
+    return results;
+  }
+
+  private BookOperationResult create(Book book, Map<String, Category> categories) {
+    Category category = categories.get(book.getCategory().getName());
+    Book newBook = this.bookRepository.save(new Book(book.getTitle(), book.getAuthor(), category));
+    this.eventPublisher.publishEvent(new BookChangedEvent(null, BookView.of(newBook)));
+    return BookOperationResult.of(BookOperationResult.Status.CREATED, newBook.getId());
+  }
+
+  /**
+   * Книга уже управляется контекстом постоянства, изменения уйдут в базу при фиксации без вызова save
+   */
+  private BookOperationResult update(Book updatingBook, BookOperation operation, Map<String, Category> categories) {
+    if (updatingBook == null) {
+      return BookOperationResult.of(BookOperationResult.Status.NOT_FOUND, operation.id());
+    }
+    final BookView before = BookView.of(updatingBook);
+    updatingBook.setTitle(operation.book().getTitle());
+    updatingBook.setAuthor(operation.book().getAuthor());
+    updatingBook.setCategory(categories.get(operation.book().getCategory().getName()));
+    this.eventPublisher.publishEvent(new BookChangedEvent(before, BookView.of(updatingBook)));
+    return BookOperationResult.of(BookOperationResult.Status.UPDATED, updatingBook.getId());
+  }
+
+  private BookOperationResult delete(Book book, BookOperation operation) {
+    if (book == null) {
+      return BookOperationResult.of(BookOperationResult.Status.NOT_FOUND, operation.id());
+    }
+    this.bookRepository.delete(book);
+    this.eventPublisher.publishEvent(new BookChangedEvent(BookView.of(book), null));
+    return BookOperationResult.of(BookOperationResult.Status.DELETED, book.getId());
+  }
+
+  /**
+   * Категории пачки, каждая получается один раз на пачку
+   */
+  private Map<String, Category> resolveCategories(List<BookOperation> chunk) {
+    Set<String> names = new HashSet<>();
+    chunk.stream()
+        .filter(operation -> operation.type() != BookOperation.Type.DELETE)
+        .forEach(operation -> names.add(operation.book().getCategory().getName()));
+    return this.categoryResolver.resolveAll(names);
+  }
+
+  /**
+   * Все изменяемые и удаляемые книги пачки одним запросом
+   */
+  private Map<Integer, Book> findBooks(List<BookOperation> chunk) {
+    Set<Integer> ids = new HashSet<>();
+    chunk.stream()
+        .filter(operation -> operation.type() != BookOperation.Type.CREATE)
+        .forEach(operation -> ids.add(operation.id()));
+    Map<Integer, Book> books = new HashMap<>();
+    if (!ids.isEmpty()) {
+      this.bookRepository.findAllById(ids).forEach(book -> books.put(book.getId(), book));
+    }
+    return books;
+  }
+}
@@ -0,0 +1,11 @@
+package org.example.books.service;
+
+import org.example.books.dao.projection.BookView;
+import org.example.books.service.lookup.BookLookupKey;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface BookLookupService {
+  Map<BookLookupKey, BookView> findAllByTitleAndAuthor(Collection<BookLookupKey> keys);
+}
@@ -0,0 +1,103 @@
+package org.example.books.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.books.aop.Loggable;
+import org.example.books.cache.TwoLevelCache;
+import org.example.books.config.properties.AppCacheProperties;
+import org.example.books.dao.projection.BookView;
+import org.example.books.dao.repository.BookRepository;
+import org.example.books.datasource.ReadYourWritesWindow;
+import org.example.books.service.lookup.BookLookupKey;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Пакетный поиск книг по названию и автору через тот же кэш, что и поиск одной книги:
+ * все ключи читаются из Redis одним конвейером MGET, промахи - одним запросом к базе по точным парам,
+ * найденные в базе книги и отрицательные записи ненайденных пар записываются в кэш одним конвейером.
+ * Отрицательную запись сбрасывает создание книги с этой парой, как и любую запись кэша книги
+ */
+@Service
+@RequiredArgsConstructor
+public class BookLookupServiceImpl implements BookLookupService {
+  private final BookRepository bookRepository;
+  private final CacheManager cacheManager;
+  private final ReadYourWritesWindow readYourWritesWindow;
+
+  /**
+   * Найти книги по парам названия и автора
+   * @param keys - пары названия и автора, повторы допустимы
+   * @return - найденные книги по парам, ненайденных пар в результате нет
+   */
+  @Override
+  @Loggable
+  public Map<BookLookupKey, BookView> findAllByTitleAndAuthor(Collection<BookLookupKey> keys) {
+    Map<String, BookLookupKey> keysByCacheKey = new LinkedHashMap<>();
+    keys.forEach(key -> keysByCacheKey.put(key.cacheKey(), key));
+    Cache cache = this.cacheManager.getCache(AppCacheProperties.CacheNames.BOOK_BY_TITLE_AND_AUTHOR);
+
+    Map<BookLookupKey, BookView> books = new HashMap<>();
+    Map<Object, Object> cached = this.getAll(cache, keysByCacheKey.keySet());
+    cached.forEach((cacheKey, book) -> {
+      if (book != null) {
+        books.put(keysByCacheKey.get(cacheKey), (BookView) book);
+      }
+    });
+    List<BookLookupKey> misses = keysByCacheKey.entrySet().stream()
+        .filter(entry -> !cached.containsKey(entry.getKey()))
+        .map(Map.Entry::getValue)
+        .toList();
+    if (misses.isEmpty()) {
+      return books;
+    }
+
+    Map<String, BookView> loaded = new HashMap<>();
+    misses.forEach(key -> loaded.put(key.cacheKey(), null));
+    List<String> windowKeys = misses.stream()
+        .map(key -> ReadYourWritesWindow.bookKey(key.title(), key.author()))
+        .toList();
+    this.readYourWritesWindow.read(windowKeys, () -> this.bookRepository.findAllByTitleAndAuthorPairs(
+            misses.stream().map(BookLookupKey::title).toArray(String[]::new),
+            misses.stream().map(BookLookupKey::author).toArray(String[]::new)))
+        .forEach(row -> {
+          BookView book = row.toView();
+          BookLookupKey key = new BookLookupKey(book.getTitle(), book.getAuthor());
+          books.put(key, book);
+          loaded.put(key.cacheKey(), book);
+        });
+    this.putAll(cache, loaded);
+    return books;
+  }
+
+  /**
+   * @return - значения по ключам кэша, отрицательные записи - со значением null, промахов в результате нет
+   */
+  private Map<Object, Object> getAll(Cache cache, Collection<String> cacheKeys) {
+    if (cache instanceof TwoLevelCache twoLevelCache) {
+      return twoLevelCache.getAll(cacheKeys);
+    }
+    Map<Object, Object> values = new HashMap<>();
+    cacheKeys.forEach(cacheKey -> {
+      Cache.ValueWrapper value = cache.get(cacheKey);
+      if (value != null) {
+        values.put(cacheKey, value.get());
+      }
+    });
+    return values;
+  }
+
+  private void putAll(Cache cache, Map<String, BookView> values) {
+    if (cache instanceof TwoLevelCache twoLevelCache) {
+      twoLevelCache.putAll(values);
+    } else {
+      values.forEach(cache::put);
+    }
+  }
+}
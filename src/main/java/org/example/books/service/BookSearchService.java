@@ -0,0 +1,9 @@
+package org.example.books.service;
+
+import org.example.books.service.search.BookSearchHit;
+
+import java.util.List;
+
+public interface BookSearchService {
+  List<BookSearchHit> search(String query, int limit);
+}
@@ -0,0 +1,24 @@
+package org.example.books.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.books.aop.Loggable;
+import org.example.books.service.search.BookSearchHit;
+import org.example.books.service.search.BookSearchIndex;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Поиск книг по названию и автору в индексе в памяти процесса, без запросов к базе и кэшам
+ */
+@Service
+@RequiredArgsConstructor
+public class BookSearchServiceImpl implements BookSearchService {
+  private final BookSearchIndex bookSearchIndex;
+
+  @Override
+  @Loggable
+  public List<BookSearchHit> search(String query, int limit) {
+    return this.bookSearchIndex.search(query, limit);
+  }
+}
@@ -1,13 +1,20 @@
 package org.example.books.service;
 
 import org.example.books.dao.entity.Book;
+import org.example.books.dao.projection.BookView;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface BookService {
-  List<Book> findAllByCategoryName(String categoryName);
+  List<BookView> findAllByCategoryName(String categoryName);
 
-  Book findByTitleAndAuthor(String title, String author);
+  List<BookView> findPageByCategoryName(String categoryName, int afterId, int size);
+
+  void exportByCategoryName(String categoryName, Consumer<BookView> consumer);
+
+  Optional<BookView> findByTitleAndAuthor(String title, String author);
 
   Book create(Book book);
 
@@ -6,110 +6,141 @@ import org.example.books.aop.Loggable;
 import org.example.books.config.properties.AppCacheProperties;
 import org.example.books.dao.entity.Book;
 import org.example.books.dao.entity.Category;
+import org.example.books.dao.projection.BookView;
 import org.example.books.dao.repository.BookRepository;
-import org.example.books.dao.repository.CategoryRepository;
+import org.example.books.datasource.ReadYourWritesWindow;
+import org.example.books.service.event.BookChangedEvent;
 import org.example.books.util.ErrorMsg;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.text.MessageFormat;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
- * Главный (и единственный) сервис с кэшированием результатов в Redis
+ * Главный (и единственный) сервис с кэшированием результатов в Redis.
+ * Чтение кэшируется с sync = true: промах по ключу загружается из базы один раз, а не каждым запросом.
+ * Пишущие методы публикуют {@link BookChangedEvent}, по которому затронутые ключи кэшей
+ * сбрасываются одной пачкой после фиксации транзакции
  */
 @Service
 @RequiredArgsConstructor
 public class BookServiceImpl implements BookService {
   private final BookRepository bookRepository;
-  private final CategoryRepository categoryRepository;
+  private final CategoryResolver categoryResolver;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ReadYourWritesWindow readYourWritesWindow;
 
   /**
    * Найти все книги заданной котегории
    * и закэшировать результат с ключом - названием категории
    * @param categoryName - название категории
-   * @return - список книг заданной категории
+   * @return - список плоских проекций книг заданной категории
    */
   @Override
   @Loggable
-  @Cacheable(cacheNames = AppCacheProperties.CacheNames.BOOKS_BY_CATEGORY, key = "#categoryName")
-  public List<Book> findAllByCategoryName(String categoryName) {
-    return this.bookRepository.findAllByCategoryName(categoryName);
+  @Cacheable(cacheNames = AppCacheProperties.CacheNames.BOOKS_BY_CATEGORY, key = "#categoryName", sync = true)
+  public List<BookView> findAllByCategoryName(String categoryName) {
+    return this.readYourWritesWindow.read(List.of(ReadYourWritesWindow.categoryKey(categoryName)),
+        () -> this.bookRepository.findAllByCategoryName(categoryName));
+  }
+
+  /**
+   * Найти страницу книг заданной категории по курсору и закэшировать её отдельно.
+   * В ключ входит версия категории, поэтому изменение категории сбрасывает все её страницы
+   * @param categoryName - название категории
+   * @param afterId - id последней книги предыдущей страницы, 0 для первой страницы
+   * @param size - размер страницы
+   * @return - список плоских проекций книг страницы
+   */
+  @Override
+  @Loggable
+  @Cacheable(
+      cacheNames = AppCacheProperties.CacheNames.BOOKS_BY_CATEGORY,
+      key = "T(org.example.books.cache.CacheKeys).categoryPage(" +
+          "#categoryName, @contentVersions.categoryVersion(#categoryName), #afterId, #size)",
+      sync = true)
+  public List<BookView> findPageByCategoryName(String categoryName, int afterId, int size) {
+    return this.readYourWritesWindow.read(List.of(ReadYourWritesWindow.categoryKey(categoryName)),
+        () -> this.bookRepository.findPageByCategoryName(categoryName, afterId, PageRequest.ofSize(size)));
+  }
+
+  /**
+   * Передать все книги заданной категории потребителю по мере чтения из базы, без кэширования
+   * и без построения списка: расход памяти не зависит от размера категории
+   * @param categoryName - название категории
+   * @param consumer - потребитель книг, например, запись в ответ
+   */
+  @Override
+  @Loggable
+  @Transactional(readOnly = true)
+  public void exportByCategoryName(String categoryName, Consumer<BookView> consumer) {
+    this.readYourWritesWindow.read(List.of(ReadYourWritesWindow.categoryKey(categoryName)), () -> {
+      try (Stream<BookView> books = this.bookRepository.streamAllByCategoryName(categoryName)) {
+        books.forEach(consumer);
+      }
+      return null;
+    });
   }
 
   /**
    * Найти книгу по названию и автору
-   * и закэшировать результат с ключом название+автор
+   * и закэшировать результат с ключом название+автор. Отсутствие книги тоже кэшируется
+   * отрицательной записью, её сбрасывает создание книги с этими названием и автором
    * @param title - название
    * @param author - автор
-   * @return - найденная книга
+   * @return - плоская проекция найденной книги или пусто, если её нет
    */
   @Override
   @Loggable
   @Cacheable(
-      cacheNames = AppCacheProperties.CacheNames.BOOK_BY_TITLE_AND_AUTHOR, key = "#title + #author")
-  public Book findByTitleAndAuthor(String title, String author) {
-    return this.bookRepository.findByTitleAndAuthor(title, author)
-        .orElseThrow(() -> new EntityNotFoundException(ErrorMsg.BOOK_NOT_FOUND));
+      cacheNames = AppCacheProperties.CacheNames.BOOK_BY_TITLE_AND_AUTHOR,
+      key = "T(org.example.books.cache.CacheKeys).titleAndAuthor(#title, #author)",
+      sync = true)
+  public Optional<BookView> findByTitleAndAuthor(String title, String author) {
+    return this.readYourWritesWindow.read(List.of(ReadYourWritesWindow.bookKey(title, author)),
+        () -> this.bookRepository.findByTitleAndAuthor(title, author));
   }
 
   @Override
   @Loggable
-  @CacheEvict(value = AppCacheProperties.CacheNames.BOOKS_BY_CATEGORY, key = "#book.category.name")
+  @Transactional
   public Book create(Book book) {
-    Category category = this.findOrNew(book.getCategory().getName());
-    Book newBook = new Book(book.getTitle(), book.getAuthor(), category);
-    return this.bookRepository.save(newBook);
+    Category category = this.categoryResolver.resolve(book.getCategory().getName());
+    Book newBook = this.bookRepository.save(new Book(book.getTitle(), book.getAuthor(), category));
+    this.eventPublisher.publishEvent(new BookChangedEvent(null, BookView.of(newBook)));
+    return newBook;
   }
 
   @Override
   @Loggable
-  @Caching(evict = {
-      @CacheEvict(
-          value = AppCacheProperties.CacheNames.BOOKS_BY_CATEGORY,
-          key = "#root.target.findByIdBookOrNull(#id).category.name",
-          condition = "#root.target.findByIdBookOrNull(#id) != null",
-          beforeInvocation = true),
-      @CacheEvict(
-          value = AppCacheProperties.CacheNames.BOOK_BY_TITLE_AND_AUTHOR,
-          key = "#root.target.findByIdBookOrNull(#id).title " +
-              "+ #root.target.findByIdBookOrNull(#id).author",
-          condition = "#root.target.findByIdBookOrNull(#id) != null",
-          beforeInvocation = true)
-  })
+  @Transactional
   public Book update(Book book, int id) {
-    final Category category = this.findOrNew(book.getCategory().getName());
     Book updatingBook = this.findById(id);
+    final BookView before = BookView.of(updatingBook);
+    final Category category = this.categoryResolver.resolve(book.getCategory().getName());
     updatingBook.setTitle(book.getTitle());
     updatingBook.setAuthor(book.getAuthor());
     updatingBook.setCategory(category);
-    return this.bookRepository.save(updatingBook);
+    Book updatedBook = this.bookRepository.save(updatingBook);
+    this.eventPublisher.publishEvent(new BookChangedEvent(before, BookView.of(updatedBook)));
+    return updatedBook;
   }
 
   @Override
   @Loggable
-  @Caching(evict = {
-      @CacheEvict(
-          value = AppCacheProperties.CacheNames.BOOKS_BY_CATEGORY,
-          key = "#root.target.findByIdBookOrNull(#id).category.name",
-          condition = "#root.target.findByIdBookOrNull(#id) != null",
-          beforeInvocation = true),
-      @CacheEvict(
-          value = AppCacheProperties.CacheNames.BOOK_BY_TITLE_AND_AUTHOR,
-          key = "#root.target.findByIdBookOrNull(#id).title " +
-              "+ #root.target.findByIdBookOrNull(#id).author",
-          condition = "#root.target.findByIdBookOrNull(#id) != null",
-          beforeInvocation = true)
-  })
+  @Transactional
   public void delete(int id) {
-    this.bookRepository.deleteById(id);
-  }
-
-  @Loggable
-  public Book findByIdBookOrNull(int id) {
-    return this.bookRepository.findById(id).orElse(null);
+    this.bookRepository.findById(id).ifPresent(book -> {
+      this.bookRepository.delete(book);
+      this.eventPublisher.publishEvent(new BookChangedEvent(BookView.of(book), null));
+    });
   }
 
   @Loggable
@@ -118,13 +149,4 @@ public class BookServiceImpl implements BookService {
         MessageFormat.format(ErrorMsg.BOOK_BY_ID_NOT_FOUND, id))
     );
   }
-
-  @Loggable
-  private Category findOrNew(String categoryName) {
-    Category category = this.categoryRepository.findById(categoryName).orElse(null);
-    if (category == null) {
-      category = this.categoryRepository.save(new Category(categoryName));
-    }
-    return category;
-  }
 }
@@ -0,0 +1,12 @@
+package org.example.books.service;
+
+import org.example.books.dao.entity.Book;
+
+/**
+ * Отложенное создание книг: книги записываются в базу пачками из общей очереди
+ */
+public interface BookWriteBehindService {
+  boolean isEnabled();
+
+  Book create(Book book);
+}
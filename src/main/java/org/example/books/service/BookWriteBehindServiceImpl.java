@@ -0,0 +1,289 @@
+package org.example.books.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.books.aop.Loggable;
+import org.example.books.config.properties.AppWriteBehindProperties;
+import org.example.books.dao.entity.Book;
+import org.example.books.dao.entity.Category;
+import org.example.books.dao.projection.BookView;
+import org.example.books.dao.repository.BookRepository;
+import org.example.books.service.event.BookChangedEvent;
+import org.example.books.service.writebehind.PendingCreate;
+import org.example.books.service.writebehind.WriteQueueFullException;
+import org.example.books.service.writebehind.WriteTimeoutException;
+import org.example.books.util.ErrorMsg;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Отложенное создание книг. Запрос кладёт книгу в ограниченную очередь и ждёт, пока поток записи
+ * запишет её вместе с другими: пачка набирается до max-batch-size книг или flush-interval после первой книги
+ * и записывается одной транзакцией. Категории пачки получаются по разу на категорию, вставки уходят
+ * пакетами JDBC (с reWriteBatchedInserts - многострочными INSERT), а затронутые ключи кэшей
+ * сбрасываются по разу на пачку после фиксации. Нарушение ограничения (например, книга уже существует)
+ * откатывает пачку целиком, и тогда она делится пополам, пока ошибку не получит только запрос её книги;
+ * другие ошибки (база недоступна) получают все запросы пачки сразу. Если очередь заполнена, запрос сразу
+ * отклоняется, а если запись книги не подтверждена за write-timeout - запрос перестаёт ждать, и исход
+ * записи неизвестен. Очередь останавливается после корректного завершения запросов веб-сервера
+ */
+@Slf4j
+@Service
+public class BookWriteBehindServiceImpl implements BookWriteBehindService, SmartLifecycle {
+  private static final long IDLE_POLL_MILLIS = 100;
+
+  private final BookRepository bookRepository;
+  private final CategoryResolver categoryResolver;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TransactionTemplate transactionTemplate;
+  private final AppWriteBehindProperties properties;
+  private final BlockingQueue<PendingCreate> queue;
+  private volatile boolean running;
+  private Thread flusher;
+
+  public BookWriteBehindServiceImpl(
+      BookRepository bookRepository,
+      CategoryResolver categoryResolver,
+      ApplicationEventPublisher eventPublisher,
+      TransactionTemplate transactionTemplate,
+      AppWriteBehindProperties properties,
+      MeterRegistry meterRegistry) {
+    this.bookRepository = bookRepository;
+    this.categoryResolver = categoryResolver;
+    this.eventPublisher = eventPublisher;
+    this.transactionTemplate = transactionTemplate;
+    this.properties = properties;
+    this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+    Gauge.builder("books.write.behind.queue", this.queue, BlockingQueue::size)
+        .description("Книги, ожидающие отложенной записи")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return this.properties.isEnabled();
+  }
+
+  /**
+   * Поставить книгу в очередь и дождаться её записи не дольше write-timeout
+   * @param book - создаваемая книга
+   * @return - созданная книга
+   * @throws WriteQueueFullException - очередь заполнена или остановлена
+   * @throws WriteTimeoutException - запись книги не подтверждена за write-timeout, книга может быть записана позже
+   */
+  @Override
+  @Loggable
+  public Book create(Book book) {
+    PendingCreate pending = new PendingCreate(book);
+    if (!this.running || !this.queue.offer(pending)) {
+      throw this.queueFull();
+    }
+    // поток записи мог остановиться и опустошить очередь до того, как книга в неё попала
+    if (!this.running && this.queue.remove(pending)) {
+      throw this.queueFull();
+    }
+    try {
+      return pending.result()
+          .orTimeout(this.properties.getWriteTimeout().toNanos(), TimeUnit.NANOSECONDS)
+          .join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof TimeoutException) {
+        throw new WriteTimeoutException(ErrorMsg.WRITE_TIMEOUT);
+      }
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Останавливается после корректного завершения запросов веб-сервера, чтобы записать их книги,
+   * и запускается до приёма запросов
+   */
+  @Override
+  public int getPhase() {
+    return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1;
+  }
+
+  @Override
+  public void start() {
+    if (!this.properties.isEnabled()) {
+      return;
+    }
+    this.running = true;
+    this.flusher = new Thread(this::flushLoop, "book-write-behind");
+    this.flusher.start();
+  }
+
+  /**
+   * Новые книги больше не принимаются, уже принятые записываются до остановки
+   */
+  @Override
+  public void stop() {
+    this.running = false;
+    if (this.flusher == null) {
+      return;
+    }
+    try {
+      this.flusher.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    this.flusher = null;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return this.flusher != null;
+  }
+
+  /**
+   * Записывает книги, пока очередь не остановлена и не пуста. Если поток прерван или упал,
+   * книги, которые он уже не запишет, получают ошибку, а не ждут до истечения write-timeout
+   */
+  private void flushLoop() {
+    try {
+      while (this.running || !this.queue.isEmpty()) {
+        List<PendingCreate> batch = new ArrayList<>();
+        try {
+          batch = this.nextBatch();
+          this.flush(batch);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          this.fail(batch, e);
+          return;
+        } catch (RuntimeException | Error e) {
+          log.error("Ошибка потока отложенной записи книг", e);
+          this.fail(batch, e);
+          if (e instanceof Error) {
+            throw e;
+          }
+        }
+      }
+    } finally {
+      this.running = false;
+      List<PendingCreate> rest = new ArrayList<>();
+      this.queue.drainTo(rest);
+      if (!rest.isEmpty()) {
+        log.warn("Поток отложенной записи остановлен, {} книг не записаны", rest.size());
+        this.fail(rest, this.queueFull());
+      }
+    }
+  }
+
+  private void fail(List<PendingCreate> batch, Throwable e) {
+    batch.forEach(pending -> pending.result().completeExceptionally(e));
+  }
+
+  private WriteQueueFullException queueFull() {
+    return new WriteQueueFullException(ErrorMsg.WRITE_QUEUE_FULL, this.properties.getRetryAfter());
+  }
+
+  /**
+   * Книги очереди до max-batch-size штук или до истечения flush-interval после первой из них
+   */
+  private List<PendingCreate> nextBatch() throws InterruptedException {
+    List<PendingCreate> batch = new ArrayList<>();
+    PendingCreate first = this.queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+    if (first == null) {
+      return batch;
+    }
+    batch.add(first);
+    int maxBatchSize = this.properties.getMaxBatchSize();
+    long deadline = System.nanoTime() + this.properties.getFlushInterval().toNanos();
+    while (batch.size() < maxBatchSize) {
+      this.queue.drainTo(batch, maxBatchSize - batch.size());
+      long wait = deadline - System.nanoTime();
+      if (batch.size() >= maxBatchSize || wait <= 0) {
+        break;
+      }
+      PendingCreate next = this.queue.poll(wait, TimeUnit.NANOSECONDS);
+      if (next == null) {
+        break;
+      }
+      batch.add(next);
+    }
+    return batch;
+  }
+
+  /**
+   * Записать книги пачки, запросы которых ещё ждут. При нарушении ограничения каждая половина пачки
+   * записывается отдельно: одна неудачная книга стоит не больше 2 log2(n) транзакций вместо n.
+   * Другая ошибка не зависит от книг, и пачка не делится: её получают все запросы пачки
+   */
+  private void flush(List<PendingCreate> pendingBatch) {
+    // запросы, переставшие ждать, не записываются
+    List<PendingCreate> batch = pendingBatch.stream()
+        .filter(pending -> !pending.result().isDone())
+        .toList();
+    if (batch.isEmpty()) {
+      return;
+    }
+    List<Book> created;
+    try {
+      created = this.transactionTemplate.execute(status -> this.insert(batch));
+    } catch (DataIntegrityViolationException e) {
+      if (batch.size() == 1) {
+        batch.get(0).result().completeExceptionally(e);
+        return;
+      }
+      log.warn("Пачка из {} книг отменена, её половины записываются отдельно", batch.size(), e);
+      int half = batch.size() / 2;
+      this.flush(batch.subList(0, half));
+      this.flush(batch.subList(half, batch.size()));
+      return;
+    } catch (RuntimeException e) {
+      log.error("Пачка из {} книг не записана", batch.size(), e);
+      this.fail(batch, e);
+      return;
+    }
+    for (int i = 0; i < batch.size(); i++) {
+      batch.get(i).result().complete(created.get(i));
+    }
+  }
+
+  /**
+   * Книги одной категории идут подряд, каждая категория получается один раз
+   */
+  private List<Book> insert(List<PendingCreate> batch) {
+    Set<String> categoryNames = batch.stream()
+        .map(pending -> pending.book().getCategory().getName())
+        .collect(Collectors.toSet());
+    Map<String, Category> categories = this.categoryResolver.resolveAll(categoryNames);
+    Book[] created = new Book[batch.size()];
+    List<Integer> order = new ArrayList<>(batch.size());
+    for (int i = 0; i < batch.size(); i++) {
+      order.add(i);
+    }
+    order.sort(Comparator.comparing(i -> batch.get(i).book().getCategory().getName()));
+    for (int i : order) {
+      Book book = batch.get(i).book();
+      Book newBook = this.bookRepository.save(
+          new Book(book.getTitle(), book.getAuthor(), categories.get(book.getCategory().getName())));
+      this.eventPublisher.publishEvent(new BookChangedEvent(null, BookView.of(newBook)));
+      created[i] = newBook;
+    }
+    return List.of(created);
+  }
+}
@@ -0,0 +1,67 @@
+package org.example.books.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import org.example.books.dao.entity.Category;
+import org.example.books.dao.repository.CategoryRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Получение категории для записи книги. Имена категорий, о которых известно, что они есть в базе,
+ * хранятся в памяти процесса: для них вместо запроса берётся ссылка на сущность по ключу.
+ * Неизвестная категория создаётся одним запросом "вставить, если нет". Имя запоминается
+ * только после фиксации транзакции, чтобы откат вставки не оставил в памяти несуществующую категорию.
+ * Категории приложение не удаляет, поэтому запомненные имена не устаревают
+ */
+@Component
+@RequiredArgsConstructor
+public class CategoryResolver {
+  private static final long MAX_KNOWN_CATEGORIES = 100_000;
+
+  private final CategoryRepository categoryRepository;
+  private final Cache<String, Boolean> knownNames = Caffeine.newBuilder()
+      .maximumSize(MAX_KNOWN_CATEGORIES)
+      .build();
+
+  /**
+   * @param categoryName - наименование категории
+   * @return - ссылка на категорию, которая гарантированно есть в базе
+   */
+  public Category resolve(String categoryName) {
+    if (this.knownNames.getIfPresent(categoryName) == null) {
+      this.categoryRepository.insertIfAbsent(categoryName);
+      this.rememberAfterCommit(categoryName);
+    }
+    return this.categoryRepository.getReferenceById(categoryName);
+  }
+
+  /**
+   * @param categoryNames - наименования категорий
+   * @return - ссылки на категории по их наименованиям
+   */
+  public Map<String, Category> resolveAll(Collection<String> categoryNames) {
+    Map<String, Category> categories = new HashMap<>();
+    categoryNames.forEach(categoryName -> categories.put(categoryName, this.resolve(categoryName)));
+    return categories;
+  }
+
+  private void rememberAfterCommit(String categoryName) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      this.knownNames.put(categoryName, Boolean.TRUE);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        CategoryResolver.this.knownNames.put(categoryName, Boolean.TRUE);
+      }
+    });
+  }
+}
@@ -0,0 +1,11 @@
+package org.example.books.service;
+
+import org.example.books.service.stats.CategoryStats;
+
+import java.util.List;
+
+public interface CategoryStatsService {
+  List<CategoryStats> findAll();
+
+  CategoryStats findByCategoryName(String categoryName);
+}
@@ -0,0 +1,38 @@
+package org.example.books.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.books.aop.Loggable;
+import org.example.books.service.stats.CategoryStats;
+import org.example.books.service.stats.CategoryStatsStore;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Статистика категорий из счётчиков в Redis, без обращений к базе. Счётчики обновляются после фиксации
+ * каждой записи книг и периодически сверяются с базой
+ */
+@Service
+@RequiredArgsConstructor
+public class CategoryStatsServiceImpl implements CategoryStatsService {
+  private final CategoryStatsStore categoryStatsStore;
+
+  /**
+   * @return - статистика всех категорий, в которых есть книги, по порядку наименований
+   */
+  @Override
+  @Loggable
+  public List<CategoryStats> findAll() {
+    return this.categoryStatsStore.findAll();
+  }
+
+  /**
+   * @param categoryName - наименование категории
+   * @return - статистика категории, нулевая, если в категории нет книг
+   */
+  @Override
+  @Loggable
+  public CategoryStats findByCategoryName(String categoryName) {
+    return this.categoryStatsStore.find(categoryName);
+  }
+}
@@ -0,0 +1,18 @@
+package org.example.books.service;
+
+import org.example.books.dao.entity.Book;
+import org.example.books.dao.projection.BookView;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveBookService {
+  Flux<BookView> findAllByCategoryName(String categoryName);
+
+  Mono<BookView> findByTitleAndAuthor(String title, String author);
+
+  Mono<BookView> create(Book book);
+
+  Mono<BookView> update(Book book, int id);
+
+  Mono<Void> delete(int id);
+}
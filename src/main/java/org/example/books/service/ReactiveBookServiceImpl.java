@@ -0,0 +1,143 @@
+package org.example.books.service;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.books.aop.Loggable;
+import org.example.books.cache.CacheKeys;
+import org.example.books.cache.ReactiveBookCache;
+import org.example.books.config.properties.AppCacheProperties;
+import org.example.books.dao.entity.Book;
+import org.example.books.dao.projection.BookView;
+import org.example.books.dao.repository.ReactiveBookRepository;
+import org.example.books.service.event.BookChangedEvent;
+import org.example.books.util.ErrorMsg;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Реактивный сервис книг для API v2: база через R2DBC, кэш через реактивный клиент Redis,
+ * ни один поток не ждёт ответа базы или Redis. Кэши и их ключи общие с {@link BookServiceImpl}.
+ * После фиксации транзакции публикуется тот же {@link BookChangedEvent}, что и в API v1;
+ * его обработчики блокирующие, поэтому он публикуется на планировщике для блокирующих задач
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReactiveBookServiceImpl implements ReactiveBookService {
+  /**
+   * Категории больше этого размера отдаются потоком из базы без кэширования,
+   * чтобы не собирать их целиком в памяти
+   */
+  static final int MAX_CACHED_CATEGORY_SIZE = 10_000;
+
+  private final ReactiveBookRepository bookRepository;
+  private final ReactiveBookCache bookCache;
+  private final TransactionalOperator transactionalOperator;
+  private final ApplicationEventPublisher eventPublisher;
+
+  /**
+   * Найти все книги заданной категории: из кэша, а при промахе - потоком из базы
+   * с кэшированием списка, если категория не больше {@link #MAX_CACHED_CATEGORY_SIZE}
+   * @param categoryName - название категории
+   * @return - плоские проекции книг заданной категории
+   */
+  @Override
+  @Loggable
+  @SuppressWarnings("unchecked")
+  public Flux<BookView> findAllByCategoryName(String categoryName) {
+    return this.bookCache.get(AppCacheProperties.CacheNames.BOOKS_BY_CATEGORY, categoryName)
+        .map(cached -> Flux.fromIterable((List<BookView>) cached))
+        .defaultIfEmpty(Flux.defer(() -> this.loadAndCache(categoryName)))
+        .flatMapMany(books -> books);
+  }
+
+  /**
+   * Найти книгу по названию и автору: из кэша, а при промахе - из базы с кэшированием
+   * @param title - название
+   * @param author - автор
+   * @return - плоская проекция найденной книги
+   */
+  @Override
+  @Loggable
+  public Mono<BookView> findByTitleAndAuthor(String title, String author) {
+    String key = CacheKeys.titleAndAuthor(title, author);
+    return this.bookCache.get(AppCacheProperties.CacheNames.BOOK_BY_TITLE_AND_AUTHOR, key)
+        .cast(BookView.class)
+        .switchIfEmpty(Mono.defer(() -> this.bookRepository.findByTitleAndAuthor(title, author)
+            .flatMap(book -> this.bookCache.put(AppCacheProperties.CacheNames.BOOK_BY_TITLE_AND_AUTHOR, key, book)
+                .thenReturn(book))))
+        .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(ErrorMsg.BOOK_NOT_FOUND)));
+  }
+
+  @Override
+  @Loggable
+  public Mono<BookView> create(Book book) {
+    String categoryName = book.getCategory().getName();
+    return this.bookRepository.insertCategoryIfAbsent(categoryName)
+        .then(this.bookRepository.insert(book.getTitle(), book.getAuthor(), categoryName))
+        .map(id -> new BookView(id, book.getTitle(), book.getAuthor(), categoryName))
+        .as(this.transactionalOperator::transactional)
+        .flatMap(created -> this.publishChanged(new BookChangedEvent(null, created)).thenReturn(created));
+  }
+
+  @Override
+  @Loggable
+  public Mono<BookView> update(Book book, int id) {
+    String categoryName = book.getCategory().getName();
+    return this.bookRepository.findById(id)
+        .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(
+            MessageFormat.format(ErrorMsg.BOOK_BY_ID_NOT_FOUND, id))))
+        .flatMap(before -> this.bookRepository.insertCategoryIfAbsent(categoryName)
+            .then(this.bookRepository.update(id, book.getTitle(), book.getAuthor(), categoryName))
+            .thenReturn(new BookChangedEvent(
+                before, new BookView(id, book.getTitle(), book.getAuthor(), categoryName))))
+        .as(this.transactionalOperator::transactional)
+        .flatMap(event -> this.publishChanged(event).thenReturn(event.after()));
+  }
+
+  @Override
+  @Loggable
+  public Mono<Void> delete(int id) {
+    return this.bookRepository.deleteById(id)
+        .as(this.transactionalOperator::transactional)
+        .flatMap(deleted -> this.publishChanged(new BookChangedEvent(deleted, null)));
+  }
+
+  /**
+   * Отдаёт книги по мере чтения из базы и параллельно собирает их в список для кэша,
+   * пока категория не превысила {@link #MAX_CACHED_CATEGORY_SIZE}. Ошибка записи в кэш
+   * после отправки всех книг не прерывает ответ
+   */
+  private Flux<BookView> loadAndCache(String categoryName) {
+    List<BookView> loaded = new ArrayList<>();
+    return this.bookRepository.findAllByCategoryName(categoryName)
+        .doOnNext(book -> {
+          if (loaded.size() <= MAX_CACHED_CATEGORY_SIZE) {
+            loaded.add(book);
+          }
+        })
+        .concatWith(Mono.defer(() -> loaded.size() > MAX_CACHED_CATEGORY_SIZE
+                ? Mono.<Void>empty()
+                : this.bookCache.put(AppCacheProperties.CacheNames.BOOKS_BY_CATEGORY, categoryName, loaded))
+            .onErrorResume(e -> {
+              log.warn("Не удалось закэшировать категорию: {}", categoryName, e);
+              return Mono.empty();
+            })
+            .then(Mono.<BookView>empty()));
+  }
+
+  private Mono<Void> publishChanged(BookChangedEvent event) {
+    return Mono.fromRunnable(() -> this.eventPublisher.publishEvent(event))
+        .subscribeOn(Schedulers.boundedElastic())
+        .then();
+  }
+}
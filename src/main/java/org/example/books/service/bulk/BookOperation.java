@@ -0,0 +1,15 @@
+package org.example.books.service.bulk;
+
+import org.example.books.dao.entity.Book;
+
+/**
+ * Одна операция пакетной записи книг
+ * @param type - вид операции
+ * @param id - идентификатор книги для изменения и удаления
+ * @param book - новые значения книги для создания и изменения
+ */
+public record BookOperation(Type type, Integer id, Book book) {
+  public enum Type {
+    CREATE, UPDATE, DELETE
+  }
+}
@@ -0,0 +1,20 @@
+package org.example.books.service.bulk;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Итог одной операции пакетной записи, в порядке операций запроса
+ * @param status - итог операции
+ * @param id - идентификатор книги, если он известен
+ * @param message - причина неудачи
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BookOperationResult(Status status, Integer id, String message) {
+  public enum Status {
+    CREATED, UPDATED, DELETED, NOT_FOUND, FAILED
+  }
+
+  public static BookOperationResult of(Status status, Integer id) {
+    return new BookOperationResult(status, id, null);
+  }
+}
@@ -0,0 +1,11 @@
+package org.example.books.service.event;
+
+import org.example.books.dao.projection.BookView;
+
+/**
+ * Доменное событие изменения книги, публикуется внутри пишущей транзакции
+ * @param before - состояние книги до изменения, null при создании
+ * @param after - состояние книги после изменения, null при удалении
+ */
+public record BookChangedEvent(BookView before, BookView after) {
+}
@@ -0,0 +1,12 @@
+package org.example.books.service.lookup;
+
+import org.example.books.cache.CacheKeys;
+
+/**
+ * Название и автор книги, по которым она ищется в пакетном поиске
+ */
+public record BookLookupKey(String title, String author) {
+  public String cacheKey() {
+    return CacheKeys.titleAndAuthor(this.title, this.author);
+  }
+}
@@ -0,0 +1,11 @@
+package org.example.books.service.search;
+
+import java.util.List;
+
+/**
+ * Сообщение другим узлам об изменённых книгах, рассылаемое через Redis pub/sub
+ * @param origin - идентификатор узла-отправителя
+ * @param ids - id созданных, изменённых и удалённых книг
+ */
+public record BookSearchChangesMessage(String origin, List<Integer> ids) {
+}
@@ -0,0 +1,10 @@
+package org.example.books.service.search;
+
+import org.example.books.dao.projection.BookView;
+
+/**
+ * Найденная книга и её оценка: доля триграмм строки поиска, найденных в названии и авторе,
+ * плюс 1, если название или автор начинаются со строки поиска
+ */
+public record BookSearchHit(BookView book, double score) {
+}
@@ -0,0 +1,270 @@
+package org.example.books.service.search;
+
+import org.example.books.dao.projection.BookView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс книг в памяти процесса для поиска по началу и с опечатками в названии и авторе.
+ * Каждой триграмме нормализованного текста соответствует отсортированный массив id книг.
+ * Поиск читает только списки триграмм строки поиска, изменения книг применяются по одной.
+ * Название и автор хранятся и в нормализованном виде, чтобы поиск не нормализовал их заново
+ */
+public class BookSearchIndex {
+  private static final Comparator<BookSearchHit> RANKING = Comparator
+      .comparingDouble(BookSearchHit::score).reversed()
+      .thenComparingInt(hit -> hit.book().getTitle().length())
+      .thenComparingInt(hit -> hit.book().getId());
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<Integer, IndexedBook> books = new HashMap<>();
+  private final Map<Long, IntPostings> postings = new HashMap<>();
+  private final double minSimilarity;
+  private final int fuzzyMinLength;
+  private final int maxCandidates;
+  /**
+   * Книги, изменённые во время загрузки индекса из базы: их состояние из событий новее прочитанного из базы
+   */
+  private Set<Integer> changedWhileLoading;
+
+  /**
+   * @param minSimilarity - наименьшая доля триграмм строки поиска, которые должны найтись в книге
+   * @param fuzzyMinLength - наименьшая длина нормализованной строки поиска, с которой ищется с опечатками,
+   *                       более короткая ищется только по началу слов
+   * @param maxCandidates - наибольшее число книг, проверяемых одним поиском
+   */
+  public BookSearchIndex(double minSimilarity, int fuzzyMinLength, int maxCandidates) {
+    this.minSimilarity = minSimilarity;
+    this.fuzzyMinLength = fuzzyMinLength;
+    this.maxCandidates = maxCandidates;
+  }
+
+  /**
+   * Добавить книгу или заменить её прежнее состояние
+   */
+  public void put(BookView book) {
+    this.lock.writeLock().lock();
+    try {
+      this.markChanged(book.getId());
+      this.removeBook(book.getId());
+      this.addBook(book);
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(int id) {
+    this.lock.writeLock().lock();
+    try {
+      this.markChanged(id);
+      this.removeBook(id);
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Начать загрузку индекса из базы: с этого момента изменённые книги запоминаются,
+   * чтобы прочитанные из базы раньше изменения строки их не перезаписали
+   */
+  public void startLoading() {
+    this.lock.writeLock().lock();
+    try {
+      this.changedWhileLoading = new HashSet<>();
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Добавить пачку книг, прочитанных из базы, кроме изменённых после начала загрузки
+   */
+  public void load(Collection<BookView> loadedBooks) {
+    this.lock.writeLock().lock();
+    try {
+      for (BookView book : loadedBooks) {
+        if (!this.changedWhileLoading.contains(book.getId()) && !this.books.containsKey(book.getId())) {
+          this.addBook(book);
+        }
+      }
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Закончить загрузку и освободить запас ёмкости списков, набранный при их росте
+   */
+  public void finishLoading() {
+    this.lock.writeLock().lock();
+    try {
+      this.changedWhileLoading = null;
+      this.postings.values().forEach(IntPostings::trimToSize);
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  public int size() {
+    this.lock.readLock().lock();
+    try {
+      return this.books.size();
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Найти книги по началу или части названия и автора, с опечатками.
+   * Книга, в которой найдено не меньше minMatches из k триграмм строки поиска, обязательно есть
+   * хотя бы в одном из k - minMatches + 1 самых коротких списков, поэтому кандидаты берутся только из них,
+   * а остальные списки лишь проверяются двоичным поиском. Строка короче fuzzyMinLength должна найтись
+   * целиком, то есть кандидаты - только самый короткий список. Из кандидатов проверяются не больше
+   * maxCandidates, найденных в наибольшем числе списков
+   * @param query - строка поиска
+   * @param limit - наибольшее число книг в ответе
+   * @return - книги по убыванию оценки, при равной оценке - с более коротким названием
+   */
+  public List<BookSearchHit> search(String query, int limit) {
+    long[] trigrams = Trigrams.ofQuery(query);
+    if (trigrams.length == 0 || limit <= 0) {
+      return List.of();
+    }
+    String prefix = Trigrams.normalize(query);
+    int minMatches = prefix.length() < this.fuzzyMinLength
+        ? trigrams.length
+        : Math.max(1, (int) Math.ceil(trigrams.length * this.minSimilarity));
+    PriorityQueue<BookSearchHit> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+
+    this.lock.readLock().lock();
+    try {
+      IntPostings[] lists = new IntPostings[trigrams.length];
+      for (int i = 0; i < trigrams.length; i++) {
+        lists[i] = this.postings.getOrDefault(trigrams[i], IntPostings.EMPTY);
+      }
+      Arrays.sort(lists, Comparator.comparingInt(IntPostings::size));
+      for (int id : candidates(lists, lists.length - minMatches + 1, this.maxCandidates)) {
+        int matches = 0;
+        for (IntPostings list : lists) {
+          if (list.contains(id)) {
+            matches++;
+          }
+        }
+        if (matches < minMatches) {
+          continue;
+        }
+        IndexedBook book = this.books.get(id);
+        double score = (double) matches / trigrams.length + (book.startsWith(prefix) ? 1 : 0);
+        top.add(new BookSearchHit(book.view(), score));
+        if (top.size() > limit) {
+          top.poll();
+        }
+      }
+    } finally {
+      this.lock.readLock().unlock();
+    }
+    List<BookSearchHit> hits = new ArrayList<>(top);
+    hits.sort(RANKING);
+    return hits;
+  }
+
+  /**
+   * Различные id из первых count списков, а если их больше limit - limit id,
+   * которые есть в наибольшем числе этих списков, при равенстве - с меньшим id
+   */
+  private static int[] candidates(IntPostings[] lists, int count, int limit) {
+    int total = 0;
+    for (int i = 0; i < count; i++) {
+      total += lists[i].size();
+    }
+    int[] ids = new int[total];
+    int offset = 0;
+    for (int i = 0; i < count; i++) {
+      offset = lists[i].copyTo(ids, offset);
+    }
+    Arrays.sort(ids);
+    int[] distinct = new int[total];
+    int[] occurrences = new int[total];
+    int[] idsByOccurrences = new int[count + 1];
+    int size = 0;
+    for (int i = 0; i < total; i++) {
+      if (size > 0 && distinct[size - 1] == ids[i]) {
+        occurrences[size - 1]++;
+      } else {
+        distinct[size] = ids[i];
+        occurrences[size++] = 1;
+      }
+    }
+    if (size <= limit) {
+      return Arrays.copyOf(distinct, size);
+    }
+    for (int i = 0; i < size; i++) {
+      idsByOccurrences[occurrences[i]]++;
+    }
+    int threshold = count;
+    int taken = idsByOccurrences[count];
+    while (taken < limit) {
+      taken += idsByOccurrences[--threshold];
+    }
+    int[] selected = new int[limit];
+    int selectedSize = 0;
+    int atThreshold = limit - (taken - idsByOccurrences[threshold]);
+    for (int i = 0; i < size && selectedSize < limit; i++) {
+      if (occurrences[i] > threshold || occurrences[i] == threshold && atThreshold-- > 0) {
+        selected[selectedSize++] = distinct[i];
+      }
+    }
+    return selected;
+  }
+
+  private void markChanged(int id) {
+    if (this.changedWhileLoading != null) {
+      this.changedWhileLoading.add(id);
+    }
+  }
+
+  private void addBook(BookView book) {
+    IndexedBook indexed =
+        new IndexedBook(book, Trigrams.normalize(book.getTitle()), Trigrams.normalize(book.getAuthor()));
+    this.books.put(book.getId(), indexed);
+    for (long trigram : Trigrams.ofDocument(indexed.title(), indexed.author())) {
+      this.postings.computeIfAbsent(trigram, key -> new IntPostings(1)).add(book.getId());
+    }
+  }
+
+  private void removeBook(int id) {
+    IndexedBook book = this.books.remove(id);
+    if (book == null) {
+      return;
+    }
+    for (long trigram : Trigrams.ofDocument(book.title(), book.author())) {
+      IntPostings list = this.postings.get(trigram);
+      if (list != null) {
+        list.remove(id);
+        if (list.size() == 0) {
+          this.postings.remove(trigram);
+        }
+      }
+    }
+  }
+
+  /**
+   * Книга индекса с нормализованными названием и автором
+   */
+  private record IndexedBook(BookView view, String title, String author) {
+    boolean startsWith(String prefix) {
+      return this.title.startsWith(prefix) || this.author.startsWith(prefix);
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package org.example.books.service.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.books.dao.projection.BookView;
+import org.example.books.dao.repository.BookRepository;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Загрузка индекса поиска из базы при старте, до того как приложение сообщает о готовности принимать запросы.
+ * Книги читаются курсором и добавляются в индекс пачками
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookSearchIndexLoader implements ApplicationRunner {
+  private static final int BATCH_SIZE = 1000;
+
+  private final BookSearchIndex bookSearchIndex;
+  private final BookRepository bookRepository;
+
+  @Override
+  @Transactional(readOnly = true)
+  public void run(ApplicationArguments args) {
+    long start = System.nanoTime();
+    this.bookSearchIndex.startLoading();
+    try (Stream<BookView> books = this.bookRepository.streamAll()) {
+      List<BookView> batch = new ArrayList<>(BATCH_SIZE);
+      books.forEach(book -> {
+        batch.add(book);
+        if (batch.size() == BATCH_SIZE) {
+          this.bookSearchIndex.load(batch);
+          batch.clear();
+        }
+      });
+      this.bookSearchIndex.load(batch);
+    } finally {
+      this.bookSearchIndex.finishLoading();
+    }
+    log.info("Индекс поиска: загружено {} книг за {} мс", this.bookSearchIndex.size(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+}
@@ -0,0 +1,112 @@
+package org.example.books.service.search;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.books.config.properties.AppSearchProperties;
+import org.example.books.dao.projection.BookView;
+import org.example.books.dao.repository.BookRepository;
+import org.example.books.datasource.ReadYourWritesWindow;
+import org.example.books.service.event.BookChangedEvent;
+import org.example.books.util.AfterCommitBatcher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Поддерживает индекс поиска в актуальном состоянии. Изменения книг, сделанные этим узлом, берутся
+ * из событий и применяются после фиксации транзакции, а остальным узлам рассылаются id изменённых книг:
+ * они перечитывают эти книги из базы. Вне транзакции изменения применяются сразу
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookSearchIndexUpdater implements MessageListener {
+  private final String nodeId = UUID.randomUUID().toString();
+  private final BookSearchIndex bookSearchIndex;
+  private final BookRepository bookRepository;
+  private final ReadYourWritesWindow readYourWritesWindow;
+  private final StringRedisTemplate redisTemplate;
+  private final ObjectMapper objectMapper;
+  private final AppSearchProperties searchProperties;
+  private final AfterCommitBatcher<PendingChanges> pendingChanges =
+      new AfterCommitBatcher<>(PendingChanges::new, this::apply);
+
+  @EventListener
+  public void onBookChanged(BookChangedEvent event) {
+    this.pendingChanges.add(pending -> pending.add(event));
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    BookSearchChangesMessage changes;
+    try {
+      changes = this.objectMapper.readValue(message.getBody(), BookSearchChangesMessage.class);
+    } catch (IOException e) {
+      log.warn("Некорректное сообщение об изменении книг", e);
+      return;
+    }
+    if (this.nodeId.equals(changes.origin())) {
+      return;
+    }
+    Set<Integer> deletedIds = new HashSet<>(changes.ids());
+    // книги только что изменены другим узлом, реплики могут ещё не получить изменения
+    this.readYourWritesWindow.readWritten(() -> this.bookRepository.findAllViewsByIdIn(changes.ids()))
+        .forEach(book -> {
+          deletedIds.remove(book.getId());
+          this.bookSearchIndex.put(book);
+        });
+    deletedIds.forEach(this.bookSearchIndex::remove);
+  }
+
+  private void apply(PendingChanges pending) {
+    try {
+      pending.books.forEach((id, book) -> {
+        if (book == null) {
+          this.bookSearchIndex.remove(id);
+        } else {
+          this.bookSearchIndex.put(book);
+        }
+      });
+      this.publish(pending.books.keySet());
+    } catch (RuntimeException e) {
+      log.error("Не удалось обновить индекс поиска после фиксации транзакции: {}", pending.books.keySet(), e);
+    }
+  }
+
+  private void publish(Set<Integer> ids) {
+    try {
+      this.redisTemplate.convertAndSend(this.searchProperties.getChangesTopic(),
+          this.objectMapper.writeValueAsString(new BookSearchChangesMessage(this.nodeId, new ArrayList<>(ids))));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot serialize book search changes message", e);
+    }
+  }
+
+  /**
+   * Последнее состояние каждой книги, изменённой транзакцией, null - книга удалена
+   */
+  private static class PendingChanges {
+    private final Map<Integer, BookView> books = new LinkedHashMap<>();
+
+    void add(BookChangedEvent event) {
+      if (event.before() != null) {
+        this.books.put(event.before().getId(), null);
+      }
+      if (event.after() != null) {
+        this.books.put(event.after().getId(), event.after());
+      }
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package org.example.books.service.search;
+
+import java.util.Arrays;
+
+/**
+ * Список идентификаторов книг одной триграммы: отсортированный массив int без упаковки в Integer.
+ * Новые книги получают растущие id, поэтому добавление почти всегда идёт в конец массива
+ */
+final class IntPostings {
+  static final IntPostings EMPTY = new IntPostings(0);
+
+  private int[] ids;
+  private int size;
+
+  IntPostings(int capacity) {
+    this.ids = new int[capacity];
+  }
+
+  void add(int id) {
+    int index = Arrays.binarySearch(this.ids, 0, this.size, id);
+    if (index >= 0) {
+      return;
+    }
+    index = -index - 1;
+    if (this.size == this.ids.length) {
+      this.ids = Arrays.copyOf(this.ids, Math.max(4, this.size + (this.size >> 1)));
+    }
+    System.arraycopy(this.ids, index, this.ids, index + 1, this.size - index);
+    this.ids[index] = id;
+    this.size++;
+  }
+
+  void remove(int id) {
+    int index = Arrays.binarySearch(this.ids, 0, this.size, id);
+    if (index < 0) {
+      return;
+    }
+    System.arraycopy(this.ids, index + 1, this.ids, index, this.size - index - 1);
+    this.size--;
+  }
+
+  boolean contains(int id) {
+    return Arrays.binarySearch(this.ids, 0, this.size, id) >= 0;
+  }
+
+  int size() {
+    return this.size;
+  }
+
+  /**
+   * Скопировать идентификаторы в массив
+   * @return - позиция в массиве после скопированных идентификаторов
+   */
+  int copyTo(int[] target, int offset) {
+    System.arraycopy(this.ids, 0, target, offset, this.size);
+    return offset + this.size;
+  }
+
+  /**
+   * Убрать запас ёмкости, оставшийся после роста массива
+   */
+  void trimToSize() {
+    if (this.ids.length > this.size) {
+      this.ids = Arrays.copyOf(this.ids, this.size);
+    }
+  }
+}
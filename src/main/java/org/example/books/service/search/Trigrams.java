@@ -0,0 +1,87 @@
+package org.example.books.service.search;
+
+import java.util.Arrays;
+
+/**
+ * Нормализация текста и разбиение его на триграммы для {@link BookSearchIndex}.
+ * Триграмма из трёх символов UTF-16 кодируется одним числом long, каждое слово дополняется
+ * двумя пробелами в начале и одним в конце, как в pg_trgm: так начало слова даёт свои триграммы
+ */
+final class Trigrams {
+  private static final String WORD_START = "  ";
+  private static final String WORD_END = " ";
+
+  private Trigrams() {
+  }
+
+  /**
+   * Строчные буквы, "ё" заменена на "е", всё, кроме букв и цифр, - одиночные пробелы между словами
+   */
+  static String normalize(String text) {
+    StringBuilder normalized = new StringBuilder(text.length());
+    boolean separator = true;
+    for (int i = 0; i < text.length(); i++) {
+      char c = Character.toLowerCase(text.charAt(i));
+      if (c == 'ё') {
+        c = 'е';
+      }
+      if (Character.isLetterOrDigit(c)) {
+        normalized.append(c);
+        separator = false;
+      } else if (!separator) {
+        normalized.append(' ');
+        separator = true;
+      }
+    }
+    int length = normalized.length();
+    return separator && length > 0 ? normalized.substring(0, length - 1) : normalized.toString();
+  }
+
+  /**
+   * Различные триграммы всех слов полей книги
+   */
+  static long[] ofDocument(String... fields) {
+    StringBuilder padded = new StringBuilder();
+    for (String field : fields) {
+      for (String word : words(field)) {
+        padded.append(WORD_START).append(word).append(WORD_END).append('\0');
+      }
+    }
+    return distinct(padded);
+  }
+
+  /**
+   * Различные триграммы строки поиска. Последнее слово пользователь, возможно, ещё не дописал,
+   * поэтому у него нет триграммы конца слова и оно совпадает с началом более длинного слова
+   */
+  static long[] ofQuery(String query) {
+    String[] words = words(query);
+    StringBuilder padded = new StringBuilder();
+    for (int i = 0; i < words.length; i++) {
+      padded.append(WORD_START).append(words[i]).append(i < words.length - 1 ? WORD_END : "").append('\0');
+    }
+    return distinct(padded);
+  }
+
+  private static String[] words(String text) {
+    String normalized = normalize(text);
+    return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+  }
+
+  /**
+   * Триграммы подряд идущих слов, разделённых символом '\0', который в триграммы не попадает
+   */
+  private static long[] distinct(CharSequence padded) {
+    long[] trigrams = new long[padded.length()];
+    int count = 0;
+    for (int i = 0; i + 2 < padded.length(); i++) {
+      char c1 = padded.charAt(i);
+      char c2 = padded.charAt(i + 1);
+      char c3 = padded.charAt(i + 2);
+      if (c1 != '\0' && c2 != '\0' && c3 != '\0') {
+        trigrams[count++] = ((long) c1 << 32) | ((long) c2 << 16) | c3;
+      }
+    }
+    return Arrays.stream(trigrams, 0, count).sorted().distinct().toArray();
+  }
+}
@@ -0,0 +1,10 @@
+package org.example.books.service.stats;
+
+/**
+ * Статистика категории
+ * @param categoryName - наименование категории
+ * @param books - число книг
+ * @param authors - число разных авторов
+ */
+public record CategoryStats(String categoryName, long books, long authors) {
+}
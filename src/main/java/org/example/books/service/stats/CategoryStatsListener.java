@@ -0,0 +1,78 @@
+package org.example.books.service.stats;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.books.dao.projection.BookView;
+import org.example.books.service.event.BookChangedEvent;
+import org.example.books.util.AfterCommitBatcher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Переводит изменения книг в изменения счётчиков категорий: создание увеличивает счётчики категории
+ * и автора, удаление уменьшает, обновление переносит книгу между ними. Изменения транзакции
+ * складываются и применяются одним скриптом после фиксации, вне транзакции - сразу.
+ * Вместе с ними передаётся, где была каждая книга до транзакции: это нужно сверке
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CategoryStatsListener {
+  private final CategoryStatsStore categoryStatsStore;
+  private final AfterCommitBatcher<PendingDeltas> pendingDeltas =
+      new AfterCommitBatcher<>(PendingDeltas::new, this::apply);
+
+  @EventListener
+  public void onBookChanged(BookChangedEvent event) {
+    this.pendingDeltas.add(pending -> pending.add(event));
+  }
+
+  private void apply(PendingDeltas pending) {
+    List<CategoryStatsStore.AuthorDelta> deltas = new ArrayList<>();
+    pending.books.forEach((key, delta) -> {
+      if (delta != 0) {
+        deltas.add(new CategoryStatsStore.AuthorDelta(key.get(0), key.get(1), delta));
+      }
+    });
+    if (deltas.isEmpty()) {
+      return;
+    }
+    try {
+      this.categoryStatsStore.apply(deltas, pending.bookStarts);
+    } catch (RuntimeException e) {
+      log.error("Не удалось обновить счётчики категорий, их исправит сверка с базой: {}", deltas, e);
+    }
+  }
+
+  /**
+   * Изменения числа книг по категориям и авторам, ожидающие конца транзакции
+   */
+  private static class PendingDeltas {
+    private final Map<List<String>, Long> books = new LinkedHashMap<>();
+    private final Map<Integer, CategoryStatsStore.CategoryAuthor> bookStarts = new HashMap<>();
+
+    void add(BookChangedEvent event) {
+      BookView before = event.before();
+      int bookId = before != null ? before.getId() : event.after().getId();
+      if (!this.bookStarts.containsKey(bookId)) {
+        this.bookStarts.put(bookId, before != null
+            ? new CategoryStatsStore.CategoryAuthor(before.getCategoryName(), before.getAuthor())
+            : null);
+      }
+      this.add(before, -1);
+      this.add(event.after(), 1);
+    }
+
+    private void add(BookView book, long delta) {
+      if (book != null) {
+        this.books.merge(List.of(book.getCategoryName(), book.getAuthor()), delta, Long::sum);
+      }
+    }
+  }
+}
@@ -0,0 +1,157 @@
+package org.example.books.service.stats;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.books.config.properties.AppCategoryStatsProperties;
+import org.example.books.dao.projection.CategoryAuthorCount;
+import org.example.books.dao.repository.BookRepository;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Периодическая сверка счётчиков категорий с базой: при старте и затем раз в reconcile-interval,
+ * одним узлом за период. Число книг авторов читается из базы курсором по порядку категорий в одном снимке
+ * (repeatable read), и счётчики каждой категории заменяются данными снимка вместе с изменениями,
+ * записанными в журнал категории с начала сверки. Изменение, попавшее и в снимок, и в журнал
+ * (или применённое после замены), учтено дважды: в конце сверки места изменённых за сверку книг
+ * до первого изменения сравниваются с их местами в том же снимке, и разница снимается
+ */
+@Slf4j
+@Component
+public class CategoryStatsReconciler implements SchedulingConfigurer {
+  /**
+   * Сколько изменённых книг читать из снимка одним запросом
+   */
+  private static final int BOOK_CHUNK = 1000;
+
+  private final BookRepository bookRepository;
+  private final CategoryStatsStore categoryStatsStore;
+  private final TransactionTemplate snapshotTemplate;
+  private final AppCategoryStatsProperties properties;
+
+  public CategoryStatsReconciler(
+      BookRepository bookRepository,
+      CategoryStatsStore categoryStatsStore,
+      PlatformTransactionManager transactionManager,
+      AppCategoryStatsProperties properties) {
+    this.bookRepository = bookRepository;
+    this.categoryStatsStore = categoryStatsStore;
+    this.snapshotTemplate = new TransactionTemplate(transactionManager);
+    this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    this.properties = properties;
+  }
+
+  @Override
+  public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+    taskRegistrar.addFixedDelayTask(this::reconcileIfDue, this.properties.getReconcileInterval());
+  }
+
+  /**
+   * Сверить счётчики, если в этом периоде их ещё не сверял ни один узел
+   */
+  public void reconcileIfDue() {
+    try {
+      if (this.categoryStatsStore.tryStartReconcile(this.properties.getReconcileInterval())) {
+        this.reconcile();
+      }
+    } catch (RuntimeException e) {
+      log.error("Сверка счётчиков категорий не удалась", e);
+    }
+  }
+
+  /**
+   * Сверить счётчики всех категорий с базой. Журналирование начинается до снимка,
+   * а исправление читает места книг из того же снимка, что и счётчики
+   */
+  public void reconcile() {
+    long start = System.nanoTime();
+    Set<String> staleCategoryNames = new HashSet<>(this.categoryStatsStore.categoryNames());
+    this.categoryStatsStore.startReconcile(this.properties.getReconcileInterval());
+    Result result = this.snapshotTemplate.execute(status -> {
+      Result counts = new Result();
+      try (Stream<CategoryAuthorCount> rows = this.bookRepository.streamCategoryAuthorCounts()) {
+        String[] categoryName = {null};
+        Map<String, Long> authorBooks = new HashMap<>();
+        rows.forEach(row -> {
+          if (categoryName[0] != null && !categoryName[0].equals(row.categoryName())) {
+            counts.replaced += this.replace(categoryName[0], authorBooks);
+            authorBooks.clear();
+          }
+          categoryName[0] = row.categoryName();
+          staleCategoryNames.remove(row.categoryName());
+          authorBooks.put(row.author(), row.books());
+        });
+        if (categoryName[0] != null) {
+          counts.replaced += this.replace(categoryName[0], authorBooks);
+        }
+      }
+      staleCategoryNames.forEach(categoryName -> counts.replaced += this.replace(categoryName, Map.of()));
+      counts.corrections = this.corrections(this.categoryStatsStore.finishReconcile());
+      return counts;
+    });
+    if (!result.corrections.isEmpty()) {
+      this.categoryStatsStore.apply(result.corrections, Map.of());
+    }
+    log.info("Сверка счётчиков категорий: заменено {}, исправлено учтённых дважды {}, за {} мс",
+        result.replaced, result.corrections.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  private int replace(String categoryName, Map<String, Long> authorBooks) {
+    this.categoryStatsStore.replace(categoryName, authorBooks, this.properties.getReconcileBatchSize());
+    return 1;
+  }
+
+  /**
+   * Изменения книги, вошедшие в снимок, сдвинули её с места до первого изменения на место в снимке.
+   * Для сверенных категорий они учтены дважды, поэтому снимаются: плюс на месте до изменения,
+   * минус на месте в снимке. Изменения, которых нет в снимке, так не затрагиваются
+   */
+  private List<CategoryStatsStore.AuthorDelta> corrections(CategoryStatsStore.ReconcileJournal journal) {
+    Map<Integer, CategoryStatsStore.CategoryAuthor> snapshotPlaces = new HashMap<>();
+    List<Integer> bookIds = new ArrayList<>(journal.bookStarts().keySet());
+    for (int from = 0; from < bookIds.size(); from += BOOK_CHUNK) {
+      this.bookRepository.findAllViewsByIdIn(bookIds.subList(from, Math.min(from + BOOK_CHUNK, bookIds.size())))
+          .forEach(book -> snapshotPlaces.put(
+              book.getId(), new CategoryStatsStore.CategoryAuthor(book.getCategoryName(), book.getAuthor())));
+    }
+    Map<CategoryStatsStore.CategoryAuthor, Long> books = new HashMap<>();
+    journal.bookStarts().forEach((bookId, startPlace) -> {
+      add(books, journal.replacedCategoryNames(), startPlace, 1);
+      add(books, journal.replacedCategoryNames(), snapshotPlaces.get(bookId), -1);
+    });
+    List<CategoryStatsStore.AuthorDelta> corrections = new ArrayList<>();
+    books.forEach((place, delta) -> {
+      if (delta != 0) {
+        corrections.add(new CategoryStatsStore.AuthorDelta(place.categoryName(), place.author(), delta));
+      }
+    });
+    return corrections;
+  }
+
+  private static void add(
+      Map<CategoryStatsStore.CategoryAuthor, Long> books,
+      Set<String> replacedCategoryNames,
+      CategoryStatsStore.CategoryAuthor place,
+      long delta) {
+    if (place != null && replacedCategoryNames.contains(place.categoryName())) {
+      books.merge(place, delta, Long::sum);
+    }
+  }
+
+  private static class Result {
+    private int replaced;
+    private List<CategoryStatsStore.AuthorDelta> corrections = List.of();
+  }
+}
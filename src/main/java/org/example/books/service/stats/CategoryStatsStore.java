@@ -0,0 +1,317 @@
+package org.example.books.service.stats;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Счётчики категорий в Redis: число книг и число разных авторов каждой категории в двух хешах
+ * и число книг каждого автора категории в отдельном хеше категории. Изменения применяются скриптом Lua,
+ * поэтому счётчики одной записи меняются атомарно. Во время сверки изменения ещё не сверенных категорий
+ * складываются и в журнал категории, который сверка применяет к прочитанным из базы данным, а для каждой
+ * изменённой книги запоминается, где она была до первого изменения: по этому сверка исправляет изменения,
+ * уже учтённые в прочитанных данных. Все ключи имеют общий хеш-тег и попадают в один слот Redis Cluster
+ */
+@Component
+@RequiredArgsConstructor
+public class CategoryStatsStore {
+  private static final String KEY_PREFIX = "books:{category}:";
+  private static final String BOOKS_KEY = KEY_PREFIX + "books";
+  private static final String AUTHORS_KEY = KEY_PREFIX + "authors";
+  private static final String AUTHOR_BOOKS_PREFIX = KEY_PREFIX + "author-books:";
+  private static final String RECONCILE_LOCK_KEY = KEY_PREFIX + "reconcile";
+  private static final String RECONCILE_AUTHOR_BOOKS_PREFIX = KEY_PREFIX + "reconcile-author-books:";
+  private static final String JOURNALING_KEY = KEY_PREFIX + "journaling";
+  private static final String JOURNAL_PREFIX = KEY_PREFIX + "journal:";
+  private static final String JOURNALED_KEY = KEY_PREFIX + "journaled";
+  private static final String REPLACED_KEY = KEY_PREFIX + "replaced";
+  private static final String BOOK_STARTS_KEY = KEY_PREFIX + "book-starts";
+  /**
+   * Разделитель категории и автора в месте книги, в названиях и именах он не встречается
+   */
+  private static final char SEPARATOR = '\u001F';
+  /**
+   * KEYS: книги по категориям, авторы по категориям, признак сверки, журналируемые категории,
+   * сверенные категории, места книг до изменения, затем для каждого изменения книги авторов его категории
+   * и журнал его категории.
+   * ARGV: число изменений, тройки категория - автор - изменение числа книг, затем пары id книги - место книги
+   * до изменения. Отрицательные значения не удаляются: во время сверки они временны и снимаются исправлением
+   */
+  private static final RedisScript<Long> APPLY_SCRIPT = new DefaultRedisScript<>("""
+      local journaling = redis.call('exists', KEYS[3]) == 1
+      local count = tonumber(ARGV[1])
+      for i = 1, count do
+        local category = ARGV[3 * i - 1]
+        local author = ARGV[3 * i]
+        local delta = tonumber(ARGV[3 * i + 1])
+        local authorBooksKey = KEYS[5 + 2 * i]
+        local authorBooks = redis.call('hincrby', authorBooksKey, author, delta)
+        if authorBooks == 0 then
+          redis.call('hdel', authorBooksKey, author)
+        end
+        local authors = 0
+        if authorBooks > 0 and authorBooks - delta <= 0 then
+          authors = 1
+        elseif authorBooks <= 0 and authorBooks - delta > 0 then
+          authors = -1
+        end
+        if authors ~= 0 and redis.call('hincrby', KEYS[2], category, authors) == 0 then
+          redis.call('hdel', KEYS[2], category)
+        end
+        if redis.call('hincrby', KEYS[1], category, delta) == 0 then
+          redis.call('hdel', KEYS[1], category)
+        end
+        if journaling and redis.call('sismember', KEYS[5], category) == 0 then
+          redis.call('hincrby', KEYS[6 + 2 * i], author, delta)
+          redis.call('sadd', KEYS[4], category)
+        end
+      end
+      if journaling then
+        for i = 3 * count + 2, #ARGV, 2 do
+          redis.call('hsetnx', KEYS[6], ARGV[i], ARGV[i + 1])
+        end
+      end
+      return 0""", Long.class);
+  /**
+   * KEYS: книги по категориям, авторы по категориям, сверенные категории, книги авторов категории,
+   * книги авторов категории по данным сверки (может отсутствовать), журнал категории.
+   * ARGV: категория, число книг, число авторов по данным сверки
+   */
+  private static final RedisScript<Long> REPLACE_SCRIPT = new DefaultRedisScript<>("""
+      local books = tonumber(ARGV[2])
+      local authors = tonumber(ARGV[3])
+      local journal = redis.call('hgetall', KEYS[6])
+      for i = 1, #journal, 2 do
+        local delta = tonumber(journal[i + 1])
+        if delta ~= 0 then
+          local authorBooks = redis.call('hincrby', KEYS[5], journal[i], delta)
+          if authorBooks == 0 then
+            redis.call('hdel', KEYS[5], journal[i])
+          end
+          if authorBooks > 0 and authorBooks - delta <= 0 then
+            authors = authors + 1
+          elseif authorBooks <= 0 and authorBooks - delta > 0 then
+            authors = authors - 1
+          end
+          books = books + delta
+        end
+      end
+      if redis.call('exists', KEYS[5]) == 1 then
+        redis.call('rename', KEYS[5], KEYS[4])
+      else
+        redis.call('del', KEYS[4])
+      end
+      if books ~= 0 then
+        redis.call('hset', KEYS[1], ARGV[1], books)
+      else
+        redis.call('hdel', KEYS[1], ARGV[1])
+      end
+      if authors ~= 0 then
+        redis.call('hset', KEYS[2], ARGV[1], authors)
+      else
+        redis.call('hdel', KEYS[2], ARGV[1])
+      end
+      redis.call('del', KEYS[6])
+      redis.call('sadd', KEYS[3], ARGV[1])
+      return 1""", Long.class);
+  /**
+   * KEYS: признак сверки, журналируемые категории, сверенные категории, места книг до изменения.
+   * ARGV: время жизни признака сверки в миллисекундах
+   */
+  private static final RedisScript<Long> START_RECONCILE_SCRIPT = new DefaultRedisScript<>("""
+      redis.call('del', KEYS[2], KEYS[3], KEYS[4])
+      redis.call('set', KEYS[1], '1', 'PX', ARGV[1])
+      return 1""", Long.class);
+  /**
+   * KEYS: признак сверки, журналируемые категории, сверенные категории, места книг до изменения
+   */
+  @SuppressWarnings("rawtypes")
+  private static final RedisScript<List> FINISH_RECONCILE_SCRIPT = new DefaultRedisScript<>("""
+      local result = {redis.call('smembers', KEYS[2]), redis.call('smembers', KEYS[3]), redis.call('hgetall', KEYS[4])}
+      redis.call('del', KEYS[1], KEYS[2], KEYS[3], KEYS[4])
+      return result""", List.class);
+
+  private final StringRedisTemplate redisTemplate;
+
+  /**
+   * Применить изменения книг одной транзакции
+   * @param deltas - изменения числа книг по категориям и авторам
+   * @param bookStarts - места изменённых книг до транзакции по id книг, null - книги не было
+   */
+  void apply(Collection<AuthorDelta> deltas, Map<Integer, CategoryAuthor> bookStarts) {
+    List<String> keys = new ArrayList<>(6 + deltas.size() * 2);
+    keys.addAll(List.of(BOOKS_KEY, AUTHORS_KEY, JOURNALING_KEY, JOURNALED_KEY, REPLACED_KEY, BOOK_STARTS_KEY));
+    List<String> args = new ArrayList<>(1 + deltas.size() * 3 + bookStarts.size() * 2);
+    args.add(String.valueOf(deltas.size()));
+    deltas.forEach(delta -> {
+      keys.add(AUTHOR_BOOKS_PREFIX + delta.categoryName());
+      keys.add(JOURNAL_PREFIX + delta.categoryName());
+      args.add(delta.categoryName());
+      args.add(delta.author());
+      args.add(String.valueOf(delta.books()));
+    });
+    bookStarts.forEach((bookId, start) -> {
+      args.add(String.valueOf(bookId));
+      args.add(start != null ? start.categoryName() + SEPARATOR + start.author() : "");
+    });
+    this.redisTemplate.execute(APPLY_SCRIPT, keys, args.toArray());
+  }
+
+  /**
+   * @return - статистика всех категорий, в которых есть книги, по порядку наименований
+   */
+  public List<CategoryStats> findAll() {
+    Map<String, String> books = this.entries(BOOKS_KEY);
+    Map<String, String> authors = this.entries(AUTHORS_KEY);
+    return books.entrySet().stream()
+        .filter(entry -> parseCount(entry.getValue()) > 0)
+        .map(entry -> new CategoryStats(
+            entry.getKey(), parseCount(entry.getValue()), parseCount(authors.get(entry.getKey()))))
+        .sorted(Comparator.comparing(CategoryStats::categoryName))
+        .toList();
+  }
+
+  /**
+   * @return - статистика категории, нулевая, если в категории нет книг
+   */
+  public CategoryStats find(String categoryName) {
+    byte[] rawCategoryName = categoryName.getBytes(StandardCharsets.UTF_8);
+    List<Object> values = this.redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+      connection.hashCommands().hGet(BOOKS_KEY.getBytes(StandardCharsets.UTF_8), rawCategoryName);
+      connection.hashCommands().hGet(AUTHORS_KEY.getBytes(StandardCharsets.UTF_8), rawCategoryName);
+      return null;
+    });
+    return new CategoryStats(categoryName, parseCount((String) values.get(0)), parseCount((String) values.get(1)));
+  }
+
+  /**
+   * Взять право на сверку для всех узлов на заданное время
+   */
+  boolean tryStartReconcile(Duration interval) {
+    return Boolean.TRUE.equals(
+        this.redisTemplate.opsForValue().setIfAbsent(RECONCILE_LOCK_KEY, "1", interval));
+  }
+
+  /**
+   * Начать журналировать изменения: вызывается до чтения базы. Журналы прерванной сверки удаляются
+   * @param timeout - через сколько журналирование прекратится, если сверка не завершится
+   */
+  void startReconcile(Duration timeout) {
+    Set<String> leftovers = this.redisTemplate.opsForSet().members(JOURNALED_KEY);
+    if (leftovers != null && !leftovers.isEmpty()) {
+      this.redisTemplate.delete(leftovers.stream().map(categoryName -> JOURNAL_PREFIX + categoryName).toList());
+    }
+    this.redisTemplate.execute(
+        START_RECONCILE_SCRIPT,
+        List.of(JOURNALING_KEY, JOURNALED_KEY, REPLACED_KEY, BOOK_STARTS_KEY),
+        String.valueOf(timeout.toMillis()));
+  }
+
+  /**
+   * Заменить счётчики категории данными из базы и изменениями из журнала категории,
+   * дальше изменения категории применяются без журнала
+   * @param categoryName - категория
+   * @param authorBooks - число книг каждого автора категории, пусто - в категории нет книг
+   * @param batchSize - сколько авторов записывать одной командой
+   */
+  void replace(String categoryName, Map<String, Long> authorBooks, int batchSize) {
+    String reconcileKey = RECONCILE_AUTHOR_BOOKS_PREFIX + categoryName;
+    this.redisTemplate.delete(reconcileKey);
+    Map<String, String> batch = new HashMap<>();
+    long books = 0;
+    for (Map.Entry<String, Long> entry : authorBooks.entrySet()) {
+      books += entry.getValue();
+      batch.put(entry.getKey(), String.valueOf(entry.getValue()));
+      if (batch.size() == batchSize) {
+        this.redisTemplate.opsForHash().putAll(reconcileKey, batch);
+        batch.clear();
+      }
+    }
+    if (!batch.isEmpty()) {
+      this.redisTemplate.opsForHash().putAll(reconcileKey, batch);
+    }
+    this.redisTemplate.execute(
+        REPLACE_SCRIPT,
+        List.of(BOOKS_KEY, AUTHORS_KEY, REPLACED_KEY, AUTHOR_BOOKS_PREFIX + categoryName, reconcileKey,
+            JOURNAL_PREFIX + categoryName),
+        categoryName, String.valueOf(books), String.valueOf(authorBooks.size()));
+  }
+
+  /**
+   * Прекратить журналирование и забрать то, что нужно для исправления сверенных категорий
+   * @return - сверенные категории и места книг, изменённых за время сверки, до их первого изменения
+   */
+  @SuppressWarnings("unchecked")
+  ReconcileJournal finishReconcile() {
+    List<Object> result = this.redisTemplate.execute(
+        FINISH_RECONCILE_SCRIPT, List.of(JOURNALING_KEY, JOURNALED_KEY, REPLACED_KEY, BOOK_STARTS_KEY));
+    Set<String> journaled = new HashSet<>((List<String>) result.get(0));
+    Set<String> replaced = new HashSet<>((List<String>) result.get(1));
+    journaled.removeAll(replaced);
+    if (!journaled.isEmpty()) {
+      this.redisTemplate.delete(journaled.stream().map(categoryName -> JOURNAL_PREFIX + categoryName).toList());
+    }
+    List<String> starts = (List<String>) result.get(2);
+    Map<Integer, CategoryAuthor> bookStarts = new HashMap<>();
+    for (int i = 0; i < starts.size(); i += 2) {
+      String start = starts.get(i + 1);
+      int separatorIndex = start.indexOf(SEPARATOR);
+      bookStarts.put(Integer.valueOf(starts.get(i)), separatorIndex < 0
+          ? null
+          : new CategoryAuthor(start.substring(0, separatorIndex), start.substring(separatorIndex + 1)));
+    }
+    return new ReconcileJournal(replaced, bookStarts);
+  }
+
+  /**
+   * @return - категории, у которых в Redis есть счётчики
+   */
+  Set<String> categoryNames() {
+    return this.entries(BOOKS_KEY).keySet();
+  }
+
+  private Map<String, String> entries(String key) {
+    return this.redisTemplate.<String, String>opsForHash().entries(key);
+  }
+
+  /**
+   * Отрицательные значения бывают только во время сверки и читаются как нулевые
+   */
+  private static long parseCount(String value) {
+    return value != null ? Math.max(0, Long.parseLong(value)) : 0;
+  }
+
+  /**
+   * Изменение числа книг автора в категории
+   */
+  record AuthorDelta(String categoryName, String author, long books) {
+  }
+
+  /**
+   * Место книги: категория и автор
+   */
+  record CategoryAuthor(String categoryName, String author) {
+  }
+
+  /**
+   * Итог журналирования сверки
+   * @param replacedCategoryNames - категории, счётчики которых заменены данными из базы
+   * @param bookStarts - места книг, изменённых за время сверки, до первого изменения, null - книги не было
+   */
+  record ReconcileJournal(Set<String> replacedCategoryNames, Map<Integer, CategoryAuthor> bookStarts) {
+  }
+}
@@ -0,0 +1,16 @@
+package org.example.books.service.writebehind;
+
+import org.example.books.dao.entity.Book;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Книга, ожидающая записи в очереди
+ * @param book - создаваемая книга
+ * @param result - созданная книга или ошибка её записи
+ */
+public record PendingCreate(Book book, CompletableFuture<Book> result) {
+  public PendingCreate(Book book) {
+    this(book, new CompletableFuture<>());
+  }
+}
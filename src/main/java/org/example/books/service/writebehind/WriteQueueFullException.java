@@ -0,0 +1,21 @@
+package org.example.books.service.writebehind;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Очередь отложенной записи заполнена или остановлена: запрос нужно повторить позже
+ */
+@Getter
+public class WriteQueueFullException extends RuntimeException {
+  /**
+   * Через сколько повторить запрос
+   */
+  private final Duration retryAfter;
+
+  public WriteQueueFullException(String message, Duration retryAfter) {
+    super(message);
+    this.retryAfter = retryAfter;
+  }
+}
@@ -0,0 +1,11 @@
+package org.example.books.service.writebehind;
+
+/**
+ * Запись книги не подтверждена за write-timeout: запрос больше не ждёт, а исход записи неизвестен -
+ * книга, уже взятая в пачку, может быть записана позже
+ */
+public class WriteTimeoutException extends RuntimeException {
+  public WriteTimeoutException(String message) {
+    super(message);
+  }
+}
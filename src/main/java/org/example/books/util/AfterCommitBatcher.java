@@ -0,0 +1,61 @@
+package org.example.books.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Складывает изменения текущей транзакции в один пакет и выполняет его после фиксации транзакции,
+ * после отката пакет отбрасывается. Вне транзакции пакет из одного изменения выполняется сразу
+ * @param <B> - пакет изменений
+ */
+public class AfterCommitBatcher<B> {
+  private final Supplier<B> newBatch;
+  private final Consumer<B> flush;
+
+  /**
+   * @param newBatch - создаёт пустой пакет
+   * @param flush - выполняет пакет, сам обрабатывая свои ошибки: после фиксации их уже некому вернуть
+   */
+  public AfterCommitBatcher(Supplier<B> newBatch, Consumer<B> flush) {
+    this.newBatch = newBatch;
+    this.flush = flush;
+  }
+
+  /**
+   * @param change - добавляет изменение в пакет
+   */
+  public void add(Consumer<B> change) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      B batch = this.newBatch.get();
+      change.accept(batch);
+      this.flush.accept(batch);
+      return;
+    }
+    change.accept(this.pending());
+  }
+
+  @SuppressWarnings("unchecked")
+  private B pending() {
+    B pending = (B) TransactionSynchronizationManager.getResource(this);
+    if (pending == null) {
+      B batch = this.newBatch.get();
+      TransactionSynchronizationManager.bindResource(this, batch);
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          AfterCommitBatcher.this.flush.accept(batch);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+          TransactionSynchronizationManager.unbindResourceIfPossible(AfterCommitBatcher.this);
+        }
+      });
+      pending = batch;
+    }
+    return pending;
+  }
+}
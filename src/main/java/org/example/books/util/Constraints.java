@@ -0,0 +1,30 @@
+package org.example.books.util;
+
+import lombok.experimental.UtilityClass;
+import org.hibernate.exception.ConstraintViolationException;
+
+/**
+ * Имена ограничений схемы, нарушение которых означает ошибку клиента, а не сервера
+ */
+@UtilityClass
+public class Constraints {
+  public static final String BOOK_TITLE_AUTHOR_UNIQUE = "uq_books_title_author";
+
+  /**
+   * @param e - исключение записи в базу
+   * @param constraintName - имя ограничения
+   * @return - нарушено ли именно это ограничение: имя ищется в причинах исключения
+   */
+  public static boolean isViolated(Throwable e, String constraintName) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause() != cause ? cause.getCause() : null) {
+      if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+        if (constraintName.equalsIgnoreCase(violation.getConstraintName())) {
+          return true;
+        }
+      } else if (cause.getMessage() != null && cause.getMessage().contains(constraintName)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
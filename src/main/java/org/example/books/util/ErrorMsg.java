@@ -8,7 +8,7 @@ import lombok.experimental.UtilityClass;
 @UtilityClass
 public class ErrorMsg {
   public static final String NO_RESOURCE_FOUND = "Ресурс не найден!";
-  public static final String INTERNAL_SERVER_ERROR = "Внутренняя ошибка сервера:  : {}";
+  public static final String INTERNAL_SERVER_ERROR = "Внутренняя ошибка сервера: {0}";
   public static final String CATEGORY_EMPTY = "Название категории должно быть задано!";
   public static final String CATEGORY_LENGTH_INVALID = "Размер наименования категории должен быть от {min} до {max} символов!";
   public static final String TITLE_EMPTY = "Название книги должно быть задано!";
@@ -16,6 +16,22 @@ public class ErrorMsg {
   public static final String AUTHOR_EMPTY = "Имя автора должно быть задано!";
   public static final String AUTHOR_LENGTH_INVALID = "Размер имени автора должен быть от {min} до {max} символов!";
   public static final String ID_NEGATIVE = "Идентификатор должен быть положительным числом!";
+  public static final String CURSOR_NEGATIVE = "Курсор страницы не может быть отрицательным!";
+  public static final String PAGE_SIZE_INVALID = "Размер страницы должен быть положительным числом!";
+  public static final String BULK_SIZE_INVALID = "Число операций должно быть от {min} до {max}!";
+  public static final String BULK_OPERATION_TYPE_EMPTY = "Вид операции должен быть задан!";
+  public static final String BULK_OPERATION_INVALID =
+      "Для CREATE нужны title, author, categoryName, для UPDATE - они же и id, для DELETE - id!";
+  public static final String BULK_CHUNK_FAILED = "Пачка операций отменена из-за внутренней ошибки сервера!";
+  public static final String LOOKUP_SIZE_INVALID = "Число искомых книг должно быть от {min} до {max}!";
+  public static final String SEARCH_QUERY_EMPTY = "Строка поиска должна быть задана!";
+  public static final String SEARCH_QUERY_LENGTH_INVALID = "Размер строки поиска должен быть от {min} до {max} символов!";
+  public static final String SEARCH_LIMIT_INVALID = "Число найденных книг должно быть положительным числом!";
+  public static final String BOOK_ALREADY_EXISTS = "Книга с таким названием и автором уже существует!";
   public static final String BOOK_NOT_FOUND = "Книга по названию и автору не найдена!";
-  public static final String BOOK_BY_ID_NOT_FOUND = "Книга с id {} не найдена!";
+  public static final String WRITE_QUEUE_FULL = "Слишком много запросов на создание книг, повторите позже!";
+  public static final String WRITE_TIMEOUT =
+      "Запись книги не подтверждена за отведённое время, она может быть создана позже: " +
+          "проверьте, создана ли она, прежде чем повторить запрос!";
+  public static final String BOOK_BY_ID_NOT_FOUND = "Книга с id {0} не найдена!";
 }
@@ -13,4 +13,6 @@ public class StringSizes {
   public static final int AUTHOR_MAX = 64;
   public static final int CATEGORY_MIN = 2;
   public static final int CATEGORY_MAX = 32;
+  public static final int SEARCH_QUERY_MIN = 2;
+  public static final int SEARCH_QUERY_MAX = 128;
 }
@@ -3,10 +3,15 @@ package org.example.books.web.controller.core;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.example.books.aop.Loggable;
+import org.example.books.service.writebehind.WriteQueueFullException;
+import org.example.books.service.writebehind.WriteTimeoutException;
+import org.example.books.util.Constraints;
 import org.example.books.util.ErrorMsg;
 import org.example.books.web.dto.ErrorMsgResponse;
 import org.springframework.context.MessageSourceResolvable;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -47,6 +52,40 @@ public class ExceptionHandlerController {
         .body(new ErrorMsgResponse(ErrorMsg.BOOK_NOT_FOUND));
   }
 
+  @Loggable
+  @ExceptionHandler(DataIntegrityViolationException.class)
+  public ResponseEntity<ErrorMsgResponse> conflict(DataIntegrityViolationException e) {
+    if (!Constraints.isViolated(e, Constraints.BOOK_TITLE_AUTHOR_UNIQUE)) {
+      return this.serverError(e);
+    }
+
+    log.error("ExceptionHandlerController.conflict():", e);
+
+    return ResponseEntity.status(HttpStatus.CONFLICT)
+        .body(new ErrorMsgResponse(ErrorMsg.BOOK_ALREADY_EXISTS));
+  }
+
+  @Loggable
+  @ExceptionHandler(WriteQueueFullException.class)
+  public ResponseEntity<ErrorMsgResponse> serviceUnavailable(WriteQueueFullException e) {
+
+    log.warn("ExceptionHandlerController.serviceUnavailable(): {}", e.getMessage());
+
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+        .body(new ErrorMsgResponse(e.getMessage()));
+  }
+
+  @Loggable
+  @ExceptionHandler(WriteTimeoutException.class)
+  public ResponseEntity<ErrorMsgResponse> writeTimeout(WriteTimeoutException e) {
+
+    log.warn("ExceptionHandlerController.writeTimeout(): {}", e.getMessage());
+
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .body(new ErrorMsgResponse(e.getMessage()));
+  }
+
   @Loggable
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ResponseEntity<ErrorMsgResponse> badRequest(MethodArgumentNotValidException e) {
@@ -92,6 +131,6 @@ public class ExceptionHandlerController {
 
     return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
         .body(new ErrorMsgResponse(
-            MessageFormat.format(ErrorMsg.INTERNAL_SERVER_ERROR, e.getClass(), e.getMessage())));
+            MessageFormat.format(ErrorMsg.INTERNAL_SERVER_ERROR, e.getClass().getSimpleName())));
   }
 }
@@ -1,5 +1,9 @@
 package org.example.books.web.controller.v1;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -7,34 +11,73 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.example.books.aop.Loggable;
+import org.example.books.cache.CacheAccessStats;
+import org.example.books.cache.CacheKeys;
+import org.example.books.config.properties.AppCacheProperties;
+import org.example.books.config.properties.AppPaginationProperties;
+import org.example.books.config.properties.AppSearchProperties;
 import org.example.books.dao.entity.Book;
+import org.example.books.dao.projection.BookView;
 import org.example.books.mapper.BookMapper;
+import org.example.books.service.BookBulkService;
+import org.example.books.service.BookLookupService;
+import org.example.books.service.BookSearchService;
 import org.example.books.service.BookService;
+import org.example.books.service.BookWriteBehindService;
+import org.example.books.service.bulk.BookOperationResult;
+import org.example.books.service.lookup.BookLookupKey;
+import org.example.books.service.search.BookSearchHit;
 import org.example.books.util.ErrorMsg;
 import org.example.books.util.StringSizes;
+import org.example.books.web.dto.BookBulkRequest;
+import org.example.books.web.dto.BookBulkResponse;
 import org.example.books.web.dto.BookListResponse;
+import org.example.books.web.dto.BookLookupRequest;
+import org.example.books.web.dto.BookLookupResponse;
+import org.example.books.web.dto.BookPageResponse;
 import org.example.books.web.dto.BookResponse;
+import org.example.books.web.dto.BookSearchResponse;
 import org.example.books.web.dto.BookUpsertRequest;
 import org.example.books.web.dto.ErrorMsgResponse;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/book")
 @RequiredArgsConstructor
 @Tag(name = "Книги 1.0", description = "Управление книгами 1.0")
 public class BookController {
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
   private final BookService bookService;
+  private final BookBulkService bookBulkService;
+  private final BookLookupService bookLookupService;
+  private final BookSearchService bookSearchService;
+  private final BookWriteBehindService bookWriteBehindService;
+  private final CacheAccessStats cacheAccessStats;
   private final BookMapper bookMapper;
+  private final AppPaginationProperties paginationProperties;
+  private final AppSearchProperties searchProperties;
+  private final ObjectMapper objectMapper;
 
   @Operation(
       summary = "Получить список книг заданной категории.",
@@ -43,6 +86,7 @@ public class BookController {
   @ApiResponse(
       responseCode = "200",
       content = {@Content(schema = @Schema(implementation = BookListResponse.class), mediaType = "application/json")})
+  @ApiResponse(responseCode = "304", description = "Список не изменился с версии из If-None-Match.")
   @ApiResponse(
       responseCode = "400",
       content = {@Content(schema = @Schema(implementation = ErrorMsgResponse.class), mediaType = "application/json")})
@@ -51,12 +95,111 @@ public class BookController {
   public ResponseEntity<BookListResponse> findAllByCategory(
       @PathVariable @NotBlank(message = ErrorMsg.CATEGORY_EMPTY)
       @Size(min = StringSizes.CATEGORY_MIN, max = StringSizes.CATEGORY_MAX, message = ErrorMsg.CATEGORY_LENGTH_INVALID)
-      String categoryName) {
-    List<Book> books = this.bookService.findAllByCategoryName(categoryName);
+      String categoryName,
+      WebRequest webRequest) {
+    this.cacheAccessStats.record(AppCacheProperties.CacheNames.BOOKS_BY_CATEGORY, categoryName);
+    List<BookView> books = this.bookService.findAllByCategoryName(categoryName);
+    if (webRequest.checkNotModified(eTag("list", books))) {
+      return null;
+    }
     BookListResponse response = this.bookMapper.bookListToBookListResponse(books);
     return ResponseEntity.ok(response);
   }
 
+  @Operation(
+      summary = "Выгрузить все книги заданной категории потоком NDJSON.",
+      description = "Возвращает книги категории по одной в строке, по мере чтения из базы. " +
+          "Выбирается заголовком Accept: application/x-ndjson.")
+  @Parameter(name = "categoryName", required = true, in = ParameterIn.PATH, description = "Категория книг.")
+  @ApiResponse(
+      responseCode = "200",
+      content = {@Content(schema = @Schema(implementation = BookView.class), mediaType = MediaType.APPLICATION_NDJSON_VALUE)})
+  @Loggable
+  @GetMapping(value = "/{categoryName}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> exportByCategory(
+      @PathVariable @NotBlank(message = ErrorMsg.CATEGORY_EMPTY)
+      @Size(min = StringSizes.CATEGORY_MIN, max = StringSizes.CATEGORY_MAX, message = ErrorMsg.CATEGORY_LENGTH_INVALID)
+      String categoryName) {
+    ObjectWriter writer = this.objectMapper.writer()
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+        .withRootValueSeparator("");
+    StreamingResponseBody body = outputStream -> {
+      try (JsonGenerator generator = writer.createGenerator(outputStream)
+          .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+        this.bookService.exportByCategoryName(categoryName, book -> {
+          try {
+            writer.writeValue(generator, book);
+            generator.writeRaw('\n');
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+      }
+    };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
+  @Operation(
+      summary = "Получить страницу книг заданной категории.",
+      description = "Возвращает книги категории с id больше курсора after, по возрастанию id, " +
+          "и курсор следующей страницы nextAfter (отсутствует на последней странице).")
+  @Parameter(name = "categoryName", required = true, in = ParameterIn.PATH, description = "Категория книг.")
+  @Parameter(name = "after", required = true, in = ParameterIn.QUERY, description = "Курсор, 0 для первой страницы.")
+  @Parameter(name = "size", in = ParameterIn.QUERY, description = "Размер страницы.")
+  @ApiResponse(
+      responseCode = "200",
+      content = {@Content(schema = @Schema(implementation = BookPageResponse.class), mediaType = "application/json")})
+  @ApiResponse(responseCode = "304", description = "Страница не изменилась с версии из If-None-Match.")
+  @ApiResponse(
+      responseCode = "400",
+      content = {@Content(schema = @Schema(implementation = ErrorMsgResponse.class), mediaType = "application/json")})
+  @Loggable
+  @GetMapping(value = "/{categoryName}", params = "after")
+  public ResponseEntity<BookPageResponse> findPageByCategory(
+      @PathVariable @NotBlank(message = ErrorMsg.CATEGORY_EMPTY)
+      @Size(min = StringSizes.CATEGORY_MIN, max = StringSizes.CATEGORY_MAX, message = ErrorMsg.CATEGORY_LENGTH_INVALID)
+      String categoryName,
+      @RequestParam @PositiveOrZero(message = ErrorMsg.CURSOR_NEGATIVE) int after,
+      @RequestParam(required = false) @Positive(message = ErrorMsg.PAGE_SIZE_INVALID) Integer size,
+      WebRequest webRequest) {
+    int pageSize = Math.min(
+        size != null ? size : this.paginationProperties.getDefaultSize(), this.paginationProperties.getMaxSize());
+    List<BookView> books = this.bookService.findPageByCategoryName(categoryName, after, pageSize);
+    if (webRequest.checkNotModified(eTag("page", books, after, pageSize))) {
+      return null;
+    }
+    BookPageResponse response = this.bookMapper.bookPageToBookPageResponse(books, pageSize);
+    return ResponseEntity.ok(response);
+  }
+
+  @Operation(
+      summary = "Найти книги по началу или части названия и автора.",
+      description = "Возвращает книги, название или автор которых похожи на строку поиска, в том числе " +
+          "с опечатками, по убыванию оценки сходства. Для подсказок при вводе.")
+  @Parameter(name = "q", required = true, in = ParameterIn.QUERY, description = "Строка поиска.")
+  @Parameter(name = "limit", in = ParameterIn.QUERY, description = "Наибольшее число найденных книг.")
+  @ApiResponse(
+      responseCode = "200",
+      content = {@Content(schema = @Schema(implementation = BookSearchResponse.class), mediaType = "application/json")})
+  @ApiResponse(
+      responseCode = "400",
+      content = {@Content(schema = @Schema(implementation = ErrorMsgResponse.class), mediaType = "application/json")})
+  @Loggable
+  @GetMapping(params = "q")
+  public ResponseEntity<BookSearchResponse> search(
+      @RequestParam("q")
+      @NotBlank(message = ErrorMsg.SEARCH_QUERY_EMPTY)
+      @Size(min = StringSizes.SEARCH_QUERY_MIN, max = StringSizes.SEARCH_QUERY_MAX,
+          message = ErrorMsg.SEARCH_QUERY_LENGTH_INVALID)
+      String query,
+      @RequestParam(required = false) @Positive(message = ErrorMsg.SEARCH_LIMIT_INVALID) Integer limit) {
+    int maxResults = Math.min(
+        limit != null ? limit : this.searchProperties.getDefaultLimit(), this.searchProperties.getMaxLimit());
+    List<BookSearchHit> hits = this.bookSearchService.search(query, maxResults);
+    BookSearchResponse response = this.bookMapper.hitsToBookSearchResponse(hits);
+    return ResponseEntity.ok(response);
+  }
+
   @Operation(
       summary = "Получить книгу по названию и автору",
       description = "Возвращает номер книги, название, автора, категорию.")
@@ -64,16 +207,17 @@ public class BookController {
   @Parameter(name = "author", required = true, in = ParameterIn.PATH, description = "Автор книги.")
   @ApiResponse(
       responseCode = "200",
-      content = {@Content(schema = @Schema(implementation = BookResponse.class), mediaType = "application/json")})
+      content = {@Content(schema = @Schema(implementation = BookView.class), mediaType = "application/json")})
   @ApiResponse(
       responseCode = "400",
       content = {@Content(schema = @Schema(implementation = ErrorMsgResponse.class), mediaType = "application/json")})
+  @ApiResponse(responseCode = "304", description = "Книга не изменилась с версии из If-None-Match.")
   @ApiResponse(
       responseCode = "404",
       content = {@Content(schema = @Schema(implementation = ErrorMsgResponse.class), mediaType = "application/json")})
   @Loggable
   @GetMapping("/{title}/{author}")
-  public ResponseEntity<BookResponse> findByTitleAndAuthor(
+  public ResponseEntity<BookView> findByTitleAndAuthor(
       @PathVariable
         @NotBlank(message = ErrorMsg.TITLE_EMPTY)
         @Size(min = StringSizes.TITLE_MIN, max = StringSizes.TITLE_MAX, message = ErrorMsg.TITLE_LENGTH_INVALID)
@@ -81,10 +225,37 @@ public class BookController {
       @PathVariable
         @NotBlank(message = ErrorMsg.AUTHOR_EMPTY)
         @Size(min = StringSizes.AUTHOR_MIN, max = StringSizes.TITLE_MAX, message = ErrorMsg.AUTHOR_LENGTH_INVALID)
-        String author
+        String author,
+      WebRequest webRequest
   ) {
-    Book book = this.bookService.findByTitleAndAuthor(title, author);
-    BookResponse response = this.bookMapper.bookToBookResponse(book);
+    this.cacheAccessStats.record(
+        AppCacheProperties.CacheNames.BOOK_BY_TITLE_AND_AUTHOR, CacheKeys.titleAndAuthor(title, author));
+    BookView book = this.bookService.findByTitleAndAuthor(title, author)
+        .orElseThrow(() -> new EntityNotFoundException(ErrorMsg.BOOK_NOT_FOUND));
+    if (webRequest.checkNotModified(eTag("book", List.of(book)))) {
+      return null;
+    }
+    return ResponseEntity.ok(book);
+  }
+
+  @Operation(
+      summary = "Найти книги по списку названий и авторов.",
+      description = "Ищет до " + BookLookupRequest.MAX_ITEMS + " книг по названию и автору " +
+          "и возвращает для каждой пары запроса признак found и книгу, если она найдена, в порядке запроса.")
+  @ApiResponse(
+      responseCode = "200",
+      content = {@Content(schema = @Schema(implementation = BookLookupResponse.class), mediaType = "application/json")})
+  @ApiResponse(
+      responseCode = "400",
+      content = {@Content(schema = @Schema(implementation = ErrorMsgResponse.class), mediaType = "application/json")})
+  @Loggable
+  @PostMapping("/lookup")
+  public ResponseEntity<BookLookupResponse> lookup(@RequestBody @Valid BookLookupRequest request) {
+    List<BookLookupKey> keys = this.bookMapper.requestToBookLookupKeys(request);
+    keys.forEach(key ->
+        this.cacheAccessStats.record(AppCacheProperties.CacheNames.BOOK_BY_TITLE_AND_AUTHOR, key.cacheKey()));
+    Map<BookLookupKey, BookView> books = this.bookLookupService.findAllByTitleAndAuthor(keys);
+    BookLookupResponse response = this.bookMapper.booksToBookLookupResponse(keys, books);
     return ResponseEntity.ok(response);
   }
 
@@ -97,11 +268,19 @@ public class BookController {
   @ApiResponse(
       responseCode = "400",
       content = {@Content(schema = @Schema(implementation = ErrorMsgResponse.class), mediaType = "application/json")})
+  @ApiResponse(
+      responseCode = "503",
+      description = "Очередь отложенной записи заполнена, запрос нужно повторить через Retry-After секунд, " +
+          "или запись книги не подтверждена за отведённое время: книга может быть создана позже, " +
+          "и повторный запрос тогда получит 409.",
+      content = {@Content(schema = @Schema(implementation = ErrorMsgResponse.class), mediaType = "application/json")})
   @Loggable
   @PostMapping
   public ResponseEntity<BookResponse> create(@RequestBody @Valid BookUpsertRequest request) {
     Book newBook = this.bookMapper.requestToBook(request);
-    Book createdBook = this.bookService.create(newBook);
+    Book createdBook = this.bookWriteBehindService.isEnabled()
+        ? this.bookWriteBehindService.create(newBook)
+        : this.bookService.create(newBook);
     BookResponse response = this.bookMapper.bookToBookResponse(createdBook);
     return ResponseEntity.status(HttpStatus.CREATED).body(response);
   }
@@ -127,6 +306,25 @@ public class BookController {
     return ResponseEntity.ok(response);
   }
 
+  @Operation(
+      summary = "Пакетно создать, обновить и удалить книги.",
+      description = "Выполняет до " + BookBulkRequest.MAX_OPERATIONS + " операций CREATE, UPDATE, DELETE " +
+          "и возвращает итог каждой операции в порядке запроса.")
+  @ApiResponse(
+      responseCode = "200",
+      content = {@Content(schema = @Schema(implementation = BookBulkResponse.class), mediaType = "application/json")})
+  @ApiResponse(
+      responseCode = "400",
+      content = {@Content(schema = @Schema(implementation = ErrorMsgResponse.class), mediaType = "application/json")})
+  @Loggable
+  @PostMapping("/bulk")
+  public ResponseEntity<BookBulkResponse> bulk(@RequestBody @Valid BookBulkRequest request) {
+    List<BookOperationResult> results =
+        this.bookBulkService.execute(this.bookMapper.requestToBookOperations(request));
+    BookBulkResponse response = this.bookMapper.resultsToBookBulkResponse(results);
+    return ResponseEntity.ok(response);
+  }
+
   @Operation(summary = "Удалить книгу по номеру.", description = "Удаляет книгу по номеру.")
   @Parameter(name = "id", in = ParameterIn.PATH, required = true, description = "Идентификатор книги.")
   @ApiResponse(responseCode = "204")
@@ -136,4 +334,37 @@ public class BookController {
     this.bookService.delete(id);
     return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
   }
+
+  /**
+   * Сильный ETag ответа по содержимому: хеш FNV-1a полей отдаваемых книг. Книги берутся из кэша,
+   * поэтому ETag всегда соответствует телу ответа и не требует отдельных обращений к Redis,
+   * а при совпадении ETag ответ не преобразуется и не сериализуется
+   * @param representation - вид ответа, чтобы у разных ответов с одними книгами были разные ETag
+   * @param books - книги ответа
+   * @param parts - параметры запроса, от которых зависит ответ
+   */
+  private static String eTag(String representation, Collection<BookView> books, Object... parts) {
+    long hash = FNV_OFFSET_BASIS;
+    for (BookView book : books) {
+      hash = fnv(hash, String.valueOf(book.getId()));
+      hash = fnv(hash, book.getTitle());
+      hash = fnv(hash, book.getAuthor());
+      hash = fnv(hash, book.getCategoryName());
+    }
+    StringBuilder eTag = new StringBuilder(representation);
+    for (Object part : parts) {
+      eTag.append('-').append(part);
+    }
+    return eTag.append('-').append(Long.toHexString(hash)).toString();
+  }
+
+  /**
+   * Добавить к хешу строку и разделитель, чтобы "ab" + "c" и "a" + "bc" давали разный хеш
+   */
+  private static long fnv(long hash, String value) {
+    for (int i = 0; i < value.length(); i++) {
+      hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+    }
+    return (hash ^ 0xFFFF) * FNV_PRIME;
+  }
 }
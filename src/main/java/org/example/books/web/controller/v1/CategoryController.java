@@ -0,0 +1,64 @@
+package org.example.books.web.controller.v1;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.RequiredArgsConstructor;
+import org.example.books.aop.Loggable;
+import org.example.books.service.CategoryStatsService;
+import org.example.books.service.stats.CategoryStats;
+import org.example.books.util.ErrorMsg;
+import org.example.books.util.StringSizes;
+import org.example.books.web.dto.CategoryStatsListResponse;
+import org.example.books.web.dto.ErrorMsgResponse;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/category")
+@RequiredArgsConstructor
+@Tag(name = "Категории 1.0", description = "Статистика категорий 1.0")
+public class CategoryController {
+  private final CategoryStatsService categoryStatsService;
+
+  @Operation(
+      summary = "Получить статистику всех категорий.",
+      description = "Возвращает для каждой категории с книгами число книг и число разных авторов. " +
+          "Счётчики обновляются после каждой записи и периодически сверяются с базой.")
+  @ApiResponse(
+      responseCode = "200",
+      content = {@Content(schema = @Schema(implementation = CategoryStatsListResponse.class), mediaType = "application/json")})
+  @Loggable
+  @GetMapping
+  public ResponseEntity<CategoryStatsListResponse> findAll() {
+    return ResponseEntity.ok(new CategoryStatsListResponse(this.categoryStatsService.findAll()));
+  }
+
+  @Operation(
+      summary = "Получить статистику категории.",
+      description = "Возвращает число книг и число разных авторов категории, нули - если в категории нет книг.")
+  @Parameter(name = "categoryName", required = true, in = ParameterIn.PATH, description = "Категория книг.")
+  @ApiResponse(
+      responseCode = "200",
+      content = {@Content(schema = @Schema(implementation = CategoryStats.class), mediaType = "application/json")})
+  @ApiResponse(
+      responseCode = "400",
+      content = {@Content(schema = @Schema(implementation = ErrorMsgResponse.class), mediaType = "application/json")})
+  @Loggable
+  @GetMapping("/{categoryName}")
+  public ResponseEntity<CategoryStats> findByCategoryName(
+      @PathVariable @NotBlank(message = ErrorMsg.CATEGORY_EMPTY)
+      @Size(min = StringSizes.CATEGORY_MIN, max = StringSizes.CATEGORY_MAX, message = ErrorMsg.CATEGORY_LENGTH_INVALID)
+      String categoryName) {
+    return ResponseEntity.ok(this.categoryStatsService.findByCategoryName(categoryName));
+  }
+}
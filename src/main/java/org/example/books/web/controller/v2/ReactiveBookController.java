@@ -0,0 +1,164 @@
+package org.example.books.web.controller.v2;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.RequiredArgsConstructor;
+import org.example.books.aop.Loggable;
+import org.example.books.cache.CacheAccessStats;
+import org.example.books.cache.CacheKeys;
+import org.example.books.config.properties.AppCacheProperties;
+import org.example.books.dao.projection.BookView;
+import org.example.books.mapper.BookMapper;
+import org.example.books.service.ReactiveBookService;
+import org.example.books.util.ErrorMsg;
+import org.example.books.util.StringSizes;
+import org.example.books.web.dto.BookListResponse;
+import org.example.books.web.dto.BookResponse;
+import org.example.books.web.dto.BookUpsertRequest;
+import org.example.books.web.dto.ErrorMsgResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Реактивная версия API книг: обработчики возвращают Mono и Flux, поток запроса освобождается
+ * сразу, а ответ пишется по готовности данных из базы или кэша
+ */
+@RestController
+@RequestMapping("/api/v2/book")
+@RequiredArgsConstructor
+@Tag(name = "Книги 2.0", description = "Управление книгами 2.0, неблокирующая реализация")
+public class ReactiveBookController {
+  private final ReactiveBookService bookService;
+  private final CacheAccessStats cacheAccessStats;
+  private final BookMapper bookMapper;
+
+  @Operation(
+      summary = "Получить список книг заданной категории.",
+      description = "Возвращает список книг с номерами, названиями, автором, категориями.")
+  @Parameter(name = "categoryName", required = true, in = ParameterIn.PATH, description = "Категория книг.")
+  @ApiResponse(
+      responseCode = "200",
+      content = {@Content(schema = @Schema(implementation = BookListResponse.class), mediaType = "application/json")})
+  @ApiResponse(
+      responseCode = "400",
+      content = {@Content(schema = @Schema(implementation = ErrorMsgResponse.class), mediaType = "application/json")})
+  @Loggable
+  @GetMapping("/{categoryName}")
+  public Mono<BookListResponse> findAllByCategory(
+      @PathVariable @NotBlank(message = ErrorMsg.CATEGORY_EMPTY)
+      @Size(min = StringSizes.CATEGORY_MIN, max = StringSizes.CATEGORY_MAX, message = ErrorMsg.CATEGORY_LENGTH_INVALID)
+      String categoryName) {
+    this.cacheAccessStats.record(AppCacheProperties.CacheNames.BOOKS_BY_CATEGORY, categoryName);
+    return this.bookService.findAllByCategoryName(categoryName)
+        .collectList()
+        .map(this.bookMapper::bookListToBookListResponse);
+  }
+
+  @Operation(
+      summary = "Выгрузить все книги заданной категории потоком NDJSON.",
+      description = "Возвращает книги категории по одной в строке, по мере получения из кэша или базы. " +
+          "Выбирается заголовком Accept: application/x-ndjson.")
+  @Parameter(name = "categoryName", required = true, in = ParameterIn.PATH, description = "Категория книг.")
+  @ApiResponse(
+      responseCode = "200",
+      content = {@Content(schema = @Schema(implementation = BookView.class), mediaType = MediaType.APPLICATION_NDJSON_VALUE)})
+  @Loggable
+  @GetMapping(value = "/{categoryName}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public Flux<BookView> streamByCategory(
+      @PathVariable @NotBlank(message = ErrorMsg.CATEGORY_EMPTY)
+      @Size(min = StringSizes.CATEGORY_MIN, max = StringSizes.CATEGORY_MAX, message = ErrorMsg.CATEGORY_LENGTH_INVALID)
+      String categoryName) {
+    this.cacheAccessStats.record(AppCacheProperties.CacheNames.BOOKS_BY_CATEGORY, categoryName);
+    return this.bookService.findAllByCategoryName(categoryName);
+  }
+
+  @Operation(
+      summary = "Получить книгу по названию и автору",
+      description = "Возвращает номер книги, название, автора, категорию.")
+  @Parameter(name = "title", required = true, in = ParameterIn.PATH, description = "Название книги.")
+  @Parameter(name = "author", required = true, in = ParameterIn.PATH, description = "Автор книги.")
+  @ApiResponse(
+      responseCode = "200",
+      content = {@Content(schema = @Schema(implementation = BookView.class), mediaType = "application/json")})
+  @ApiResponse(
+      responseCode = "400",
+      content = {@Content(schema = @Schema(implementation = ErrorMsgResponse.class), mediaType = "application/json")})
+  @ApiResponse(
+      responseCode = "404",
+      content = {@Content(schema = @Schema(implementation = ErrorMsgResponse.class), mediaType = "application/json")})
+  @Loggable
+  @GetMapping("/{title}/{author}")
+  public Mono<BookView> findByTitleAndAuthor(
+      @PathVariable
+        @NotBlank(message = ErrorMsg.TITLE_EMPTY)
+        @Size(min = StringSizes.TITLE_MIN, max = StringSizes.TITLE_MAX, message = ErrorMsg.TITLE_LENGTH_INVALID)
+        String title,
+      @PathVariable
+        @NotBlank(message = ErrorMsg.AUTHOR_EMPTY)
+        @Size(min = StringSizes.AUTHOR_MIN, max = StringSizes.AUTHOR_MAX, message = ErrorMsg.AUTHOR_LENGTH_INVALID)
+        String author
+  ) {
+    this.cacheAccessStats.record(
+        AppCacheProperties.CacheNames.BOOK_BY_TITLE_AND_AUTHOR, CacheKeys.titleAndAuthor(title, author));
+    return this.bookService.findByTitleAndAuthor(title, author);
+  }
+
+  @Operation(
+      summary = "Создать книгу.",
+      description = "Возвращает номер созданной книги, название, автора, категорию.")
+  @ApiResponse(
+      responseCode = "201",
+      content = {@Content(schema = @Schema(implementation = BookResponse.class), mediaType = "application/json")})
+  @ApiResponse(
+      responseCode = "400",
+      content = {@Content(schema = @Schema(implementation = ErrorMsgResponse.class), mediaType = "application/json")})
+  @Loggable
+  @PostMapping
+  public Mono<ResponseEntity<BookResponse>> create(@RequestBody @Valid BookUpsertRequest request) {
+    return this.bookService.create(this.bookMapper.requestToBook(request))
+        .map(this.bookMapper::bookViewToBookResponse)
+        .map(response -> ResponseEntity.status(HttpStatus.CREATED).body(response));
+  }
+
+  @Operation(
+      summary = "Обновить книгу.",
+      description = "Возвращает номер обновленной книги, название, автора, категорию.")
+  @ApiResponse(
+      responseCode = "200",
+      content = {@Content(schema = @Schema(implementation = BookResponse.class), mediaType = "application/json")})
+  @ApiResponse(
+      responseCode = "400",
+      content = {@Content(schema = @Schema(implementation = ErrorMsgResponse.class), mediaType = "application/json")})
+  @Loggable
+  @PutMapping("/{id}")
+  public Mono<BookResponse> update(
+      @PathVariable @Positive(message = ErrorMsg.ID_NEGATIVE) int id,
+      @RequestBody @Valid BookUpsertRequest request
+  ) {
+    return this.bookService.update(this.bookMapper.requestToBook(request), id)
+        .map(this.bookMapper::bookViewToBookResponse);
+  }
+
+  @Operation(summary = "Удалить книгу по номеру.", description = "Удаляет книгу по номеру.")
+  @Parameter(name = "id", in = ParameterIn.PATH, required = true, description = "Идентификатор книги.")
+  @ApiResponse(responseCode = "204")
+  @Loggable
+  @DeleteMapping("/{id}")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public Mono<Void> delete(@PathVariable @Positive(message = ErrorMsg.ID_NEGATIVE) int id) {
+    return this.bookService.delete(id);
+  }
+}
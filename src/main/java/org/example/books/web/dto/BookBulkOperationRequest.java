@@ -0,0 +1,77 @@
+package org.example.books.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.books.service.bulk.BookOperation;
+import org.example.books.util.ErrorMsg;
+import org.example.books.util.StringSizes;
+import org.hibernate.validator.group.GroupSequenceProvider;
+import org.hibernate.validator.spi.group.DefaultGroupSequenceProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@GroupSequenceProvider(BookBulkOperationRequest.BookFieldsGroupProvider.class)
+public class BookBulkOperationRequest {
+  @NotNull(message = ErrorMsg.BULK_OPERATION_TYPE_EMPTY)
+  private BookOperation.Type type;
+  @Positive(message = ErrorMsg.ID_NEGATIVE)
+  private Integer id;
+  @NotBlank(message = ErrorMsg.TITLE_EMPTY, groups = BookFields.class)
+  @Size(min = StringSizes.TITLE_MIN, max = StringSizes.TITLE_MAX, message = ErrorMsg.TITLE_LENGTH_INVALID)
+  private String title;
+  @NotBlank(message = ErrorMsg.AUTHOR_EMPTY, groups = BookFields.class)
+  @Size(min = StringSizes.AUTHOR_MIN, max = StringSizes.AUTHOR_MAX, message = ErrorMsg.AUTHOR_LENGTH_INVALID)
+  private String author;
+  @NotBlank(message = ErrorMsg.CATEGORY_EMPTY, groups = BookFields.class)
+  @Size(min = StringSizes.CATEGORY_MIN, max = StringSizes.CATEGORY_MAX, message = ErrorMsg.CATEGORY_LENGTH_INVALID)
+  private String categoryName;
+
+  /**
+   * Создание требует книгу, удаление - id, изменение - и то и другое
+   */
+  @JsonIgnore
+  @AssertTrue(message = ErrorMsg.BULK_OPERATION_INVALID)
+  public boolean isComplete() {
+    if (this.type == null) {
+      return true;
+    }
+    boolean hasBook = this.title != null && this.author != null && this.categoryName != null;
+    return switch (this.type) {
+      case CREATE -> hasBook;
+      case UPDATE -> hasBook && this.id != null;
+      case DELETE -> this.id != null;
+    };
+  }
+
+  /**
+   * Проверки полей книги, которые нужны только создающим и изменяющим операциям
+   */
+  public interface BookFields {
+  }
+
+  /**
+   * Поля книги проверяются после общих проверок и только у операций с книгой: удаление их не передаёт
+   */
+  public static class BookFieldsGroupProvider implements DefaultGroupSequenceProvider<BookBulkOperationRequest> {
+    @Override
+    public List<Class<?>> getValidationGroups(BookBulkOperationRequest request) {
+      List<Class<?>> groups = new ArrayList<>(2);
+      groups.add(BookBulkOperationRequest.class);
+      if (request != null && request.type != null && request.type != BookOperation.Type.DELETE) {
+        groups.add(BookFields.class);
+      }
+      return groups;
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package org.example.books.web.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.books.util.ErrorMsg;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookBulkRequest {
+  public static final int MAX_OPERATIONS = 10_000;
+
+  @NotNull(message = ErrorMsg.BULK_SIZE_INVALID)
+  @Size(min = 1, max = MAX_OPERATIONS, message = ErrorMsg.BULK_SIZE_INVALID)
+  @Valid
+  private List<BookBulkOperationRequest> operations = new ArrayList<>();
+}
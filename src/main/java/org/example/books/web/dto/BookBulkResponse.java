@@ -0,0 +1,19 @@
+package org.example.books.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.books.service.bulk.BookOperationResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookBulkResponse {
+  /**
+   * Итоги операций в порядке операций запроса
+   */
+  private List<BookOperationResult> results = new ArrayList<>();
+}
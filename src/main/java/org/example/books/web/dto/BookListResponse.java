@@ -3,6 +3,7 @@ package org.example.books.web.dto;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.example.books.dao.projection.BookView;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -11,5 +12,5 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 public class BookListResponse {
-  private List<BookResponse> booksList = new ArrayList<>();
+  private List<BookView> booksList = new ArrayList<>();
 }
@@ -0,0 +1,18 @@
+package org.example.books.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookLookupResponse {
+  /**
+   * Итоги поиска в порядке запроса
+   */
+  private List<BookLookupResult> results = new ArrayList<>();
+}
@@ -0,0 +1,21 @@
+package org.example.books.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.books.dao.projection.BookView;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookLookupResult {
+  private String title;
+  private String author;
+  private boolean found;
+  /**
+   * Найденная книга, у ненайденной отсутствует
+   */
+  private BookView book;
+}
@@ -0,0 +1,20 @@
+package org.example.books.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.books.dao.projection.BookView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookPageResponse {
+  private List<BookView> booksList = new ArrayList<>();
+  /**
+   * Курсор следующей страницы (id последней книги страницы), null на последней странице
+   */
+  private Integer nextAfter;
+}
@@ -0,0 +1,19 @@
+package org.example.books.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.books.service.search.BookSearchHit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSearchResponse {
+  /**
+   * Найденные книги по убыванию оценки
+   */
+  private List<BookSearchHit> results = new ArrayList<>();
+}
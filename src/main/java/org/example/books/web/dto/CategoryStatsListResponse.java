@@ -0,0 +1,19 @@
+package org.example.books.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.books.service.stats.CategoryStats;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryStatsListResponse {
+  /**
+   * Категории, в которых есть книги, по порядку наименований
+   */
+  private List<CategoryStats> categories = new ArrayList<>();
+}
@@ -0,0 +1,15 @@
+-- Исходная схема, которую раньше создавал Hibernate (spring.jpa.generate-ddl).
+-- Для уже существующих баз эта версия отмечается как базовая и не выполняется.
+create table if not exists categories (
+    category_name varchar(255) not null,
+    primary key (category_name)
+);
+
+create table if not exists books (
+    id            integer not null,
+    book_title    varchar(255),
+    author        varchar(255),
+    category_name varchar(255),
+    primary key (id),
+    constraint fk_books_category foreign key (category_name) references categories
+);
@@ -0,0 +1,5 @@
+-- Идентификаторы книг выдаются блоками по 50 (allocationSize сущности Book).
+-- Последовательность сдвигается за уже выданные идентификаторы, в том числе выданные столбцом identity.
+create sequence if not exists books_seq start with 1 increment by 50;
+alter sequence books_seq increment by 50;
+select setval('books_seq', (select coalesce(max(id), 0) + 50 from books), false);
@@ -0,0 +1,7 @@
+-- Индексы строятся без блокировки записи (concurrently), поэтому скрипт выполняется вне транзакции.
+-- Прерванное построение оставляет невалидный индекс, его обнаружит проверка индексов при старте.
+
+-- Книги категории и страницы по курсору: поиск по категории, порядок по id,
+-- остальные поля проекции берутся из индекса без чтения таблицы
+create index concurrently if not exists idx_books_category_name_id
+    on books (category_name, id) include (book_title, author);
@@ -0,0 +1,32 @@
+-- Книга по названию и автору: пара уникальна, поиск только по индексу.
+-- Повторы пары не удаляются: если они есть, миграция останавливается со списком повторов,
+-- и решить, какие книги оставить, нужно вручную, после чего повторить миграцию (flyway repair).
+do $$
+declare
+    pairs integer;
+    duplicates text;
+begin
+    select count(*), string_agg(format('%L - %L (%s)', book_title, author, books), '; ')
+        filter (where n <= 20)
+    into pairs, duplicates
+    from (select book_title, author, count(*) as books,
+                 row_number() over (order by book_title, author) as n
+          from books
+          where book_title is not null and author is not null
+          group by book_title, author
+          having count(*) > 1) d;
+    if pairs > 0 then
+        raise exception 'В books повторяются пары название - автор (% пар, первые 20 с числом книг): %',
+            pairs, duplicates
+            using hint = 'Удалите или переименуйте повторы и повторите миграцию';
+    end if;
+end
+$$;
+
+-- Скрипт выполняется вне транзакции (concurrently): уникальный индекс, не построенный
+-- из-за повтора, записанного во время миграции, остаётся невалидным, поэтому перед построением
+-- он удаляется, и повторный запуск миграции строит его заново, а не пропускает.
+drop index concurrently if exists uq_books_title_author;
+
+create unique index concurrently uq_books_title_author
+    on books (book_title, author) include (id, category_name);
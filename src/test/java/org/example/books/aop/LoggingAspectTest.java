@@ -0,0 +1,94 @@
+package org.example.books.aop;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.example.books.config.properties.AppMethodMetricsProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoggingAspectTest {
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final Target target = this.proxy(new Target());
+
+  @Test
+  void whenCalled_thenTimerPerMethodRecorded() {
+    this.target.find();
+    this.target.find();
+
+    Timer timer = this.meterRegistry.get(LoggingAspect.METRIC_NAME)
+        .tags("class", "Target", "method", "find", "exception", "none")
+        .timer();
+    assertEquals(2, timer.count());
+  }
+
+  @Test
+  void whenThrows_thenExceptionTaggedAndRethrown() {
+    assertThrows(EntityNotFoundException.class, this.target::fail);
+    assertThrows(EntityNotFoundException.class, this.target::fail);
+
+    Timer timer = this.meterRegistry.get(LoggingAspect.METRIC_NAME)
+        .tags("method", "fail", "exception", "EntityNotFoundException")
+        .timer();
+    assertEquals(2, timer.count());
+    assertEquals(0, this.meterRegistry.get(LoggingAspect.METRIC_NAME)
+        .tags("method", "fail", "exception", "none")
+        .timer()
+        .count());
+  }
+
+  @Test
+  void whenReactive_thenMeasuredOnSubscription() {
+    Mono<String> mono = this.target.findReactive();
+    Timer timer = this.meterRegistry.get(LoggingAspect.METRIC_NAME)
+        .tags("method", "findReactive", "exception", "none")
+        .timer();
+
+    assertEquals(0, timer.count());
+
+    mono.block();
+    mono.block();
+
+    assertEquals(2, timer.count());
+  }
+
+  @Test
+  void whenNotAnnotated_thenNotMeasured() {
+    this.target.plain();
+
+    assertNull(this.meterRegistry.find(LoggingAspect.METRIC_NAME).tags("method", "plain").timer());
+  }
+
+  private Target proxy(Target target) {
+    AspectJProxyFactory factory = new AspectJProxyFactory(target);
+    factory.setProxyTargetClass(true);
+    factory.addAspect(new LoggingAspect(this.meterRegistry, new AppMethodMetricsProperties()));
+    return factory.getProxy();
+  }
+
+  static class Target {
+    @Loggable
+    public String find() {
+      return "книга";
+    }
+
+    @Loggable
+    public String fail() {
+      throw new EntityNotFoundException("нет книги");
+    }
+
+    @Loggable
+    public Mono<String> findReactive() {
+      return Mono.just("книга");
+    }
+
+    public String plain() {
+      return "книга";
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package org.example.books.cache;
+
+import org.example.books.dao.projection.BookView;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookBinaryRedisSerializerTest {
+  private final BookBinaryRedisSerializer serializer = new BookBinaryRedisSerializer(1024);
+
+  @Test
+  void whenSerializeBook_thenDeserializeSameBook() {
+    final BookView book = new BookView(1, "Приключения Тома Сойера", "Марк Твен", "Детская литература");
+
+    final Object actual = this.serializer.deserialize(this.serializer.serialize(book));
+
+    assertEquals(book, actual);
+  }
+
+  @Test
+  void whenSerializeLargeList_thenCompressedAndSmallerThanJdk() {
+    final List<BookView> books = new ArrayList<>();
+    for (int i = 1; i <= 1000; i++) {
+      books.add(new BookView(i, "Приключения Тома Сойера " + i, "Марк Твен", "Детская литература"));
+    }
+
+    final byte[] bytes = this.serializer.serialize(books);
+    final byte[] jdkBytes = RedisSerializer.java().serialize(books);
+
+    assertEquals(1, bytes[1]);
+    assertTrue(bytes.length < jdkBytes.length);
+    assertEquals(books, this.serializer.deserialize(bytes));
+  }
+
+  @Test
+  void whenOtherSchemaVersion_thenReadAsCacheMiss() {
+    final byte[] bytes = this.serializer.serialize(new BookView(1, "title", "author", "category"));
+    bytes[0] = 1;
+
+    assertNull(this.serializer.deserialize(bytes));
+  }
+}
@@ -0,0 +1,35 @@
+package org.example.books.cache;
+
+import org.example.books.config.properties.AppCacheProperties;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CacheAccessStatsTest {
+  private final StringRedisTemplate redisTemplate = Mockito.mock(StringRedisTemplate.class);
+  private final CacheAccessStats accessStats = new CacheAccessStats(this.redisTemplate, new AppCacheProperties());
+
+  @Test
+  void whenFlushedRepeatedly_thenEachHitSentOnce() {
+    this.accessStats.record("books", "key");
+    this.accessStats.record("books", "key");
+    this.accessStats.flush();
+    this.accessStats.record("books", "key");
+    this.accessStats.flush();
+    this.accessStats.flush();
+
+    ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+    Mockito.verify(this.redisTemplate, Mockito.times(2))
+        .execute(ArgumentMatchers.<RedisScript<Long>>any(), ArgumentMatchers.anyList(), args.capture());
+    assertEquals(List.of("key", "2"), Arrays.asList(args.getAllValues().get(0)).subList(3, 5));
+    assertEquals(List.of("key", "1"), Arrays.asList(args.getAllValues().get(1)).subList(3, 5));
+  }
+}
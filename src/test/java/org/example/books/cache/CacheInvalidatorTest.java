@@ -0,0 +1,65 @@
+package org.example.books.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+
+class CacheInvalidatorTest {
+  private final TwoLevelCache cache = Mockito.mock(TwoLevelCache.class);
+  private final CacheManager cacheManager = Mockito.mock(CacheManager.class);
+  private final ContentVersions contentVersions = Mockito.mock(ContentVersions.class);
+  private final CacheInvalidator cacheInvalidator = new CacheInvalidator(this.cacheManager, this.contentVersions);
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void whenInTransaction_thenKeysEvictedInOneBatchAfterCommit() {
+    Mockito.when(this.cacheManager.getCache("books")).thenReturn(this.cache);
+    TransactionSynchronizationManager.initSynchronization();
+
+    this.cacheInvalidator.evictAfterCommit("books", "first");
+    this.cacheInvalidator.evictAfterCommit("books", "second");
+    this.cacheInvalidator.evictAfterCommit("books", "first");
+    this.cacheInvalidator.bumpCategoryVersionAfterCommit("category");
+
+    Mockito.verifyNoInteractions(this.cache, this.contentVersions);
+
+    TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+    Mockito.verify(this.cache, Mockito.times(1)).evictAll(Set.of("first", "second"));
+    Mockito.verify(this.contentVersions, Mockito.times(1)).bumpCategories(Set.of("category"));
+  }
+
+  @Test
+  void whenTransactionRolledBack_thenNothingEvicted() {
+    Mockito.when(this.cacheManager.getCache("books")).thenReturn(this.cache);
+    TransactionSynchronizationManager.initSynchronization();
+
+    this.cacheInvalidator.evictAfterCommit("books", "first");
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+    Mockito.verifyNoInteractions(this.cache);
+  }
+
+  @Test
+  void whenNoTransaction_thenEvictedImmediately() {
+    Mockito.when(this.cacheManager.getCache("books")).thenReturn(this.cache);
+
+    this.cacheInvalidator.evictAfterCommit("books", "first");
+
+    Mockito.verify(this.cache, Mockito.times(1)).evictAll(Set.of("first"));
+  }
+}
@@ -0,0 +1,57 @@
+package org.example.books.cache;
+
+import org.example.books.config.properties.AppCacheProperties;
+import org.example.books.service.BookService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+
+class CacheWarmerTest {
+  private final BookService bookService = Mockito.mock(BookService.class);
+  private final CacheAccessStats accessStats = Mockito.mock(CacheAccessStats.class);
+  private final AppCacheProperties appCacheProperties = new AppCacheProperties();
+  private final CacheWarmer cacheWarmer =
+      new CacheWarmer(this.bookService, this.accessStats, this.appCacheProperties);
+
+  @Test
+  void whenStarted_thenTopKeysLoadedThroughService() throws Exception {
+    Mockito.when(this.accessStats.topKeys(AppCacheProperties.CacheNames.BOOKS_BY_CATEGORY, 200))
+        .thenReturn(List.of("Детская литература", "Фантастика"));
+    Mockito.when(this.accessStats.topKeys(AppCacheProperties.CacheNames.BOOK_BY_TITLE_AND_AUTHOR, 200))
+        .thenReturn(List.of(CacheKeys.titleAndAuthor("Приключения Тома Сойера", "Марк Твен")));
+
+    this.cacheWarmer.run(null);
+
+    Mockito.verify(this.bookService, Mockito.times(1)).findAllByCategoryName("Детская литература");
+    Mockito.verify(this.bookService, Mockito.times(1)).findAllByCategoryName("Фантастика");
+    Mockito.verify(this.bookService, Mockito.times(1)).findByTitleAndAuthor("Приключения Тома Сойера", "Марк Твен");
+  }
+
+  @Test
+  void whenLoadsExceedTimeBudget_thenStartupNotDelayedFurther() {
+    this.appCacheProperties.getWarmUp().setTimeBudget(Duration.ofMillis(200));
+    this.appCacheProperties.getWarmUp().setParallelism(1);
+    Mockito.when(this.accessStats.topKeys(AppCacheProperties.CacheNames.BOOKS_BY_CATEGORY, 200))
+        .thenReturn(List.of("first", "second", "third"));
+    Mockito.when(this.bookService.findAllByCategoryName(Mockito.anyString())).thenAnswer(invocation -> {
+      Thread.sleep(5_000);
+      return List.of();
+    });
+
+    assertTimeout(Duration.ofSeconds(2), () -> this.cacheWarmer.run(null));
+  }
+
+  @Test
+  void whenStatsUnavailable_thenWarmUpSkipped() throws Exception {
+    Mockito.when(this.accessStats.topKeys(AppCacheProperties.CacheNames.BOOKS_BY_CATEGORY, 200))
+        .thenThrow(new IllegalStateException("нет соединения"));
+
+    this.cacheWarmer.run(null);
+
+    Mockito.verifyNoInteractions(this.bookService);
+  }
+}
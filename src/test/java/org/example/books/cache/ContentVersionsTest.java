@@ -0,0 +1,44 @@
+package org.example.books.cache;
+
+import org.example.books.config.properties.AppCacheProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ContentVersionsTest {
+  private final StringRedisTemplate redisTemplate = Mockito.mock(StringRedisTemplate.class);
+  @SuppressWarnings("unchecked")
+  private final HashOperations<String, Object, Object> hashOperations = Mockito.mock(HashOperations.class);
+  private final ContentVersions contentVersions = new ContentVersions(
+      this.redisTemplate, Mockito.mock(CacheInvalidationPublisher.class), new AppCacheProperties());
+
+  @BeforeEach
+  void setUp() {
+    Mockito.when(this.redisTemplate.opsForHash()).thenReturn(this.hashOperations);
+  }
+
+  @Test
+  void whenVersionReadTwice_thenRedisReadOnceAndNothingWritten() {
+    assertEquals(0, this.contentVersions.categoryVersion("category"));
+    assertEquals(0, this.contentVersions.categoryVersion("category"));
+
+    Mockito.verify(this.hashOperations, Mockito.times(1)).get("books:versions:category", "category");
+    Mockito.verifyNoMoreInteractions(this.hashOperations);
+  }
+
+  @Test
+  void whenEvictedByOtherNode_thenVersionReadFromRedisAgain() {
+    Mockito.when(this.hashOperations.get("books:versions:category", "category")).thenReturn("7", "8");
+
+    assertEquals(7, this.contentVersions.categoryVersion("category"));
+    this.contentVersions.evictLocal(List.of("category"));
+
+    assertEquals(8, this.contentVersions.categoryVersion("category"));
+  }
+}
@@ -0,0 +1,64 @@
+package org.example.books.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HotKeysTest {
+  private final HotKeys hotKeys = new HotKeys(2);
+
+  @Test
+  void whenOverflowed_thenRareKeysDroppedAndHotKeysKept() {
+    for (int i = 0; i < 10; i++) {
+      this.hotKeys.record("Проза 1", 0);
+    }
+    for (int i = 0; i < 5; i++) {
+      this.hotKeys.record("Поэзия 1", 0);
+    }
+    this.hotKeys.record("Драма 3", 0);
+    this.hotKeys.record("Сказки 7", 0);
+    this.hotKeys.record("Мемуары 2", 0);
+
+    assertEquals(
+        List.of(new HotKeysReport.HotKey("Проза 1", 10, 0, 0), new HotKeysReport.HotKey("Поэзия 1", 5, 0, 0)),
+        this.hotKeys.report(10, 1).byAccesses());
+  }
+
+  @Test
+  void whenKeyBecomesHotAfterOverflow_thenItInheritsEvictedCountsAndReachesReport() {
+    for (int i = 0; i < 10; i++) {
+      this.hotKeys.record("Проза 1", 0);
+    }
+    for (int i = 0; i < 5; i++) {
+      this.hotKeys.record("Поэзия 1", 0);
+    }
+    int rareKey = 0;
+    // каждый раунд - три обращения к новому горячему ключу, а затем редкие ключи до переполнения
+    for (int round = 0; round < 3; round++) {
+      for (int i = 0; i < 3; i++) {
+        this.hotKeys.record("Фантастика 1", 0);
+      }
+      for (int i = 0; i < 3; i++) {
+        this.hotKeys.record("Редкая " + rareKey++, 0);
+      }
+    }
+
+    List<HotKeysReport.HotKey> report = this.hotKeys.report(2, 1).byAccesses();
+
+    assertEquals(List.of("Проза 1", "Фантастика 1"), report.stream().map(HotKeysReport.HotKey::key).toList());
+  }
+
+  @Test
+  void whenReported_thenSampledCountsScaledAndRankedByRemoteBytes() {
+    this.hotKeys.record("Проза 1", 50_000);
+    this.hotKeys.record("Поэзия 1", 200);
+    this.hotKeys.record("Поэзия 1", 0);
+
+    HotKeysReport report = this.hotKeys.report(1, 100);
+
+    assertEquals(List.of(new HotKeysReport.HotKey("Поэзия 1", 200, 200, 20_000)), report.byAccesses());
+    assertEquals(List.of(new HotKeysReport.HotKey("Проза 1", 100, 50_000, 5_000_000)), report.byRemoteBytes());
+  }
+}
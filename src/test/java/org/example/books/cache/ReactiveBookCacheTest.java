@@ -0,0 +1,81 @@
+package org.example.books.cache;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.example.books.config.properties.AppCacheProperties;
+import org.example.books.dao.entity.Book;
+import org.example.books.dao.entity.Category;
+import org.example.books.dao.projection.BookView;
+import org.example.books.service.BookService;
+import org.example.books.service.ReactiveBookService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Записи кэша книг по названию и автору, общие для API v1 и v2, с настоящими сервисами, базой и Redis.
+ * Локальный кэш сбрасывается, чтобы чтение шло в Redis, как на другом узле
+ */
+@SpringBootTest
+class ReactiveBookCacheTest {
+  @Autowired
+  private BookService bookService;
+  @Autowired
+  private ReactiveBookService reactiveBookService;
+  @Autowired
+  private CacheManager cacheManager;
+  @Autowired
+  private StringRedisTemplate redisTemplate;
+
+  @Test
+  void whenV1MissCached_thenV2LookupReturnsNotFound() {
+    String title = "Нет такой " + System.nanoTime();
+    String key = CacheKeys.titleAndAuthor(title, "Автор");
+
+    assertFalse(this.bookService.findByTitleAndAuthor(title, "Автор").isPresent());
+    this.cache().evictLocal(key);
+
+    assertEquals(BookBinaryRedisSerializer.VERSION, this.rawValue(key)[0]);
+    assertThrows(EntityNotFoundException.class,
+        () -> this.reactiveBookService.findByTitleAndAuthor(title, "Автор").block());
+  }
+
+  @Test
+  void whenRemoteValueUnreadable_thenReadAsMiss() {
+    String title = "Чужая запись " + System.nanoTime();
+    Book book = this.bookService.create(new Book(title, "Автор", new Category("Чужие записи")));
+    String key = CacheKeys.titleAndAuthor(title, "Автор");
+    byte[] foreignValue = RedisSerializer.java().serialize(NullValue.INSTANCE);
+    this.redisTemplate.execute((RedisCallback<Object>) connection ->
+        connection.stringCommands().set(this.rawKey(key), foreignValue));
+    this.cache().evictLocal(key);
+
+    assertEquals(0, this.cache().getAll(List.of(key)).size());
+    assertEquals(new BookView(book.getId(), title, "Автор", "Чужие записи"),
+        this.reactiveBookService.findByTitleAndAuthor(title, "Автор").block());
+  }
+
+  private TwoLevelCache cache() {
+    return (TwoLevelCache) this.cacheManager.getCache(AppCacheProperties.CacheNames.BOOK_BY_TITLE_AND_AUTHOR);
+  }
+
+  private byte[] rawKey(String key) {
+    return (this.cache().getRemoteKeyPrefix() + key).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private byte[] rawValue(String key) {
+    return this.redisTemplate.execute((RedisCallback<byte[]>) connection ->
+        connection.stringCommands().get(this.rawKey(key)));
+  }
+}
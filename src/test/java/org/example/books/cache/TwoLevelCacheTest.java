@@ -0,0 +1,220 @@
+package org.example.books.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TwoLevelCacheTest {
+  private final Cache remoteCache = Mockito.spy(new ConcurrentMapCache("books"));
+  private final CacheInvalidationPublisher publisher = Mockito.mock(CacheInvalidationPublisher.class);
+  private final CacheLoadLease loadLease = Mockito.mock(CacheLoadLease.class);
+  private final StringRedisTemplate redisTemplate = Mockito.mock(StringRedisTemplate.class);
+  private final TwoLevelCache cache = new TwoLevelCache(
+      "books",
+      Caffeine.newBuilder().maximumSize(100).build(),
+      this.remoteCache,
+      "books::",
+      this.redisTemplate,
+      this.publisher,
+      this.loadLease,
+      Duration.ofMinutes(2),
+      Runnable::run,
+      new CacheStatistics(1, 100, value -> String.valueOf(value).length()));
+
+  @BeforeEach
+  void setUp() {
+    Mockito.when(this.loadLease.getTtl()).thenReturn(Duration.ofSeconds(5));
+  }
+
+  @Test
+  void whenGetTwice_thenRemoteCacheReadOnce() {
+    this.remoteCache.put("key", "value");
+
+    assertEquals("value", this.cache.get("key").get());
+    assertEquals("value", this.cache.get("key").get());
+
+    Mockito.verify(this.remoteCache, Mockito.times(1)).get("key");
+  }
+
+  @Test
+  void whenEvict_thenBothLevelsEvictedAndOtherNodesNotified() {
+    this.cache.put("key", "value");
+
+    this.cache.evict("key");
+
+    assertNull(this.cache.get("key"));
+    Mockito.verify(this.publisher, Mockito.times(2)).publishEvict("books", "key");
+  }
+
+  @Test
+  void whenGetAll_thenLocalHitsNotReadRemotelyAndMissesOmitted() {
+    this.cache.put("local", "value");
+    this.remoteCache.put("remote", "remote value");
+
+    assertEquals(
+        Map.of("local", "value", "remote", "remote value"),
+        this.cache.getAll(List.of("local", "remote", "absent")));
+
+    Mockito.verify(this.remoteCache, Mockito.never()).get("local");
+    assertEquals("remote value", this.cache.getLocal("remote").get());
+  }
+
+  @Test
+  void whenGetAllWithNegativeEntry_thenReturnedAsNull() {
+    this.cache.putAll(Collections.singletonMap("absent", null));
+
+    Map<Object, Object> values = this.cache.getAll(List.of("absent", "unknown"));
+
+    assertEquals(Collections.singletonMap("absent", null), values);
+  }
+
+  @Test
+  void whenEvictLocal_thenValueReloadedFromRemoteCache() {
+    this.cache.put("key", "value");
+    this.remoteCache.put("key", "new value");
+
+    this.cache.evictLocal("key");
+
+    assertEquals("new value", this.cache.get("key").get());
+  }
+
+  @Test
+  void whenConcurrentMisses_thenLoadedOnceAndLeaseReleased() throws Exception {
+    Mockito.when(this.loadLease.tryAcquire("books::key")).thenReturn(true);
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger loads = new AtomicInteger();
+    Callable<String> loader = () -> {
+      loads.incrementAndGet();
+      loading.countDown();
+      release.await();
+      return "value";
+    };
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      results.add(executor.submit(() -> this.cache.get("key", loader)));
+      loading.await();
+      for (int i = 0; i < 7; i++) {
+        results.add(executor.submit(() -> this.cache.get("key", loader)));
+      }
+      Thread.sleep(100);
+      release.countDown();
+      for (Future<String> result : results) {
+        assertEquals("value", result.get(5, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(1, loads.get());
+    assertEquals("value", this.remoteCache.get("key").get());
+    Mockito.verify(this.loadLease, Mockito.times(1)).release("books::key");
+  }
+
+  @Test
+  void whenLeaseHeldByOtherNode_thenValueTakenFromRemoteCache() {
+    Mockito.when(this.loadLease.tryAcquire("books::key")).thenAnswer(invocation -> {
+      this.remoteCache.put("key", "other node value");
+      return false;
+    });
+
+    assertEquals("other node value", this.cache.get("key", () -> "value"));
+    Mockito.verify(this.loadLease, Mockito.never()).release("books::key");
+  }
+
+  @Test
+  void whenLoaderThrows_thenExceptionWrappedAndNothingCached() {
+    Mockito.when(this.loadLease.tryAcquire("books::key")).thenReturn(true);
+
+    assertThrows(Cache.ValueRetrievalException.class, () -> this.cache.get("key", () -> {
+      throw new IllegalStateException("нет книги");
+    }));
+    assertNull(this.cache.get("key"));
+    Mockito.verify(this.loadLease, Mockito.times(1)).release("books::key");
+  }
+
+  @Test
+  void whenRemoteValueStale_thenServedAndRefreshedInBackground() {
+    this.remoteCache.put("key", "old value");
+    Mockito.when(this.redisTemplate.getExpire("books::key", TimeUnit.MILLISECONDS)).thenReturn(60_000L);
+    Mockito.when(this.loadLease.tryAcquire("books::key")).thenReturn(true);
+
+    assertEquals("old value", this.cache.get("key", () -> "new value"));
+
+    assertEquals("new value", this.remoteCache.get("key").get());
+    assertEquals("new value", this.cache.get("key", () -> "newer value"));
+    Mockito.verify(this.loadLease, Mockito.times(1)).release("books::key");
+  }
+
+  @Test
+  void whenRemoteValueFresh_thenNotRefreshed() {
+    this.remoteCache.put("key", "value");
+    Mockito.when(this.redisTemplate.getExpire("books::key", TimeUnit.MILLISECONDS)).thenReturn(300_000L);
+
+    assertEquals("value", this.cache.get("key", () -> "new value"));
+
+    assertEquals("value", this.remoteCache.get("key").get());
+    Mockito.verifyNoInteractions(this.loadLease);
+  }
+
+  @Test
+  void whenGetFromEachLevel_thenHitsCountedPerLevelAndHotKeysSampled() {
+    this.remoteCache.put("remote", "remote value");
+    Mockito.when(this.loadLease.tryAcquire("books::loaded")).thenReturn(true);
+
+    this.cache.get("remote");
+    this.cache.get("remote");
+    this.cache.get("absent");
+    this.cache.get("loaded", () -> "v");
+
+    CacheStatistics statistics = this.cache.getStatistics();
+    assertEquals(1, statistics.getLocalHits());
+    assertEquals(1, statistics.getRemoteHits());
+    assertEquals(2, statistics.getMisses());
+    assertEquals(1, statistics.getLoads());
+    assertEquals(1, statistics.getPuts());
+    HotKeysReport report = statistics.hotKeys(1);
+    assertEquals(List.of(new HotKeysReport.HotKey("remote", 2, 12, 12)), report.byAccesses());
+    assertEquals(List.of(new HotKeysReport.HotKey("remote", 2, 12, 12)), report.byRemoteBytes());
+  }
+
+  @Test
+  void whenBoundToRegistry_thenHitsOfBothLevelsPublishedAsCacheGets() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    new TwoLevelCacheMetrics(this.cache, Tags.empty()).bindTo(registry);
+    this.remoteCache.put("key", "value");
+
+    this.cache.get("key");
+    this.cache.get("key");
+    this.cache.get("absent");
+
+    assertEquals(2, registry.get("cache.gets").tags("cache", "books", "result", "hit").functionCounter().count());
+    assertEquals(1, registry.get("cache.gets").tags("cache", "books", "result", "miss").functionCounter().count());
+    assertEquals(1, registry.get("cache.level.hits").tags("level", "local").functionCounter().count());
+  }
+}
@@ -0,0 +1,48 @@
+package org.example.books.config;
+
+import org.example.books.config.properties.AppSchemaProperties;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SchemaIndexVerifierTest {
+  private final JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+  private final AppSchemaProperties schemaProperties = new AppSchemaProperties();
+  private final SchemaIndexVerifier schemaIndexVerifier =
+      new SchemaIndexVerifier(this.jdbcTemplate, this.schemaProperties);
+
+  @Test
+  void whenIndexMissing_thenStartupFails() {
+    this.schemaProperties.setRequiredIndexes(List.of("idx_books_category_name_id", "uq_books_title_author"));
+    Mockito.when(this.jdbcTemplate.queryForList(ArgumentMatchers.anyString(), ArgumentMatchers.eq(String.class)))
+        .thenReturn(List.of("books_pkey", "idx_books_category_name_id"));
+
+    IllegalStateException e = assertThrows(IllegalStateException.class, this.schemaIndexVerifier::afterPropertiesSet);
+    assertTrue(e.getMessage().contains("uq_books_title_author"));
+  }
+
+  @Test
+  void whenAllIndexesPresent_thenStartupContinues() {
+    this.schemaProperties.setRequiredIndexes(List.of("idx_books_category_name_id", "uq_books_title_author"));
+    Mockito.when(this.jdbcTemplate.queryForList(ArgumentMatchers.anyString(), ArgumentMatchers.eq(String.class)))
+        .thenReturn(List.of("books_pkey", "idx_books_category_name_id", "uq_books_title_author"));
+
+    assertDoesNotThrow(this.schemaIndexVerifier::afterPropertiesSet);
+  }
+
+  @Test
+  void whenVerificationDisabled_thenNoQuery() {
+    this.schemaProperties.setVerifyIndexes(false);
+
+    this.schemaIndexVerifier.afterPropertiesSet();
+
+    Mockito.verifyNoInteractions(this.jdbcTemplate);
+  }
+}
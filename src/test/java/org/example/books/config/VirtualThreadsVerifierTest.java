@@ -0,0 +1,27 @@
+package org.example.books.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VirtualThreadsVerifierTest {
+  private final MockEnvironment environment = new MockEnvironment();
+  private final VirtualThreadsVerifier virtualThreadsVerifier = new VirtualThreadsVerifier(this.environment);
+
+  @Test
+  @EnabledForJreRange(max = JRE.JAVA_20)
+  void whenVirtualThreadsEnabledBeforeJava21_thenStartupFails() {
+    this.environment.setProperty("spring.threads.virtual.enabled", "true");
+
+    assertThrows(IllegalStateException.class, this.virtualThreadsVerifier::afterPropertiesSet);
+  }
+
+  @Test
+  void whenVirtualThreadsDisabled_thenStartupContinues() {
+    assertDoesNotThrow(this.virtualThreadsVerifier::afterPropertiesSet);
+  }
+}
@@ -0,0 +1,30 @@
+package org.example.books.dao.repository;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IdBlockAllocatorTest {
+  @Test
+  void whenIdsTaken_thenSequenceReadOncePerBlock() {
+    final AtomicLong sequence = new AtomicLong(0);
+    final AtomicLong calls = new AtomicLong(0);
+    final IdBlockAllocator allocator = new IdBlockAllocator(() -> Mono.fromSupplier(() -> {
+      calls.incrementAndGet();
+      return sequence.addAndGet(3);
+    }), 3);
+
+    final List<Integer> ids = new ArrayList<>();
+    for (int i = 0; i < 7; i++) {
+      ids.add(allocator.nextId().block());
+    }
+
+    assertEquals(List.of(1, 2, 3, 4, 5, 6, 7), ids);
+    assertEquals(3, calls.get());
+  }
+}
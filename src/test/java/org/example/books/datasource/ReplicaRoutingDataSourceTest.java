@@ -0,0 +1,148 @@
+package org.example.books.datasource;
+
+import org.example.books.config.properties.AppDataSourceProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * Основную базу и реплики заменяют встроенные базы H2 в памяти, каждая знает своё имя
+ */
+class ReplicaRoutingDataSourceTest {
+  private final DataSource primary = database("primary");
+  private final DataSource replica1 = database("replica1");
+  private final DataSource replica2 = database("replica2");
+  private final DataSource unavailable = new DriverManagerDataSource("jdbc:h2:mem:unavailable;IFEXISTS=TRUE", "sa", "");
+  private final ReadYourWritesWindow readYourWritesWindow = new ReadYourWritesWindow(new AppDataSourceProperties());
+  private ReplicaRoutingDataSource replicaRoutingDataSource;
+  private JdbcTemplate jdbcTemplate;
+  private TransactionTemplate transactionTemplate;
+
+  @AfterEach
+  void tearDown() {
+    List.of(this.primary, this.replica1, this.replica2)
+        .forEach(dataSource -> new JdbcTemplate(dataSource).execute("drop all objects"));
+  }
+
+  @Test
+  void whenReadOnlyTransactions_thenReplicasUsedInTurn() {
+    this.route(List.of(this.replica1, this.replica2));
+
+    Set<String> nodes = new HashSet<>();
+    for (int i = 0; i < 4; i++) {
+      nodes.add(this.read(true));
+    }
+
+    assertEquals(Set.of("replica1", "replica2"), nodes);
+  }
+
+  @Test
+  void whenWriteTransactionOrNoTransaction_thenPrimaryUsed() {
+    this.route(List.of(this.replica1));
+
+    assertEquals("primary", this.read(false));
+    assertEquals("primary", this.jdbcTemplate.queryForObject("select name from node", String.class));
+  }
+
+  @Test
+  void whenReadYourWritesWindowOpenForReadKey_thenReadUsesPrimaryAndOtherReadsUseReplica() {
+    this.route(List.of(this.replica1));
+    String written = ReadYourWritesWindow.categoryKey("Детская литература");
+    String other = ReadYourWritesWindow.categoryKey("Исторический роман");
+
+    this.readYourWritesWindow.open(List.of(written));
+
+    assertEquals("primary", this.readYourWritesWindow.read(List.of(written), () -> this.read(true)));
+    assertEquals("replica1", this.readYourWritesWindow.read(List.of(other), () -> this.read(true)));
+    assertEquals("replica1", this.read(true));
+    assertEquals("primary", this.readYourWritesWindow.readWritten(() -> this.read(true)));
+  }
+
+  @Test
+  void whenReplicaHangsAtStart_thenStartNotBlockedAndReadsUsePrimary() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    DataSource hanging = new DelegatingDataSource(this.replica1) {
+      @Override
+      public Connection getConnection() throws SQLException {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return super.getConnection();
+      }
+    };
+    this.replicaRoutingDataSource = new ReplicaRoutingDataSource(
+        this.primary, List.of(hanging), this.readYourWritesWindow, Duration.ofSeconds(5), Duration.ofSeconds(1));
+
+    assertTimeoutPreemptively(Duration.ofSeconds(1), () -> this.replicaRoutingDataSource.afterPropertiesSet());
+    this.useRouting();
+    assertEquals("primary", this.read(true));
+
+    release.countDown();
+    this.replicaRoutingDataSource.checkHealth();
+    assertEquals("replica1", this.read(true));
+  }
+
+  @Test
+  void whenReplicaUnavailable_thenSkipped() {
+    this.route(List.of(this.unavailable, this.replica1));
+
+    assertEquals(1, this.replicaRoutingDataSource.getHealthyReplicas());
+    assertEquals("replica1", this.read(true));
+    assertEquals("replica1", this.read(true));
+  }
+
+  @Test
+  void whenAllReplicasUnavailable_thenReadsUsePrimary() {
+    this.route(List.of(this.unavailable));
+
+    assertEquals("primary", this.read(true));
+  }
+
+  private void route(List<DataSource> replicas) {
+    this.replicaRoutingDataSource = new ReplicaRoutingDataSource(
+        this.primary, replicas, this.readYourWritesWindow, Duration.ofSeconds(5), Duration.ofSeconds(1));
+    this.replicaRoutingDataSource.afterPropertiesSet();
+    this.replicaRoutingDataSource.checkHealth();
+    this.useRouting();
+  }
+
+  private void useRouting() {
+    LazyConnectionDataSourceProxy routingDataSource = new LazyConnectionDataSourceProxy(this.primary);
+    routingDataSource.setReadOnlyDataSource(this.replicaRoutingDataSource);
+    this.jdbcTemplate = new JdbcTemplate(routingDataSource);
+    this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(routingDataSource));
+  }
+
+  private String read(boolean readOnly) {
+    this.transactionTemplate.setReadOnly(readOnly);
+    return this.transactionTemplate.execute(
+        status -> this.jdbcTemplate.queryForObject("select name from node", String.class));
+  }
+
+  private static DataSource database(String name) {
+    DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute("create table node (name varchar(20))");
+    jdbcTemplate.update("insert into node values (?)", name);
+    return dataSource;
+  }
+}
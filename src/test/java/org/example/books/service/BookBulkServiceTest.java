@@ -0,0 +1,111 @@
+package org.example.books.service;
+
+import org.example.books.config.properties.AppBulkProperties;
+import org.example.books.dao.entity.Book;
+import org.example.books.dao.entity.Category;
+import org.example.books.dao.repository.BookRepository;
+import org.example.books.service.bulk.BookOperation;
+import org.example.books.service.bulk.BookOperationResult;
+import org.example.books.service.event.BookChangedEvent;
+import org.example.books.util.ErrorMsg;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookBulkServiceTest {
+  private final BookRepository bookRepository = Mockito.mock(BookRepository.class);
+  private final CategoryResolver categoryResolver = Mockito.mock(CategoryResolver.class);
+  private final ApplicationEventPublisher eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+  private final TransactionTemplate transactionTemplate = Mockito.mock(TransactionTemplate.class);
+  private final AppBulkProperties bulkProperties = new AppBulkProperties();
+  private final BookBulkService bookBulkService = new BookBulkServiceImpl(
+      this.bookRepository, this.categoryResolver, this.eventPublisher, this.transactionTemplate, this.bulkProperties);
+  private final AtomicInteger nextId = new AtomicInteger(100);
+
+  @BeforeEach
+  void setUp() {
+    Mockito.when(this.transactionTemplate.execute(ArgumentMatchers.any()))
+        .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    Mockito.when(this.bookRepository.save(ArgumentMatchers.any(Book.class))).thenAnswer(invocation -> {
+      Book book = invocation.getArgument(0);
+      book.setId(this.nextId.getAndIncrement());
+      return book;
+    });
+  }
+
+  @Test
+  void whenExecuteInChunks_thenOneTransactionAndOneResolutionPerChunk() {
+    this.bulkProperties.setChunkSize(2);
+    final Category category = new Category("Детская литература");
+    final Book existingBook = new Book(1, "Том Сойер", "Марк Твен", category);
+
+    Mockito.when(this.categoryResolver.resolveAll(Set.of(category.getName())))
+        .thenReturn(Map.of(category.getName(), category));
+    Mockito.when(this.bookRepository.findAllById(ArgumentMatchers.any())).thenReturn(List.of(existingBook));
+
+    final List<BookOperationResult> results = this.bookBulkService.execute(List.of(
+        new BookOperation(BookOperation.Type.CREATE, null, new Book("Книга 1", "Автор", category)),
+        new BookOperation(BookOperation.Type.CREATE, null, new Book("Книга 2", "Автор", category)),
+        new BookOperation(BookOperation.Type.UPDATE, 1, new Book("Приключения Тома Сойера", "Марк Твен", category)),
+        new BookOperation(BookOperation.Type.DELETE, 9, null)));
+
+    assertEquals(List.of(
+        BookOperationResult.of(BookOperationResult.Status.CREATED, 100),
+        BookOperationResult.of(BookOperationResult.Status.CREATED, 101),
+        BookOperationResult.of(BookOperationResult.Status.UPDATED, 1),
+        BookOperationResult.of(BookOperationResult.Status.NOT_FOUND, 9)), results);
+    assertEquals("Приключения Тома Сойера", existingBook.getTitle());
+
+    Mockito.verify(this.transactionTemplate, Mockito.times(2)).execute(ArgumentMatchers.any());
+    Mockito.verify(this.categoryResolver, Mockito.times(2)).resolveAll(Set.of(category.getName()));
+    Mockito.verify(this.bookRepository, Mockito.times(1)).findAllById(ArgumentMatchers.any());
+    Mockito.verify(this.bookRepository, Mockito.never()).delete(ArgumentMatchers.any());
+    Mockito.verify(this.eventPublisher, Mockito.times(3))
+        .publishEvent(ArgumentMatchers.any(BookChangedEvent.class));
+  }
+
+  @Test
+  void whenChunkFails_thenOnlyItsOperationsFail() {
+    this.bulkProperties.setChunkSize(1);
+    final Category category = new Category("Детская литература");
+
+    Mockito.when(this.categoryResolver.resolveAll(Set.of(category.getName())))
+        .thenReturn(Map.of(category.getName(), category));
+    Mockito.when(this.bookRepository.save(ArgumentMatchers.argThat(book -> "Дубль".equals(book.getTitle()))))
+        .thenThrow(new DataIntegrityViolationException("uq_books_title_author"));
+
+    final List<BookOperationResult> results = this.bookBulkService.execute(List.of(
+        new BookOperation(BookOperation.Type.CREATE, null, new Book("Дубль", "Автор", category)),
+        new BookOperation(BookOperation.Type.CREATE, null, new Book("Книга", "Автор", category))));
+
+    assertEquals(List.of(
+        new BookOperationResult(BookOperationResult.Status.FAILED, null, ErrorMsg.BOOK_ALREADY_EXISTS),
+        BookOperationResult.of(BookOperationResult.Status.CREATED, 100)), results);
+  }
+
+  @Test
+  void whenChunkFailsWithUnknownError_thenDetailsNotReturned() {
+    final Category category = new Category("Детская литература");
+
+    Mockito.when(this.categoryResolver.resolveAll(Set.of(category.getName())))
+        .thenThrow(new IllegalStateException("connection to 10.0.0.5:5432 refused"));
+
+    final List<BookOperationResult> results = this.bookBulkService.execute(List.of(
+        new BookOperation(BookOperation.Type.CREATE, null, new Book("Книга", "Автор", category))));
+
+    assertEquals(List.of(new BookOperationResult(BookOperationResult.Status.FAILED, null, ErrorMsg.BULK_CHUNK_FAILED)),
+        results);
+  }
+}
@@ -0,0 +1,83 @@
+package org.example.books.service;
+
+import org.example.books.config.properties.AppCacheProperties;
+import org.example.books.config.properties.AppDataSourceProperties;
+import org.example.books.dao.projection.BookRow;
+import org.example.books.dao.projection.BookView;
+import org.example.books.dao.repository.BookRepository;
+import org.example.books.datasource.ReadYourWritesWindow;
+import org.example.books.service.lookup.BookLookupKey;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BookLookupServiceTest {
+  private final BookRepository bookRepository = Mockito.mock(BookRepository.class);
+  private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+  private final BookLookupService bookLookupService = new BookLookupServiceImpl(
+      this.bookRepository, this.cacheManager, new ReadYourWritesWindow(new AppDataSourceProperties()));
+  private final Cache cache = this.cacheManager.getCache(AppCacheProperties.CacheNames.BOOK_BY_TITLE_AND_AUTHOR);
+
+  @Test
+  void whenLookup_thenOnlyMissesQueriedOnceAsPairsAndAbsentPairsCachedAsNegative() {
+    final BookLookupKey cached = new BookLookupKey("Том Сойер", "Марк Твен");
+    final BookLookupKey stored = new BookLookupKey("Гекльберри Финн", "Марк Твен");
+    final BookLookupKey absent = new BookLookupKey("Нет такой", "Марк Твен");
+    final BookView cachedBook = new BookView(1, "Том Сойер", "Марк Твен", "Детская литература");
+    final BookView storedBook = new BookView(2, "Гекльберри Финн", "Марк Твен", "Детская литература");
+    this.cache.put(cached.cacheKey(), cachedBook);
+    final BookRow storedRow = row(storedBook);
+
+    Mockito.when(this.bookRepository.findAllByTitleAndAuthorPairs(
+            new String[] {"Гекльберри Финн", "Нет такой"}, new String[] {"Марк Твен", "Марк Твен"}))
+        .thenReturn(List.of(storedRow));
+
+    final Map<BookLookupKey, BookView> books =
+        this.bookLookupService.findAllByTitleAndAuthor(List.of(cached, stored, absent, stored));
+
+    assertEquals(Map.of(cached, cachedBook, stored, storedBook), books);
+    assertEquals(storedBook, this.cache.get(stored.cacheKey(), BookView.class));
+    assertNull(this.cache.get(absent.cacheKey()).get());
+    Mockito.verify(this.bookRepository, Mockito.times(1))
+        .findAllByTitleAndAuthorPairs(ArgumentMatchers.any(), ArgumentMatchers.any());
+  }
+
+  @Test
+  void whenAbsentPairCachedAsNegative_thenDatabaseNotQueriedAgain() {
+    final BookLookupKey absent = new BookLookupKey("Нет такой", "Марк Твен");
+    Mockito.when(this.bookRepository.findAllByTitleAndAuthorPairs(ArgumentMatchers.any(), ArgumentMatchers.any()))
+        .thenReturn(List.of());
+
+    assertEquals(Map.of(), this.bookLookupService.findAllByTitleAndAuthor(List.of(absent)));
+    assertEquals(Map.of(), this.bookLookupService.findAllByTitleAndAuthor(List.of(absent)));
+
+    Mockito.verify(this.bookRepository, Mockito.times(1))
+        .findAllByTitleAndAuthorPairs(ArgumentMatchers.any(), ArgumentMatchers.any());
+  }
+
+  @Test
+  void whenAllCached_thenDatabaseNotQueried() {
+    final BookLookupKey cached = new BookLookupKey("Том Сойер", "Марк Твен");
+    final BookView cachedBook = new BookView(1, "Том Сойер", "Марк Твен", "Детская литература");
+    this.cache.put(cached.cacheKey(), cachedBook);
+
+    final Map<BookLookupKey, BookView> books = this.bookLookupService.findAllByTitleAndAuthor(List.of(cached));
+
+    assertEquals(Map.of(cached, cachedBook), books);
+    Mockito.verifyNoInteractions(this.bookRepository);
+  }
+
+  private static BookRow row(BookView book) {
+    BookRow row = Mockito.mock(BookRow.class);
+    Mockito.when(row.toView()).thenReturn(book);
+    return row;
+  }
+}
@@ -1,13 +1,17 @@
 package org.example.books.service;
 
+import org.example.books.config.properties.AppDataSourceProperties;
 import org.example.books.dao.entity.Book;
 import org.example.books.dao.entity.Category;
+import org.example.books.dao.projection.BookView;
 import org.example.books.dao.repository.BookRepository;
-import org.example.books.dao.repository.CategoryRepository;
+import org.example.books.datasource.ReadYourWritesWindow;
+import org.example.books.service.event.BookChangedEvent;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -18,33 +22,35 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 @ExtendWith(MockitoExtension.class)
 class BookServiceTest {
   private BookRepository bookRepository = Mockito.mock(BookRepository.class);
-  private CategoryRepository categoryRepository = Mockito.mock(CategoryRepository.class);
-  private final BookService bookService = new BookServiceImpl(this.bookRepository, this.categoryRepository);
+  private CategoryResolver categoryResolver = Mockito.mock(CategoryResolver.class);
+  private ApplicationEventPublisher eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+  private final BookService bookService =
+      new BookServiceImpl(this.bookRepository, this.categoryResolver, this.eventPublisher,
+          new ReadYourWritesWindow(new AppDataSourceProperties()));
 
   @Test
   void whenFindByTitleAndAuthor_thenReturnBookByTitleAndAuthor() {
-    final Category category = new Category("Детская литература");
-    final Book expectedBook = new Book(1, "Приключения Тома Сойера", "Марк Твен", category);
+    final BookView expectedBook = new BookView(1, "Приключения Тома Сойера", "Марк Твен", "Детская литература");
 
     Mockito.when(this.bookRepository.findByTitleAndAuthor("Приключения Тома Сойера", "Марк Твен"))
         .thenReturn(Optional.of(expectedBook));
 
-    Book actualBook = this.bookService.findByTitleAndAuthor("Приключения Тома Сойера", "Марк Твен");
+    Optional<BookView> actualBook = this.bookService.findByTitleAndAuthor("Приключения Тома Сойера", "Марк Твен");
 
     Mockito.verify(this.bookRepository, Mockito.times(1))
         .findByTitleAndAuthor("Приключения Тома Сойера", "Марк Твен");
 
-    assertEquals(expectedBook, actualBook);
+    assertEquals(Optional.of(expectedBook), actualBook);
   }
 
   @Test
   void whenFindAllByCategoryName_thenReturnAllBooksByCategory() {
     final Category category = new Category("Детская литература");
-    final List<Book> expectedBookList = new ArrayList<>();
+    final List<BookView> expectedBookList = new ArrayList<>();
 
     Mockito.when(this.bookRepository.findAllByCategoryName(category.getName())).thenReturn(new ArrayList<>());
 
-    final List<Book> actualBookList = this.bookService.findAllByCategoryName(category.getName());
+    final List<BookView> actualBookList = this.bookService.findAllByCategoryName(category.getName());
 
     Mockito.verify(this.bookRepository, Mockito.times(1)).findAllByCategoryName(category.getName());
 
@@ -58,16 +64,53 @@ class BookServiceTest {
     final Book editedBook = new Book("Приключения Гекльберри Финна", "Марк Твен", category);
     final Book expectedBook = new Book(1, "Приключения Гекльберри Финна", "Марк Твен", category);
 
-    Mockito.when(this.categoryRepository.findById("Детская литература")).thenReturn(Optional.of(category));
+    Mockito.when(this.categoryResolver.resolve("Детская литература")).thenReturn(category);
     Mockito.when(this.bookRepository.findById(1)).thenReturn(Optional.of(existedBook));
     Mockito.when(this.bookRepository.save(expectedBook)).thenReturn(expectedBook);
 
     final Book actualBook = this.bookService.update(editedBook, 1);
 
-    Mockito.verify(this.categoryRepository, Mockito.times(1)).findById(category.getName());
+    Mockito.verify(this.categoryResolver, Mockito.times(1)).resolve(category.getName());
     Mockito.verify(this.bookRepository, Mockito.times(1)).findById(1);
     Mockito.verify(this.bookRepository, Mockito.times(1)).save(expectedBook);
 
     assertEquals(expectedBook, actualBook);
   }
+
+  @Test
+  void whenUpdate_thenBookLoadedOnceAndOldAndNewKeysPublished() {
+    final Category category = new Category("Детская литература");
+    final Book existedBook = new Book(1, "Приключения Тома Сойера", "Марк Твен", category);
+    final Book editedBook = new Book("Приключения Гекльберри Финна", "Марк Твен", category);
+    final Book expectedBook = new Book(1, "Приключения Гекльберри Финна", "Марк Твен", category);
+
+    Mockito.when(this.categoryResolver.resolve("Детская литература")).thenReturn(category);
+    Mockito.when(this.bookRepository.findById(1)).thenReturn(Optional.of(existedBook));
+    Mockito.when(this.bookRepository.save(expectedBook)).thenReturn(expectedBook);
+
+    this.bookService.update(editedBook, 1);
+
+    Mockito.verify(this.categoryResolver, Mockito.times(1)).resolve(category.getName());
+    Mockito.verify(this.bookRepository, Mockito.times(1)).findById(1);
+    Mockito.verify(this.bookRepository, Mockito.times(1)).save(expectedBook);
+    Mockito.verifyNoMoreInteractions(this.bookRepository, this.categoryResolver);
+    Mockito.verify(this.eventPublisher, Mockito.times(1)).publishEvent(new BookChangedEvent(
+        new BookView(1, "Приключения Тома Сойера", "Марк Твен", "Детская литература"),
+        new BookView(1, "Приключения Гекльберри Финна", "Марк Твен", "Детская литература")));
+  }
+
+  @Test
+  void whenDelete_thenBookLoadedOnceAndDeletedOnce() {
+    final Book existedBook = new Book(1, "Приключения Тома Сойера", "Марк Твен", new Category("Детская литература"));
+
+    Mockito.when(this.bookRepository.findById(1)).thenReturn(Optional.of(existedBook));
+
+    this.bookService.delete(1);
+
+    Mockito.verify(this.bookRepository, Mockito.times(1)).findById(1);
+    Mockito.verify(this.bookRepository, Mockito.times(1)).delete(existedBook);
+    Mockito.verifyNoMoreInteractions(this.bookRepository, this.categoryResolver);
+    Mockito.verify(this.eventPublisher, Mockito.times(1)).publishEvent(new BookChangedEvent(
+        new BookView(1, "Приключения Тома Сойера", "Марк Твен", "Детская литература"), null));
+  }
 }
@@ -0,0 +1,167 @@
+package org.example.books.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.books.config.properties.AppWriteBehindProperties;
+import org.example.books.dao.entity.Book;
+import org.example.books.dao.entity.Category;
+import org.example.books.dao.repository.BookRepository;
+import org.example.books.service.event.BookChangedEvent;
+import org.example.books.service.writebehind.WriteQueueFullException;
+import org.example.books.service.writebehind.WriteTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BookWriteBehindServiceTest {
+  private final BookRepository bookRepository = Mockito.mock(BookRepository.class);
+  private final CategoryResolver categoryResolver = Mockito.mock(CategoryResolver.class);
+  private final ApplicationEventPublisher eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+  private final TransactionTemplate transactionTemplate = Mockito.mock(TransactionTemplate.class);
+  private final AppWriteBehindProperties properties = new AppWriteBehindProperties();
+  private final Category category = new Category("Детская литература");
+  private final AtomicInteger nextId = new AtomicInteger(100);
+  private final ExecutorService executor = Executors.newFixedThreadPool(3);
+  private BookWriteBehindServiceImpl bookWriteBehindService;
+
+  @BeforeEach
+  void setUp() {
+    this.properties.setEnabled(true);
+    this.properties.setFlushInterval(Duration.ofMillis(500));
+    this.bookWriteBehindService = new BookWriteBehindServiceImpl(this.bookRepository, this.categoryResolver,
+        this.eventPublisher, this.transactionTemplate, this.properties, new SimpleMeterRegistry());
+    Mockito.when(this.transactionTemplate.execute(ArgumentMatchers.any()))
+        .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    Mockito.when(this.categoryResolver.resolveAll(Set.of(this.category.getName())))
+        .thenReturn(Map.of(this.category.getName(), this.category));
+    Mockito.when(this.bookRepository.save(ArgumentMatchers.any(Book.class))).thenAnswer(invocation -> {
+      Book book = invocation.getArgument(0);
+      if (book.getTitle().equals("Дубль")) {
+        throw new DataIntegrityViolationException("uq_books_title_author");
+      }
+      if (book.getTitle().equals("Без базы")) {
+        throw new DataAccessResourceFailureException("база недоступна");
+      }
+      if (book.getTitle().equals("Сбой")) {
+        throw new Error("сбой потока записи");
+      }
+      book.setId(this.nextId.getAndIncrement());
+      return book;
+    });
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.bookWriteBehindService.stop();
+    this.executor.shutdownNow();
+  }
+
+  @Test
+  void whenConcurrentCreates_thenWrittenInOneTransaction() throws Exception {
+    this.bookWriteBehindService.start();
+
+    List<Future<Book>> results = this.createConcurrently("Книга 1", "Книга 2", "Книга 3");
+
+    List<Integer> ids = new ArrayList<>();
+    for (Future<Book> result : results) {
+      ids.add(result.get(5, TimeUnit.SECONDS).getId());
+    }
+    assertEquals(3, Set.copyOf(ids).size());
+    Mockito.verify(this.transactionTemplate, Mockito.times(1)).execute(ArgumentMatchers.any());
+    Mockito.verify(this.categoryResolver, Mockito.times(1)).resolveAll(Set.of(this.category.getName()));
+    Mockito.verify(this.eventPublisher, Mockito.times(3)).publishEvent(ArgumentMatchers.any(BookChangedEvent.class));
+  }
+
+  @Test
+  void whenBatchFails_thenHalvesRetriedAndOnlyFailedCallerGetsError() throws Exception {
+    this.bookWriteBehindService.start();
+
+    List<Future<Book>> results = this.createConcurrently("Книга 1", "Дубль", "Книга 2");
+
+    assertEquals("Книга 1", results.get(0).get(5, TimeUnit.SECONDS).getTitle());
+    ExecutionException failure = assertThrows(ExecutionException.class, () -> results.get(1).get(5, TimeUnit.SECONDS));
+    assertInstanceOf(DataIntegrityViolationException.class, failure.getCause());
+    assertEquals("Книга 2", results.get(2).get(5, TimeUnit.SECONDS).getTitle());
+    // вся пачка, [Книга 1], [Дубль, Книга 2], [Дубль], [Книга 2]
+    Mockito.verify(this.transactionTemplate, Mockito.times(5)).execute(ArgumentMatchers.any());
+  }
+
+  @Test
+  void whenBatchFailsNotOnConstraint_thenWholeBatchFailsWithoutRetries() throws Exception {
+    this.bookWriteBehindService.start();
+
+    List<Future<Book>> results = this.createConcurrently("Книга 1", "Без базы", "Книга 2");
+
+    for (Future<Book> result : results) {
+      ExecutionException failure = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+      assertInstanceOf(DataAccessResourceFailureException.class, failure.getCause());
+    }
+    Mockito.verify(this.transactionTemplate, Mockito.times(1)).execute(ArgumentMatchers.any());
+  }
+
+  @Test
+  void whenNotWrittenInTime_thenCallerStopsWaitingAndBookSkipped() {
+    this.properties.setWriteTimeout(Duration.ofMillis(50));
+    this.bookWriteBehindService.start();
+
+    assertThrows(WriteTimeoutException.class,
+        () -> this.bookWriteBehindService.create(new Book("Книга", "Автор", this.category)));
+
+    this.bookWriteBehindService.stop();
+    Mockito.verifyNoInteractions(this.bookRepository);
+  }
+
+  @Test
+  void whenFlusherDies_thenWaitingCallersFailAndNewCreatesRejected() throws Exception {
+    this.bookWriteBehindService.start();
+
+    List<Future<Book>> results = this.createConcurrently("Книга 1", "Сбой");
+
+    ExecutionException failure = assertThrows(ExecutionException.class, () -> results.get(1).get(5, TimeUnit.SECONDS));
+    assertEquals("сбой потока записи", failure.getCause().getMessage());
+    assertThrows(ExecutionException.class, () -> results.get(0).get(5, TimeUnit.SECONDS));
+    assertThrows(WriteQueueFullException.class,
+        () -> this.bookWriteBehindService.create(new Book("Книга 2", "Автор", this.category)));
+  }
+
+  @Test
+  void whenNotRunning_thenCreateRejected() {
+    WriteQueueFullException exception = assertThrows(WriteQueueFullException.class,
+        () -> this.bookWriteBehindService.create(new Book("Книга", "Автор", this.category)));
+
+    assertEquals(this.properties.getRetryAfter(), exception.getRetryAfter());
+    Mockito.verifyNoInteractions(this.bookRepository);
+  }
+
+  private List<Future<Book>> createConcurrently(String... titles) throws InterruptedException {
+    List<Future<Book>> results = new ArrayList<>();
+    for (String title : titles) {
+      results.add(this.executor.submit(() -> this.bookWriteBehindService.create(new Book(title, "Автор", this.category))));
+      // книги встают в очередь в порядке заголовков
+      Thread.sleep(20);
+    }
+    return results;
+  }
+}
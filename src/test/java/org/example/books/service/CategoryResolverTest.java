@@ -0,0 +1,62 @@
+package org.example.books.service;
+
+import org.example.books.dao.entity.Category;
+import org.example.books.dao.repository.CategoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CategoryResolverTest {
+  private final CategoryRepository categoryRepository = Mockito.mock(CategoryRepository.class);
+  private final CategoryResolver categoryResolver = new CategoryResolver(this.categoryRepository);
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void whenCategoryKnown_thenNoInsert() {
+    final Category category = new Category("Детская литература");
+    Mockito.when(this.categoryRepository.getReferenceById("Детская литература")).thenReturn(category);
+
+    this.categoryResolver.resolve("Детская литература");
+    final Category actualCategory = this.categoryResolver.resolve("Детская литература");
+
+    assertSame(category, actualCategory);
+    Mockito.verify(this.categoryRepository, Mockito.times(1)).insertIfAbsent("Детская литература");
+    Mockito.verify(this.categoryRepository, Mockito.times(2)).getReferenceById("Детская литература");
+    Mockito.verifyNoMoreInteractions(this.categoryRepository);
+  }
+
+  @Test
+  void whenTransactionRolledBack_thenCategoryNotRemembered() {
+    TransactionSynchronizationManager.initSynchronization();
+    this.categoryResolver.resolve("Детская литература");
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    TransactionSynchronizationManager.clearSynchronization();
+
+    this.categoryResolver.resolve("Детская литература");
+
+    Mockito.verify(this.categoryRepository, Mockito.times(2)).insertIfAbsent("Детская литература");
+  }
+
+  @Test
+  void whenTransactionCommitted_thenCategoryRemembered() {
+    TransactionSynchronizationManager.initSynchronization();
+    this.categoryResolver.resolve("Детская литература");
+    TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    TransactionSynchronizationManager.clearSynchronization();
+
+    this.categoryResolver.resolve("Детская литература");
+
+    Mockito.verify(this.categoryRepository, Mockito.times(1)).insertIfAbsent("Детская литература");
+  }
+}
@@ -0,0 +1,63 @@
+package org.example.books.service;
+
+import org.example.books.dao.entity.Book;
+import org.example.books.dao.entity.Category;
+import org.example.books.service.stats.CategoryStats;
+import org.example.books.service.stats.CategoryStatsReconciler;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Счётчики категорий с настоящими сервисом книг, базой и Redis
+ */
+@SpringBootTest
+class CategoryStatsServiceTest {
+  @Autowired
+  private BookService bookService;
+  @Autowired
+  private CategoryStatsService categoryStatsService;
+  @Autowired
+  private CategoryStatsReconciler categoryStatsReconciler;
+  @Autowired
+  private StringRedisTemplate redisTemplate;
+
+  @Test
+  void whenBooksCreatedUpdatedAndDeleted_thenCountersFollow() {
+    String prose = "Проза " + System.nanoTime();
+    String poetry = "Поэзия " + System.nanoTime();
+    Book first = this.bookService.create(new Book("Война и мир", "Лев Толстой", new Category(prose)));
+    this.bookService.create(new Book("Анна Каренина", "Лев Толстой", new Category(prose)));
+    this.bookService.create(new Book("Отцы и дети", "Иван Тургенев", new Category(prose)));
+
+    assertEquals(new CategoryStats(prose, 3, 2), this.categoryStatsService.findByCategoryName(prose));
+
+    this.bookService.update(new Book("Война и мир", "Лев Толстой", new Category(poetry)), first.getId());
+
+    assertEquals(new CategoryStats(prose, 2, 2), this.categoryStatsService.findByCategoryName(prose));
+    assertEquals(new CategoryStats(poetry, 1, 1), this.categoryStatsService.findByCategoryName(poetry));
+
+    this.bookService.delete(first.getId());
+
+    assertEquals(new CategoryStats(poetry, 0, 0), this.categoryStatsService.findByCategoryName(poetry));
+    assertTrue(this.categoryStatsService.findAll().contains(new CategoryStats(prose, 2, 2)));
+    assertTrue(this.categoryStatsService.findAll().stream().noneMatch(stats -> stats.categoryName().equals(poetry)));
+  }
+
+  @Test
+  void whenCountersDrift_thenReconcileRestoresThem() {
+    String drama = "Драма " + System.nanoTime();
+    this.bookService.create(new Book("Гроза", "Александр Островский", new Category(drama)));
+    this.bookService.create(new Book("Чайка", "Антон Чехов", new Category(drama)));
+    this.redisTemplate.opsForHash().put("books:{category}:books", drama, "40");
+    this.redisTemplate.opsForHash().delete("books:{category}:authors", drama);
+
+    this.categoryStatsReconciler.reconcile();
+
+    assertEquals(new CategoryStats(drama, 2, 2), this.categoryStatsService.findByCategoryName(drama));
+  }
+}
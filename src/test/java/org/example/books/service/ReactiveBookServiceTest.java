@@ -0,0 +1,95 @@
+package org.example.books.service;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.example.books.cache.CacheKeys;
+import org.example.books.cache.ReactiveBookCache;
+import org.example.books.config.properties.AppCacheProperties;
+import org.example.books.dao.entity.Book;
+import org.example.books.dao.entity.Category;
+import org.example.books.dao.projection.BookView;
+import org.example.books.dao.repository.ReactiveBookRepository;
+import org.example.books.service.event.BookChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReactiveBookServiceTest {
+  private final ReactiveBookRepository bookRepository = Mockito.mock(ReactiveBookRepository.class);
+  private final ReactiveBookCache bookCache = Mockito.mock(ReactiveBookCache.class);
+  private final TransactionalOperator transactionalOperator = Mockito.mock(TransactionalOperator.class);
+  private final ApplicationEventPublisher eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+  private final ReactiveBookService bookService = new ReactiveBookServiceImpl(
+      this.bookRepository, this.bookCache, this.transactionalOperator, this.eventPublisher);
+
+  @BeforeEach
+  void setUp() {
+    Mockito.when(this.transactionalOperator.transactional(ArgumentMatchers.<Mono<Object>>any()))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+  }
+
+  @Test
+  void whenCategoryCached_thenDatabaseNotQueried() {
+    final List<BookView> books = List.of(new BookView(1, "title1", "author1", "category"));
+    Mockito.when(this.bookCache.get(AppCacheProperties.CacheNames.BOOKS_BY_CATEGORY, "category"))
+        .thenReturn(Mono.just(books));
+
+    assertEquals(books, this.bookService.findAllByCategoryName("category").collectList().block());
+
+    Mockito.verifyNoInteractions(this.bookRepository);
+  }
+
+  @Test
+  void whenCategoryNotCached_thenStreamedFromDatabaseAndCached() {
+    final List<BookView> books = List.of(
+        new BookView(1, "title1", "author1", "category"),
+        new BookView(2, "title2", "author2", "category"));
+    Mockito.when(this.bookCache.get(AppCacheProperties.CacheNames.BOOKS_BY_CATEGORY, "category"))
+        .thenReturn(Mono.empty());
+    Mockito.when(this.bookRepository.findAllByCategoryName("category")).thenReturn(Flux.fromIterable(books));
+    Mockito.when(this.bookCache.put(AppCacheProperties.CacheNames.BOOKS_BY_CATEGORY, "category", books))
+        .thenReturn(Mono.empty());
+
+    assertEquals(books, this.bookService.findAllByCategoryName("category").collectList().block());
+
+    Mockito.verify(this.bookCache, Mockito.times(1))
+        .put(AppCacheProperties.CacheNames.BOOKS_BY_CATEGORY, "category", books);
+  }
+
+  @Test
+  void whenBookNotFound_thenEntityNotFound() {
+    Mockito.when(this.bookCache.get(
+            AppCacheProperties.CacheNames.BOOK_BY_TITLE_AND_AUTHOR, CacheKeys.titleAndAuthor("Марк", "Твен")))
+        .thenReturn(Mono.empty());
+    Mockito.when(this.bookRepository.findByTitleAndAuthor("Марк", "Твен")).thenReturn(Mono.empty());
+
+    Mono<BookView> book = this.bookService.findByTitleAndAuthor("Марк", "Твен");
+
+    assertThrows(EntityNotFoundException.class, book::block);
+  }
+
+  @Test
+  void whenUpdate_thenOldAndNewKeysPublishedAfterCommit() {
+    final BookView before = new BookView(1, "Приключения Тома Сойера", "Марк Твен", "Детская литература");
+    final BookView after = new BookView(1, "Приключения Гекльберри Финна", "Марк Твен", "Детская литература");
+    Mockito.when(this.bookRepository.findById(1)).thenReturn(Mono.just(before));
+    Mockito.when(this.bookRepository.insertCategoryIfAbsent("Детская литература")).thenReturn(Mono.empty());
+    Mockito.when(this.bookRepository.update(1, "Приключения Гекльберри Финна", "Марк Твен", "Детская литература"))
+        .thenReturn(Mono.just(1L));
+
+    BookView updated = this.bookService.update(
+        new Book("Приключения Гекльберри Финна", "Марк Твен", new Category("Детская литература")), 1).block();
+
+    assertEquals(after, updated);
+    Mockito.verify(this.eventPublisher, Mockito.times(1)).publishEvent(new BookChangedEvent(before, after));
+  }
+}
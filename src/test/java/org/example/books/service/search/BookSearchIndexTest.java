@@ -0,0 +1,88 @@
+package org.example.books.service.search;
+
+import org.example.books.dao.projection.BookView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookSearchIndexTest {
+  private final BookSearchIndex index = new BookSearchIndex(0.3, 4, 10_000);
+  private final BookView tomSawyer = new BookView(1, "Приключения Тома Сойера", "Марк Твен", "Детская литература");
+  private final BookView huckFinn = new BookView(2, "Приключения Гекльберри Финна", "Марк Твен", "Детская литература");
+  private final BookView hedgehog = new BookView(3, "Ёжик в тумане", "Сергей Козлов", "Сказки");
+  private final BookView martinEden = new BookView(4, "Martin Eden", "Jack London", "Classics");
+
+  @BeforeEach
+  void setUp() {
+    List.of(this.tomSawyer, this.huckFinn, this.hedgehog, this.martinEden).forEach(this.index::put);
+  }
+
+  @Test
+  void whenSearchByPrefix_thenBooksStartingWithQueryRankedFirst() {
+    assertEquals(List.of(this.tomSawyer, this.huckFinn), this.books(this.index.search("прикл", 10)));
+    assertEquals(List.of(this.martinEden), this.books(this.index.search("Jack Lon", 10)));
+  }
+
+  @Test
+  void whenSearchWithTypoOrYo_thenBookFound() {
+    assertEquals(this.tomSawyer, this.index.search("Сойра", 10).get(0).book());
+    assertEquals(this.hedgehog, this.index.search("ежик", 10).get(0).book());
+  }
+
+  @Test
+  void whenLimit_thenOnlyBestHitsReturned() {
+    List<BookSearchHit> hits = this.index.search("Твен", 1);
+
+    assertEquals(1, hits.size());
+    assertEquals(this.tomSawyer, hits.get(0).book());
+  }
+
+  @Test
+  void whenQueryShorterThanFuzzyMinLength_thenOnlyWordStartsMatch() {
+    assertEquals(List.of(this.martinEden), this.books(this.index.search("ede", 10)));
+    assertTrue(this.index.search("ойе", 10).isEmpty());
+    assertEquals(List.of(this.tomSawyer), this.books(this.index.search("ойер", 10)));
+  }
+
+  @Test
+  void whenMoreCandidatesThanCap_thenBestMatchingKept() {
+    BookSearchIndex cappedIndex = new BookSearchIndex(0.3, 4, 1);
+    List.of(this.tomSawyer, this.huckFinn, this.hedgehog, this.martinEden).forEach(cappedIndex::put);
+
+    assertEquals(List.of(this.tomSawyer), this.books(cappedIndex.search("Сойер Марк", 10)));
+  }
+
+  @Test
+  void whenUpdatedAndRemoved_thenSearchSeesLatestState() {
+    this.index.put(new BookView(1, "Принц и нищий", "Марк Твен", "Детская литература"));
+    this.index.remove(2);
+
+    assertEquals(List.of(), this.index.search("Гекльберри", 10));
+    assertEquals("Принц и нищий", this.index.search("нищий", 10).get(0).book().getTitle());
+    assertTrue(this.index.search("Сойер", 10).isEmpty());
+    assertEquals(3, this.index.size());
+  }
+
+  @Test
+  void whenChangedWhileLoading_thenLoadedRowDoesNotOverwriteChange() {
+    BookSearchIndex loadingIndex = new BookSearchIndex(0.3, 4, 10_000);
+    loadingIndex.startLoading();
+    loadingIndex.put(new BookView(1, "Принц и нищий", "Марк Твен", "Детская литература"));
+    loadingIndex.remove(2);
+
+    loadingIndex.load(List.of(this.tomSawyer, this.huckFinn, this.hedgehog));
+    loadingIndex.finishLoading();
+
+    assertEquals(2, loadingIndex.size());
+    assertEquals("Принц и нищий", loadingIndex.search("Твен", 10).get(0).book().getTitle());
+    assertEquals(List.of(this.hedgehog), this.books(loadingIndex.search("ёжик", 10)));
+  }
+
+  private List<BookView> books(List<BookSearchHit> hits) {
+    return hits.stream().map(BookSearchHit::book).toList();
+  }
+}
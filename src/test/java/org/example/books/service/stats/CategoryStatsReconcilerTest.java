@@ -0,0 +1,74 @@
+package org.example.books.service.stats;
+
+import org.example.books.config.properties.AppCategoryStatsProperties;
+import org.example.books.dao.projection.BookView;
+import org.example.books.dao.projection.CategoryAuthorCount;
+import org.example.books.dao.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Сверка счётчиков категорий с изменениями, применёнными во время неё, с настоящими базой и Redis.
+ * Снимок категории подменяется: в базе её нет
+ */
+@SpringBootTest
+class CategoryStatsReconcilerTest {
+  private static final String TOLSTOY = "Лев Толстой";
+  private static final String CHEKHOV = "Антон Чехов";
+
+  @Autowired
+  private BookRepository bookRepository;
+  @Autowired
+  private CategoryStatsStore categoryStatsStore;
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+  @Autowired
+  private AppCategoryStatsProperties properties;
+
+  @Test
+  void whenBooksChangedDuringReconcile_thenChangesKeptAndNotCountedTwice() {
+    String prose = "Проза " + System.nanoTime();
+    CategoryStatsStore.CategoryAuthor tolstoy = new CategoryStatsStore.CategoryAuthor(prose, TOLSTOY);
+    this.apply(-1, prose, TOLSTOY, 1, null);
+    this.apply(-2, prose, TOLSTOY, 1, null);
+
+    BookRepository bookRepository = Mockito.mock(
+        BookRepository.class, AdditionalAnswers.delegatesTo(this.bookRepository));
+    Mockito.doAnswer(invocation -> {
+      // удаление до снимка попадает и в снимок, и в журнал, новая книга - только в журнал
+      this.apply(-2, prose, TOLSTOY, -1, tolstoy);
+      this.apply(-3, prose, CHEKHOV, 1, null);
+      Stream<CategoryAuthorCount> rows = this.bookRepository.streamCategoryAuthorCounts();
+      return Stream.concat(rows, Stream.of(
+              new CategoryAuthorCount(prose, TOLSTOY, 1), new CategoryAuthorCount(prose, CHEKHOV, 1)))
+          // книга в снимке, применённая уже после замены счётчиков категории
+          .onClose(() -> this.apply(-4, prose, CHEKHOV, 1, null));
+    }).when(bookRepository).streamCategoryAuthorCounts();
+    Mockito.doAnswer(invocation -> List.of(new BookView(-4, "Вишнёвый сад", CHEKHOV, prose)))
+        .when(bookRepository).findAllViewsByIdIn(ArgumentMatchers.anyCollection());
+
+    new CategoryStatsReconciler(bookRepository, this.categoryStatsStore, this.transactionManager, this.properties)
+        .reconcile();
+
+    assertEquals(new CategoryStats(prose, 3, 2), this.categoryStatsStore.find(prose));
+  }
+
+  private void apply(
+      int bookId, String categoryName, String author, long books, CategoryStatsStore.CategoryAuthor start) {
+    Map<Integer, CategoryStatsStore.CategoryAuthor> bookStarts = new HashMap<>();
+    bookStarts.put(bookId, start);
+    this.categoryStatsStore.apply(List.of(new CategoryStatsStore.AuthorDelta(categoryName, author, books)), bookStarts);
+  }
+}
@@ -0,0 +1,145 @@
+package org.example.books.util;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Подсчёт обращений к базе в текущем потоке: источник соединений оборачивается прокси, который считает
+ * выполнения запросов (пакет JDBC - одно выполнение) с их текстом и фиксации транзакций. Для теста контекста
+ * достаточно импортировать {@link CountingConfiguration} и выполнить запрос внутри {@link #count}
+ */
+public final class StatementCounter {
+  private static final ThreadLocal<Counts> COUNTS = new ThreadLocal<>();
+
+  private StatementCounter() {
+  }
+
+  /**
+   * @param action - действие, например, запрос MockMvc
+   * @return - сколько запросов и фиксаций выполнено в этом потоке за время действия
+   */
+  public static Counts count(Action action) throws Exception {
+    Counts counts = new Counts();
+    COUNTS.set(counts);
+    try {
+      action.run();
+    } finally {
+      COUNTS.remove();
+    }
+    return counts;
+  }
+
+  public static DataSource wrap(DataSource dataSource) {
+    return new CountingDataSource(dataSource);
+  }
+
+  @FunctionalInterface
+  public interface Action {
+    void run() throws Exception;
+  }
+
+  public static class Counts {
+    private final List<String> sql = new ArrayList<>();
+    private int commits;
+
+    public int statements() {
+      return this.sql.size();
+    }
+
+    /**
+     * @return - тексты выполненных запросов по порядку
+     */
+    public List<String> sql() {
+      return this.sql;
+    }
+
+    public int commits() {
+      return this.commits;
+    }
+
+    @Override
+    public String toString() {
+      return "statements=" + this.sql.size() + ", commits=" + this.commits + ", sql=" + this.sql;
+    }
+  }
+
+  @TestConfiguration
+  public static class CountingConfiguration {
+    @Bean
+    public static BeanPostProcessor statementCountingPostProcessor() {
+      return new BeanPostProcessor() {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+          return bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)
+              ? wrap(dataSource)
+              : bean;
+        }
+      };
+    }
+  }
+
+  private static class CountingDataSource extends DelegatingDataSource {
+    CountingDataSource(DataSource target) {
+      super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      return proxy(Connection.class, super.getConnection(), null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+      return proxy(Connection.class, super.getConnection(username, password), null);
+    }
+  }
+
+  /**
+   * @param preparedSql - текст подготовленного запроса, null - запрос передаётся при выполнении
+   */
+  private static <T> T proxy(Class<T> type, T target, String preparedSql) {
+    InvocationHandler handler = (proxy, method, args) -> {
+      Counts counts = COUNTS.get();
+      if (counts != null) {
+        if (target instanceof Statement && method.getName().startsWith("execute")) {
+          counts.sql.add(args != null && args.length > 0 && args[0] instanceof String sql ? sql : preparedSql);
+        } else if (target instanceof Connection && method.getName().equals("commit")) {
+          counts.commits++;
+        }
+      }
+      Object result = invoke(method, target, args);
+      if (target instanceof Connection && result instanceof Statement statement) {
+        return proxyStatement(
+            method.getReturnType(), statement, args != null && args.length > 0 ? String.valueOf(args[0]) : null);
+      }
+      return result;
+    };
+    return type.cast(Proxy.newProxyInstance(StatementCounter.class.getClassLoader(), new Class<?>[] {type}, handler));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object proxyStatement(Class<?> type, Statement statement, String preparedSql) {
+    return proxy((Class<Object>) type, statement, preparedSql);
+  }
+
+  private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getTargetException();
+    }
+  }
+}
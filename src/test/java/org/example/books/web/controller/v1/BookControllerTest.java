@@ -1,31 +1,54 @@
 package org.example.books.web.controller.v1;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.persistence.EntityNotFoundException;
 import net.javacrumbs.jsonunit.JsonAssert;
 import org.example.books.dao.entity.Book;
 import org.example.books.dao.entity.Category;
+import org.example.books.dao.projection.BookView;
 import org.example.books.mapper.BookMapper;
+import org.example.books.service.BookBulkService;
+import org.example.books.service.BookLookupService;
+import org.example.books.service.BookSearchService;
 import org.example.books.service.BookService;
+import org.example.books.service.BookWriteBehindService;
+import org.example.books.service.lookup.BookLookupKey;
+import org.example.books.service.search.BookSearchHit;
+import org.example.books.service.writebehind.WriteQueueFullException;
+import org.example.books.util.ErrorMsg;
 import org.example.books.util.TestStringUtil;
 import org.example.books.web.dto.BookListResponse;
+import org.example.books.web.dto.BookLookupItemRequest;
+import org.example.books.web.dto.BookLookupRequest;
+import org.example.books.web.dto.BookLookupResponse;
+import org.example.books.web.dto.BookLookupResult;
+import org.example.books.web.dto.BookPageResponse;
 import org.example.books.web.dto.BookResponse;
+import org.example.books.web.dto.BookSearchResponse;
 import org.example.books.web.dto.BookUpsertRequest;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -37,21 +60,23 @@ class BookControllerTest {
   @MockBean
   private BookService bookService;
   @MockBean
+  private BookBulkService bookBulkService;
+  @MockBean
+  private BookLookupService bookLookupService;
+  @MockBean
+  private BookSearchService bookSearchService;
+  @MockBean
+  private BookWriteBehindService bookWriteBehindService;
+  @MockBean
   private BookMapper bookMapper;
 
   @Test
   void whenFindAllByCategory_thenReturnAllBooksByCategory() throws Exception {
-    final Category category = new Category("category");
+    final List<BookView> books = new ArrayList<>();
+    books.add(new BookView(1, "title1", "author1", "category"));
+    books.add(new BookView(2, "title2", "author2", "category"));
 
-    final List<Book> books = new ArrayList<>();
-    books.add(new Book(1, "title1", "author1", category));
-    books.add(new Book(2, "title2", "author2", category));
-
-    final List<BookResponse> bookResponses = new ArrayList<>();
-    bookResponses.add(new BookResponse(1, "title1", "author1", "category"));
-    bookResponses.add(new BookResponse(2, "title2", "author2", "category"));
-
-    final BookListResponse bookListResponse = new BookListResponse(bookResponses);
+    final BookListResponse bookListResponse = new BookListResponse(books);
 
     Mockito.when(this.bookService.findAllByCategoryName("category")).thenReturn(books);
     Mockito.when(this.bookMapper.bookListToBookListResponse(books)).thenReturn(bookListResponse);
@@ -69,14 +94,112 @@ class BookControllerTest {
     JsonAssert.assertJsonEquals(expectedResponse, actualResponse);
   }
 
+  @Test
+  void whenFindAllByCategoryContentChanged_thenETagChanged() throws Exception {
+    final List<BookView> books = List.of(new BookView(1, "title1", "author1", "category"));
+    final List<BookView> changedBooks = List.of(new BookView(1, "title2", "author1", "category"));
+
+    Mockito.when(this.bookService.findAllByCategoryName("category")).thenReturn(books, books, changedBooks);
+    Mockito.when(this.bookMapper.bookListToBookListResponse(Mockito.any()))
+        .thenAnswer(invocation -> new BookListResponse(invocation.getArgument(0)));
+
+    final String eTag = this.eTagOf(get("/api/v1/book/category"));
+
+    Assertions.assertTrue(eTag.matches("\"list-[0-9a-f]+\""), eTag);
+    Assertions.assertEquals(eTag, this.eTagOf(get("/api/v1/book/category")));
+    Assertions.assertNotEquals(eTag, this.eTagOf(get("/api/v1/book/category")));
+  }
+
+  @Test
+  void whenFindAllByCategoryWithCurrentETag_thenNotModifiedWithoutMapping() throws Exception {
+    final List<BookView> books = List.of(new BookView(1, "title1", "author1", "category"));
+
+    Mockito.when(this.bookService.findAllByCategoryName("category")).thenReturn(books);
+    Mockito.when(this.bookMapper.bookListToBookListResponse(books)).thenReturn(new BookListResponse(books));
+    final String eTag = this.eTagOf(get("/api/v1/book/category"));
+
+    this.mockMvc.perform(get("/api/v1/book/category").header("If-None-Match", eTag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string("ETag", eTag))
+        .andExpect(content().string(""));
+
+    Mockito.verify(this.bookMapper, Mockito.times(1)).bookListToBookListResponse(books);
+  }
+
+  @Test
+  void whenFindByTitleAndAuthorWithOutdatedETag_thenBookReturned() throws Exception {
+    final BookView book = new BookView(1, "title1", "author1", "category");
+
+    Mockito.when(this.bookService.findByTitleAndAuthor("title1", "author1")).thenReturn(Optional.of(book));
+
+    final String eTag = this.mockMvc.perform(get("/api/v1/book/title1/author1").header("If-None-Match", "\"book-0\""))
+        .andExpect(status().isOk())
+        .andReturn()
+        .getResponse()
+        .getHeader("ETag");
+
+    Assertions.assertTrue(eTag.matches("\"book-[0-9a-f]+\""), eTag);
+  }
+
+  @Test
+  void whenFindPageByCategory_thenReturnPageWithNextCursor() throws Exception {
+    final List<BookView> books = new ArrayList<>();
+    books.add(new BookView(3, "title3", "author3", "category"));
+    books.add(new BookView(4, "title4", "author4", "category"));
+
+    final BookPageResponse bookPageResponse = new BookPageResponse(books, 4);
+
+    Mockito.when(this.bookService.findPageByCategoryName("category", 2, 2)).thenReturn(books);
+    Mockito.when(this.bookMapper.bookPageToBookPageResponse(books, 2)).thenReturn(bookPageResponse);
+
+    final String expectedResponse = TestStringUtil.readStringFromResource("response/find_page_of_books_by_category.json");
+    final String actualResponse = this.mockMvc.perform(get("/api/v1/book/category?after=2&size=2"))
+        .andExpect(status().isOk())
+        .andReturn()
+        .getResponse()
+        .getContentAsString(StandardCharsets.UTF_8);
+
+    Mockito.verify(this.bookService, Mockito.times(1)).findPageByCategoryName("category", 2, 2);
+    Mockito.verify(this.bookMapper, Mockito.times(1)).bookPageToBookPageResponse(books, 2);
+
+    JsonAssert.assertJsonEquals(expectedResponse, actualResponse);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void whenExportByCategory_thenStreamBooksAsNdjson() throws Exception {
+    Mockito.doAnswer(invocation -> {
+      Consumer<BookView> consumer = invocation.getArgument(1);
+      consumer.accept(new BookView(1, "title1", "author1", "category"));
+      consumer.accept(new BookView(2, "title2", "author2", "category"));
+      return null;
+    }).when(this.bookService).exportByCategoryName(Mockito.eq("category"), Mockito.any(Consumer.class));
+
+    final MvcResult asyncResult = this.mockMvc.perform(get("/api/v1/book/category")
+            .accept(MediaType.APPLICATION_NDJSON))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    final String actualResponse = this.mockMvc.perform(asyncDispatch(asyncResult))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+        .andReturn()
+        .getResponse()
+        .getContentAsString(StandardCharsets.UTF_8);
+
+    final String[] lines = actualResponse.split("\n");
+    Assertions.assertEquals(2, lines.length);
+    JsonAssert.assertJsonEquals(
+        "{\"id\":1,\"title\":\"title1\",\"author\":\"author1\",\"categoryName\":\"category\"}", lines[0]);
+    JsonAssert.assertJsonEquals(
+        "{\"id\":2,\"title\":\"title2\",\"author\":\"author2\",\"categoryName\":\"category\"}", lines[1]);
+    Mockito.verify(this.bookService, Mockito.never()).findAllByCategoryName(Mockito.any());
+  }
+
   @Test
   void whenFindByTitleAndAuthor_thenReturnBookByTitleAndAuthor() throws Exception {
-    final Category category = new Category("category");
-    final Book book = new Book(1, "title", "author", category);
-    final BookResponse response = new BookResponse(1, "title", "author", "category");
+    final BookView book = new BookView(1, "title", "author", "category");
 
-    Mockito.when(this.bookService.findByTitleAndAuthor("title", "author")).thenReturn(book);
-    Mockito.when(this.bookMapper.bookToBookResponse(book)).thenReturn(response);
+    Mockito.when(this.bookService.findByTitleAndAuthor("title", "author")).thenReturn(Optional.of(book));
 
     final String expectedResponse = TestStringUtil.readStringFromResource("response/find_book_by_title_and_author_response.json");
     final String actualResponse = this.mockMvc.perform(get("/api/v1/book/title/author"))
@@ -86,7 +209,6 @@ class BookControllerTest {
         .getContentAsString(StandardCharsets.UTF_8);
 
     Mockito.verify(this.bookService, Mockito.times(1)).findByTitleAndAuthor("title", "author");
-    Mockito.verify(this.bookMapper, Mockito.times(1)).bookToBookResponse(book);
 
     JsonAssert.assertJsonEquals(expectedResponse, actualResponse);
   }
@@ -151,6 +273,179 @@ class BookControllerTest {
     JsonAssert.assertJsonEquals(expectedResponse, actualResponse);
   }
 
+  @Test
+  void whenBulkWithIncompleteOperation_thenReturnError() throws Exception {
+    final String request = "{\"operations\":[{\"type\":\"UPDATE\",\"title\":\"title1\"," +
+        "\"author\":\"author1\",\"categoryName\":\"category\"}]}";
+
+    final String actualResponse = this.mockMvc.perform(post("/api/v1/book/bulk")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(request))
+        .andExpect(status().isBadRequest())
+        .andReturn()
+        .getResponse()
+        .getContentAsString(StandardCharsets.UTF_8);
+
+    Mockito.verifyNoInteractions(this.bookBulkService);
+    JsonAssert.assertJsonEquals(
+        "{\"errorMessage\":\"" + ErrorMsg.BULK_OPERATION_INVALID + "\"}", actualResponse);
+  }
+
+  @Test
+  void whenBulkWithBlankTitle_thenReturnErrorAndAllowDeleteWithoutBook() throws Exception {
+    final String request = "{\"operations\":[{\"type\":\"CREATE\",\"title\":\"  \"," +
+        "\"author\":\"author1\",\"categoryName\":\"category\"},{\"type\":\"DELETE\",\"id\":1}]}";
+
+    final String actualResponse = this.mockMvc.perform(post("/api/v1/book/bulk")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(request))
+        .andExpect(status().isBadRequest())
+        .andReturn()
+        .getResponse()
+        .getContentAsString(StandardCharsets.UTF_8);
+
+    Mockito.verifyNoInteractions(this.bookBulkService);
+    JsonAssert.assertJsonEquals("{\"errorMessage\":\"" + ErrorMsg.TITLE_EMPTY + "\"}", actualResponse);
+  }
+
+  @Test
+  void whenLookup_thenReturnFoundAndNotFoundInRequestOrder() throws Exception {
+    final BookLookupRequest request = new BookLookupRequest(List.of(
+        new BookLookupItemRequest("title1", "author1"),
+        new BookLookupItemRequest("title2", "author2")));
+    final List<BookLookupKey> keys =
+        List.of(new BookLookupKey("title1", "author1"), new BookLookupKey("title2", "author2"));
+    final BookView book = new BookView(1, "title1", "author1", "category");
+    final Map<BookLookupKey, BookView> books = Map.of(keys.get(0), book);
+
+    Mockito.when(this.bookMapper.requestToBookLookupKeys(request)).thenReturn(keys);
+    Mockito.when(this.bookLookupService.findAllByTitleAndAuthor(keys)).thenReturn(books);
+    Mockito.when(this.bookMapper.booksToBookLookupResponse(keys, books)).thenReturn(new BookLookupResponse(List.of(
+        new BookLookupResult("title1", "author1", true, book),
+        new BookLookupResult("title2", "author2", false, null))));
+
+    final String expectedResponse = TestStringUtil.readStringFromResource("response/lookup_books_response.json");
+    final String actualResponse = this.mockMvc.perform(post("/api/v1/book/lookup")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(this.objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk())
+        .andReturn()
+        .getResponse()
+        .getContentAsString(StandardCharsets.UTF_8);
+
+    Mockito.verify(this.bookLookupService, Mockito.times(1)).findAllByTitleAndAuthor(keys);
+
+    JsonAssert.assertJsonEquals(expectedResponse, actualResponse);
+  }
+
+  @Test
+  void whenLookupWithoutItems_thenReturnError() throws Exception {
+    final String actualResponse = this.mockMvc.perform(post("/api/v1/book/lookup")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"items\":[]}"))
+        .andExpect(status().isBadRequest())
+        .andReturn()
+        .getResponse()
+        .getContentAsString(StandardCharsets.UTF_8);
+
+    Mockito.verifyNoInteractions(this.bookLookupService);
+    JsonAssert.assertJsonEquals(
+        "{\"errorMessage\":\"Число искомых книг должно быть от 1 до " + BookLookupRequest.MAX_ITEMS + "!\"}",
+        actualResponse);
+  }
+
+  @Test
+  void whenSearch_thenReturnRankedHitsWithLimitCapped() throws Exception {
+    final List<BookSearchHit> hits = List.of(
+        new BookSearchHit(new BookView(1, "title1", "author1", "category"), 1.5),
+        new BookSearchHit(new BookView(2, "title2", "author2", "category"), 0.5));
+
+    Mockito.when(this.bookSearchService.search("tit", 50)).thenReturn(hits);
+    Mockito.when(this.bookMapper.hitsToBookSearchResponse(hits)).thenReturn(new BookSearchResponse(hits));
+
+    final String expectedResponse = TestStringUtil.readStringFromResource("response/search_books_response.json");
+    final String actualResponse = this.mockMvc.perform(get("/api/v1/book").param("q", "tit").param("limit", "1000"))
+        .andExpect(status().isOk())
+        .andReturn()
+        .getResponse()
+        .getContentAsString(StandardCharsets.UTF_8);
+
+    Mockito.verify(this.bookSearchService, Mockito.times(1)).search("tit", 50);
+
+    JsonAssert.assertJsonEquals(expectedResponse, actualResponse);
+  }
+
+  @Test
+  void whenSearchWithTooShortQuery_thenReturnError() throws Exception {
+    this.mockMvc.perform(get("/api/v1/book").param("q", "t"))
+        .andExpect(status().isBadRequest());
+
+    Mockito.verifyNoInteractions(this.bookSearchService);
+  }
+
+  @Test
+  void whenCreateDuplicate_thenReturnConflict() throws Exception {
+    final BookUpsertRequest request = new BookUpsertRequest("title1", "author1", "category");
+    final Book book = new Book("title1", "author1", new Category("category"));
+
+    Mockito.when(this.bookMapper.requestToBook(request)).thenReturn(book);
+    Mockito.when(this.bookService.create(book)).thenThrow(new DataIntegrityViolationException("uq_books_title_author"));
+
+    final String actualResponse = this.mockMvc.perform(post("/api/v1/book")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(this.objectMapper.writeValueAsString(request)))
+        .andExpect(status().isConflict())
+        .andReturn()
+        .getResponse()
+        .getContentAsString(StandardCharsets.UTF_8);
+
+    JsonAssert.assertJsonEquals("{\"errorMessage\":\"" + ErrorMsg.BOOK_ALREADY_EXISTS + "\"}", actualResponse);
+  }
+
+  @Test
+  void whenCreateViolatesOtherConstraint_thenReturnServerError() throws Exception {
+    final BookUpsertRequest request = new BookUpsertRequest("title1", "author1", "category");
+    final Book book = new Book("title1", "author1", new Category("category"));
+
+    Mockito.when(this.bookMapper.requestToBook(request)).thenReturn(book);
+    Mockito.when(this.bookService.create(book)).thenThrow(new DataIntegrityViolationException("fk_books_category"));
+
+    final String actualResponse = this.mockMvc.perform(post("/api/v1/book")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(this.objectMapper.writeValueAsString(request)))
+        .andExpect(status().isInternalServerError())
+        .andReturn()
+        .getResponse()
+        .getContentAsString(StandardCharsets.UTF_8);
+
+    JsonAssert.assertJsonEquals(
+        "{\"errorMessage\":\"" + MessageFormat.format(ErrorMsg.INTERNAL_SERVER_ERROR, "DataIntegrityViolationException") + "\"}",
+        actualResponse);
+  }
+
+  @Test
+  void whenWriteQueueFull_thenReturnServiceUnavailableWithRetryAfter() throws Exception {
+    final BookUpsertRequest request = new BookUpsertRequest("title1", "author1", "category");
+    final Book book = new Book("title1", "author1", new Category("category"));
+
+    Mockito.when(this.bookMapper.requestToBook(request)).thenReturn(book);
+    Mockito.when(this.bookWriteBehindService.isEnabled()).thenReturn(true);
+    Mockito.when(this.bookWriteBehindService.create(book))
+        .thenThrow(new WriteQueueFullException(ErrorMsg.WRITE_QUEUE_FULL, Duration.ofSeconds(2)));
+
+    final String actualResponse = this.mockMvc.perform(post("/api/v1/book")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(this.objectMapper.writeValueAsString(request)))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(header().string("Retry-After", "2"))
+        .andReturn()
+        .getResponse()
+        .getContentAsString(StandardCharsets.UTF_8);
+
+    JsonAssert.assertJsonEquals("{\"errorMessage\":\"" + ErrorMsg.WRITE_QUEUE_FULL + "\"}", actualResponse);
+    Mockito.verify(this.bookService, Mockito.never()).create(book);
+  }
+
   @Test
   void whenDeleteById_thenReturnNoContent() throws Exception {
     this.mockMvc.perform(delete("/api/v1/book/1"))
@@ -161,8 +456,7 @@ class BookControllerTest {
 
   @Test
   void whenFindByTitleAndAuthor_thenReturnError() throws Exception {
-    Mockito.when(this.bookService.findByTitleAndAuthor("Марк", "Твен"))
-        .thenThrow(new EntityNotFoundException("Книга по названию и автору не найдена!"));
+    Mockito.when(this.bookService.findByTitleAndAuthor("Марк", "Твен")).thenReturn(Optional.empty());
 
     final String expectedResponse = TestStringUtil
         .readStringFromResource("response/_err_book_not_found_response.json");
@@ -177,4 +471,12 @@ class BookControllerTest {
 
     JsonAssert.assertJsonEquals(expectedResponse, actualResponse);
   }
+
+  private String eTagOf(MockHttpServletRequestBuilder request) throws Exception {
+    return this.mockMvc.perform(request)
+        .andExpect(status().isOk())
+        .andReturn()
+        .getResponse()
+        .getHeader("ETag");
+  }
 }
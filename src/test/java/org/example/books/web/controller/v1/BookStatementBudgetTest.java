@@ -0,0 +1,169 @@
+package org.example.books.web.controller.v1;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.books.util.StatementCounter;
+import org.example.books.web.dto.BookLookupItemRequest;
+import org.example.books.web.dto.BookLookupRequest;
+import org.example.books.web.dto.BookResponse;
+import org.example.books.web.dto.BookUpsertRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Число обращений к базе на запрос API 1.0 с настоящими сервисами и базой: каждый запрос
+ * на запись - одна транзакция, а увеличение числа запросов к базе роняет сборку
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(StatementCounter.CountingConfiguration.class)
+class BookStatementBudgetTest {
+  /**
+   * Создание: категория "вставить, если нет", блок id из последовательности (раз на 50 книг), вставка книги
+   */
+  private static final int CREATE_BUDGET = 3;
+  /**
+   * Обновление: чтение книги, категория "вставить, если нет" (для новой категории), обновление книги
+   */
+  private static final int UPDATE_BUDGET = 3;
+  /**
+   * Удаление: чтение книги и удаление
+   */
+  private static final int DELETE_BUDGET = 2;
+  /**
+   * Чтение при промахе кэша - один запрос, при попадании - ни одного
+   */
+  private static final int READ_MISS_BUDGET = 1;
+
+  @Autowired
+  private MockMvc mockMvc;
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Test
+  void whenCreateUpdateAndDelete_thenEachWithinStatementBudgetAndSingleCommit() throws Exception {
+    String suffix = String.valueOf(System.nanoTime());
+    BookResponse[] created = new BookResponse[1];
+
+    StatementCounter.Counts create = StatementCounter.count(() -> created[0] = this.read(
+        this.mockMvc.perform(post("/api/v1/book")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(this.json(new BookUpsertRequest("Бюджет " + suffix, "Автор", "Бюджет " + suffix))))
+            .andExpect(status().isCreated())
+            .andReturn()));
+    StatementCounter.Counts updateToNewCategory = StatementCounter.count(() -> this.update(
+        created[0].getId(), new BookUpsertRequest("Бюджет " + suffix, "Автор", "Новая " + suffix)));
+    StatementCounter.Counts updateToKnownCategory = StatementCounter.count(() -> this.update(
+        created[0].getId(), new BookUpsertRequest("Бюджет " + suffix, "Автор 2", "Новая " + suffix)));
+    StatementCounter.Counts delete = StatementCounter.count(() ->
+        this.mockMvc.perform(delete("/api/v1/book/" + created[0].getId())).andExpect(status().isNoContent()));
+
+    assertWithin(CREATE_BUDGET, create);
+    assertWithin(UPDATE_BUDGET, updateToNewCategory);
+    assertWithin(UPDATE_BUDGET - 1, updateToKnownCategory);
+    assertWithin(DELETE_BUDGET, delete);
+  }
+
+  @Test
+  void whenUpdateAndDelete_thenBookSelectedOnceEach() throws Exception {
+    String categoryName = "Выборка " + System.nanoTime();
+    BookResponse created = this.read(this.mockMvc.perform(post("/api/v1/book")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(this.json(new BookUpsertRequest(categoryName, "Автор", categoryName))))
+        .andExpect(status().isCreated())
+        .andReturn());
+
+    StatementCounter.Counts update = StatementCounter.count(() ->
+        this.update(created.getId(), new BookUpsertRequest("Другая " + categoryName, "Автор", categoryName)));
+    StatementCounter.Counts delete = StatementCounter.count(() ->
+        this.mockMvc.perform(delete("/api/v1/book/" + created.getId())).andExpect(status().isNoContent()));
+
+    assertEquals(1, bookSelects(update), "Обновление: " + update);
+    assertEquals(1, bookSelects(delete), "Удаление: " + delete);
+  }
+
+  @Test
+  void whenReadTwice_thenMissWithinBudgetAndHitWithoutStatements() throws Exception {
+    String categoryName = "Чтение " + System.nanoTime();
+    this.mockMvc.perform(post("/api/v1/book")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(this.json(new BookUpsertRequest("Книга", "Автор", categoryName))))
+        .andExpect(status().isCreated());
+
+    StatementCounter.Counts miss = StatementCounter.count(() ->
+        this.mockMvc.perform(get("/api/v1/book/{categoryName}", categoryName)).andExpect(status().isOk()));
+    StatementCounter.Counts hit = StatementCounter.count(() ->
+        this.mockMvc.perform(get("/api/v1/book/{categoryName}", categoryName)).andExpect(status().isOk()));
+
+    assertEquals(READ_MISS_BUDGET, miss.statements(), "Промах кэша: " + miss);
+    assertEquals(0, hit.statements(), "Попадание в кэш: " + hit);
+  }
+
+  @Test
+  void whenLookupTwice_thenPairsSelectedOnceAndAbsentPairNotQueriedAgain() throws Exception {
+    String suffix = String.valueOf(System.nanoTime());
+    BookResponse created = this.read(this.mockMvc.perform(post("/api/v1/book")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(this.json(new BookUpsertRequest("Пара " + suffix, "Автор", "Пары " + suffix))))
+        .andExpect(status().isCreated())
+        .andReturn());
+    String request = this.json(new BookLookupRequest(List.of(
+        new BookLookupItemRequest("Пара " + suffix, "Автор"),
+        new BookLookupItemRequest("Пара " + suffix, "Другой автор"))));
+
+    String[] responses = new String[1];
+    StatementCounter.Counts miss = StatementCounter.count(() -> responses[0] = this.mockMvc.perform(
+            post("/api/v1/book/lookup").contentType(MediaType.APPLICATION_JSON).content(request))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8));
+    StatementCounter.Counts hit = StatementCounter.count(() -> this.mockMvc.perform(
+            post("/api/v1/book/lookup").contentType(MediaType.APPLICATION_JSON).content(request))
+        .andExpect(status().isOk()));
+
+    assertTrue(responses[0].contains("\"id\":" + created.getId()), responses[0]);
+    assertEquals(READ_MISS_BUDGET, miss.statements(), "Промах кэша: " + miss);
+    assertEquals(0, hit.statements(), "Попадание в кэш: " + hit);
+  }
+
+  private void update(int id, BookUpsertRequest request) throws Exception {
+    this.mockMvc.perform(put("/api/v1/book/" + id)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(this.json(request)))
+        .andExpect(status().isOk());
+  }
+
+  private String json(Object value) throws Exception {
+    return this.objectMapper.writeValueAsString(value);
+  }
+
+  private BookResponse read(MvcResult result) throws Exception {
+    return this.objectMapper.readValue(
+        result.getResponse().getContentAsString(StandardCharsets.UTF_8), BookResponse.class);
+  }
+
+  private static long bookSelects(StatementCounter.Counts counts) {
+    return counts.sql().stream()
+        .map(sql -> sql.toLowerCase(Locale.ROOT))
+        .filter(sql -> sql.startsWith("select") && sql.contains(" from books "))
+        .count();
+  }
+
+  private static void assertWithin(int budget, StatementCounter.Counts counts) {
+    assertTrue(counts.statements() <= budget, "Запросов больше " + budget + ": " + counts);
+    assertTrue(counts.commits() <= 1, "Больше одной фиксации: " + counts);
+  }
+}
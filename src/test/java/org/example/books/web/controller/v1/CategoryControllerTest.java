@@ -0,0 +1,51 @@
+package org.example.books.web.controller.v1;
+
+import org.example.books.service.CategoryStatsService;
+import org.example.books.service.stats.CategoryStats;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CategoryControllerTest {
+  @Autowired
+  private MockMvc mockMvc;
+  @MockBean
+  private CategoryStatsService categoryStatsService;
+
+  @Test
+  void whenFindAll_thenStatsOfAllCategoriesReturned() throws Exception {
+    Mockito.when(this.categoryStatsService.findAll()).thenReturn(List.of(
+        new CategoryStats("Поэзия", 12, 5), new CategoryStats("Проза", 40, 17)));
+
+    this.mockMvc.perform(get("/api/v1/category"))
+        .andExpect(status().isOk())
+        .andExpect(content().json("""
+            {"categories": [
+              {"categoryName": "Поэзия", "books": 12, "authors": 5},
+              {"categoryName": "Проза", "books": 40, "authors": 17}
+            ]}"""));
+  }
+
+  @Test
+  void whenFindByCategoryName_thenStatsOfCategoryReturned() throws Exception {
+    Mockito.when(this.categoryStatsService.findByCategoryName("Проза")).thenReturn(new CategoryStats("Проза", 40, 17));
+
+    this.mockMvc.perform(get("/api/v1/category/{categoryName}", "Проза"))
+        .andExpect(status().isOk())
+        .andExpect(content().json("""
+            {"categoryName": "Проза", "books": 40, "authors": 17}"""));
+
+    Mockito.verify(this.categoryStatsService, Mockito.times(1)).findByCategoryName("Проза");
+  }
+}
@@ -0,0 +1,98 @@
+package org.example.books.web.controller.v2;
+
+import jakarta.persistence.EntityNotFoundException;
+import net.javacrumbs.jsonunit.JsonAssert;
+import org.example.books.dao.projection.BookView;
+import org.example.books.service.ReactiveBookService;
+import org.example.books.util.TestStringUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReactiveBookControllerTest {
+  @Autowired
+  protected MockMvc mockMvc;
+  @MockBean
+  private ReactiveBookService bookService;
+
+  @Test
+  void whenFindAllByCategory_thenReturnAllBooksByCategory() throws Exception {
+    Mockito.when(this.bookService.findAllByCategoryName("category")).thenReturn(Flux.just(
+        new BookView(1, "title1", "author1", "category"),
+        new BookView(2, "title2", "author2", "category")));
+
+    final String expectedResponse = TestStringUtil.readStringFromResource("response/find_all_books_by_category.json");
+    final MvcResult asyncResult = this.mockMvc.perform(get("/api/v2/book/category"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    final String actualResponse = this.mockMvc.perform(asyncDispatch(asyncResult))
+        .andExpect(status().isOk())
+        .andReturn()
+        .getResponse()
+        .getContentAsString(StandardCharsets.UTF_8);
+
+    Mockito.verify(this.bookService, Mockito.times(1)).findAllByCategoryName("category");
+
+    JsonAssert.assertJsonEquals(expectedResponse, actualResponse);
+  }
+
+  @Test
+  void whenStreamByCategory_thenReturnOneBookPerLine() throws Exception {
+    Mockito.when(this.bookService.findAllByCategoryName("category")).thenReturn(Flux.just(
+        new BookView(1, "title1", "author1", "category"),
+        new BookView(2, "title2", "author2", "category")));
+
+    final MvcResult asyncResult = this.mockMvc.perform(get("/api/v2/book/category")
+            .accept(MediaType.APPLICATION_NDJSON))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    final String actualResponse = this.mockMvc.perform(asyncDispatch(asyncResult))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+        .andReturn()
+        .getResponse()
+        .getContentAsString(StandardCharsets.UTF_8);
+
+    final String[] lines = actualResponse.split("\n");
+    Assertions.assertEquals(2, lines.length);
+    JsonAssert.assertJsonEquals(
+        "{\"id\":1,\"title\":\"title1\",\"author\":\"author1\",\"categoryName\":\"category\"}", lines[0]);
+    JsonAssert.assertJsonEquals(
+        "{\"id\":2,\"title\":\"title2\",\"author\":\"author2\",\"categoryName\":\"category\"}", lines[1]);
+  }
+
+  @Test
+  void whenFindByTitleAndAuthorNotExisted_thenReturnError() throws Exception {
+    Mockito.when(this.bookService.findByTitleAndAuthor("Марк", "Твен"))
+        .thenReturn(Mono.error(new EntityNotFoundException("Книга по названию и автору не найдена!")));
+
+    final String expectedResponse = TestStringUtil
+        .readStringFromResource("response/_err_book_not_found_response.json");
+    final MvcResult asyncResult = this.mockMvc.perform(get("/api/v2/book/Марк/Твен"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    final String actualResponse = this.mockMvc.perform(asyncDispatch(asyncResult))
+        .andExpect(status().isNotFound())
+        .andReturn()
+        .getResponse()
+        .getContentAsString(StandardCharsets.UTF_8);
+
+    JsonAssert.assertJsonEquals(expectedResponse, actualResponse);
+  }
+}